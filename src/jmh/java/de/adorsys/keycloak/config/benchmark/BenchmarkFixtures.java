@@ -0,0 +1,178 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.benchmark;
+
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.ProtocolMapperRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Synthetic representations with the sizes of a typical production realm.
+ */
+final class BenchmarkFixtures {
+    private BenchmarkFixtures() {
+    }
+
+    static ImportConfigProperties importConfigProperties(Map<String, String> properties) {
+        return new Binder(new MapConfigurationPropertySource(properties))
+                .bindOrCreate("import", ImportConfigProperties.class);
+    }
+
+    static ClientRepresentation client(int index, int protocolMapperCount) {
+        ClientRepresentation client = new ClientRepresentation();
+        client.setClientId("client-" + index);
+        client.setName("Client " + index);
+        client.setDescription("Synthetic client " + index + " of the benchmark realm");
+        client.setEnabled(true);
+        client.setProtocol("openid-connect");
+        client.setPublicClient(false);
+        client.setSecret("secret-" + index);
+        client.setStandardFlowEnabled(true);
+        client.setDirectAccessGrantsEnabled(false);
+        client.setServiceAccountsEnabled(true);
+        client.setRootUrl("https://app-" + index + ".example.com");
+        client.setBaseUrl("/");
+        client.setRedirectUris(List.of("https://app-" + index + ".example.com/*", "https://app-" + index + ".example.org/*"));
+        client.setWebOrigins(List.of("https://app-" + index + ".example.com", "https://app-" + index + ".example.org"));
+        client.setDefaultClientScopes(List.of("web-origins", "acr", "profile", "roles", "email"));
+        client.setOptionalClientScopes(List.of("address", "phone", "offline_access", "microprofile-jwt"));
+
+        Map<String, String> attributes = new LinkedHashMap<>();
+        for (int attributeIndex = 0; attributeIndex < 20; attributeIndex++) {
+            attributes.put("attribute." + attributeIndex, "value-" + index + "-" + attributeIndex);
+        }
+        client.setAttributes(attributes);
+
+        List<ProtocolMapperRepresentation> protocolMappers = new ArrayList<>();
+        for (int mapperIndex = 0; mapperIndex < protocolMapperCount; mapperIndex++) {
+            protocolMappers.add(protocolMapper(mapperIndex));
+        }
+        client.setProtocolMappers(protocolMappers);
+
+        return client;
+    }
+
+    static ProtocolMapperRepresentation protocolMapper(int index) {
+        ProtocolMapperRepresentation protocolMapper = new ProtocolMapperRepresentation();
+        protocolMapper.setName("mapper-" + index);
+        protocolMapper.setProtocol("openid-connect");
+        protocolMapper.setProtocolMapper("oidc-usermodel-attribute-mapper");
+        protocolMapper.setConfig(new LinkedHashMap<>(Map.of(
+                "user.attribute", "attribute-" + index,
+                "claim.name", "claim_" + index,
+                "jsonType.label", "String",
+                "id.token.claim", "true",
+                "access.token.claim", "true",
+                "userinfo.token.claim", "true"
+        )));
+        return protocolMapper;
+    }
+
+    static GroupRepresentation group(int index, int subGroupCount) {
+        GroupRepresentation group = new GroupRepresentation();
+        group.setName("group-" + index);
+        group.setPath("/group-" + index);
+        group.setAttributes(Map.of("department", List.of("department-" + index), "costCenter", List.of(String.valueOf(index))));
+        group.setRealmRoles(List.of("role-1", "role-2", "role-3"));
+        group.setClientRoles(Map.of("client-1", List.of("client-role-1", "client-role-2")));
+
+        List<GroupRepresentation> subGroups = new ArrayList<>();
+        for (int subGroupIndex = 0; subGroupIndex < subGroupCount; subGroupIndex++) {
+            GroupRepresentation subGroup = group(subGroupIndex, 0);
+            subGroup.setPath(group.getPath() + subGroup.getPath());
+            subGroups.add(subGroup);
+        }
+        group.setSubGroups(subGroups);
+
+        return group;
+    }
+
+    static UserRepresentation user(int index) {
+        UserRepresentation user = new UserRepresentation();
+        user.setUsername("user-" + index);
+        user.setEmail("user-" + index + "@example.com");
+        user.setFirstName("First" + index);
+        user.setLastName("Last" + index);
+        user.setEnabled(true);
+        user.setEmailVerified(true);
+        user.setAttributes(Map.of("locale", List.of("en"), "employeeNumber", List.of(String.valueOf(index))));
+        user.setRealmRoles(List.of("role-1", "role-2"));
+        user.setClientRoles(Map.of("client-1", List.of("client-role-1")));
+        user.setGroups(List.of("/group-1", "/group-2/group-0"));
+        return user;
+    }
+
+    /**
+     * Returns a realm import file with the given number of clients, groups and users.
+     */
+    static String realmYaml(int clientCount, int groupCount, int userCount) {
+        StringBuilder yaml = new StringBuilder()
+                .append("realm: benchmark\n")
+                .append("enabled: true\n")
+                .append("clients:\n");
+
+        for (int index = 0; index < clientCount; index++) {
+            yaml.append("  - clientId: client-").append(index).append('\n')
+                    .append("    enabled: true\n")
+                    .append("    redirectUris:\n")
+                    .append("      - https://app-").append(index).append(".example.com/*\n")
+                    .append("    attributes:\n")
+                    .append("      pkce.code.challenge.method: S256\n")
+                    .append("    protocolMappers:\n");
+            for (int mapperIndex = 0; mapperIndex < 5; mapperIndex++) {
+                yaml.append("      - name: mapper-").append(mapperIndex).append('\n')
+                        .append("        protocol: openid-connect\n")
+                        .append("        protocolMapper: oidc-usermodel-attribute-mapper\n")
+                        .append("        config:\n")
+                        .append("          claim.name: claim_").append(mapperIndex).append('\n');
+            }
+        }
+
+        yaml.append("groups:\n");
+        for (int index = 0; index < groupCount; index++) {
+            yaml.append("  - name: group-").append(index).append('\n')
+                    .append("    attributes:\n")
+                    .append("      department:\n")
+                    .append("        - department-").append(index).append('\n');
+        }
+
+        yaml.append("users:\n");
+        for (int index = 0; index < userCount; index++) {
+            yaml.append("  - username: user-").append(index).append('\n')
+                    .append("    email: user-").append(index).append("@example.com\n")
+                    .append("    enabled: true\n")
+                    .append("    groups:\n")
+                    .append("      - /group-").append(index % Math.max(1, groupCount)).append('\n');
+        }
+
+        return yaml.toString();
+    }
+}
@@ -0,0 +1,116 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.benchmark;
+
+import de.adorsys.keycloak.config.util.CloneUtil;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CloneUtilBenchmark {
+    private ClientRepresentation existingClient;
+    private ClientRepresentation importedClient;
+    private GroupRepresentation existingGroup;
+    private GroupRepresentation importedGroup;
+    private UserRepresentation existingUser;
+    private UserRepresentation importedUser;
+
+    @Setup
+    public void setup() {
+        existingClient = BenchmarkFixtures.client(1, 10);
+        existingClient.setId("0b5d4d4c-1b3f-4c59-9a4b-5c9a0a0c0f01");
+        importedClient = BenchmarkFixtures.client(1, 10);
+        importedClient.setDescription("Changed description");
+
+        existingGroup = BenchmarkFixtures.group(1, 20);
+        existingGroup.setId("0b5d4d4c-1b3f-4c59-9a4b-5c9a0a0c0f02");
+        importedGroup = BenchmarkFixtures.group(1, 20);
+
+        existingUser = BenchmarkFixtures.user(1);
+        existingUser.setId("0b5d4d4c-1b3f-4c59-9a4b-5c9a0a0c0f03");
+        importedUser = BenchmarkFixtures.user(1);
+        importedUser.setLastName("Changed");
+    }
+
+    @Benchmark
+    public ClientRepresentation deepCloneClient() {
+        return CloneUtil.deepClone(existingClient);
+    }
+
+    @Benchmark
+    public ClientRepresentation deepCloneClientIgnoringProperties() {
+        return CloneUtil.deepClone(importedClient, ClientRepresentation.class, "id", "protocolMappers");
+    }
+
+    @Benchmark
+    public GroupRepresentation deepCloneGroup() {
+        return CloneUtil.deepClone(existingGroup);
+    }
+
+    @Benchmark
+    public ClientRepresentation patchClient() {
+        return CloneUtil.patch(existingClient, importedClient, "id");
+    }
+
+    @Benchmark
+    public GroupRepresentation patchGroup() {
+        return CloneUtil.patch(existingGroup, importedGroup, "id");
+    }
+
+    @Benchmark
+    public UserRepresentation patchUser() {
+        return CloneUtil.patch(existingUser, importedUser, "id");
+    }
+
+    @Benchmark
+    public boolean deepEqualsClient() {
+        return CloneUtil.deepEquals(existingClient, importedClient, "id");
+    }
+
+    @Benchmark
+    public boolean deepEqualsGroup() {
+        return CloneUtil.deepEquals(existingGroup, importedGroup, "id");
+    }
+
+    @Benchmark
+    public boolean deepEqualsUser() {
+        return CloneUtil.deepEquals(existingUser, importedUser, "id");
+    }
+}
@@ -0,0 +1,86 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.benchmark;
+
+import de.adorsys.keycloak.config.model.KeycloakImport;
+import de.adorsys.keycloak.config.provider.KeycloakImportProvider;
+import de.adorsys.keycloak.config.provider.UserFileReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KeycloakImportProviderBenchmark {
+    @Param({"10", "200"})
+    public int clientCount;
+
+    @Param({"100", "5000"})
+    public int userCount;
+
+    private Path importFile;
+    private KeycloakImportProvider keycloakImportProvider;
+
+    @Setup
+    public void setup() throws IOException {
+        importFile = Files.createTempFile("benchmark-realm", ".yaml");
+        Files.writeString(importFile, BenchmarkFixtures.realmYaml(clientCount, clientCount, userCount));
+
+        keycloakImportProvider = new KeycloakImportProvider(
+                new StandardEnvironment(),
+                new PathMatchingResourcePatternResolver(),
+                BenchmarkFixtures.importConfigProperties(Map.of()),
+                new UserFileReader(new PathMatchingResourcePatternResolver())
+        );
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(importFile);
+    }
+
+    @Benchmark
+    public KeycloakImport readFromLocations() {
+        return keycloakImportProvider.readFromLocations(importFile.toUri().toString());
+    }
+}
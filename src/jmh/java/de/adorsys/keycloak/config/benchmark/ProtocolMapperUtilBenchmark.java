@@ -0,0 +1,78 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.benchmark;
+
+import de.adorsys.keycloak.config.util.ProtocolMapperUtil;
+import org.keycloak.representations.idm.ProtocolMapperRepresentation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProtocolMapperUtilBenchmark {
+    @Param({"5", "20", "50"})
+    public int protocolMapperCount;
+
+    private List<ProtocolMapperRepresentation> protocolMappers;
+    private List<ProtocolMapperRepresentation> existingProtocolMappers;
+
+    @Setup
+    public void setup() {
+        protocolMappers = new ArrayList<>();
+        existingProtocolMappers = new ArrayList<>();
+
+        for (int index = 0; index < protocolMapperCount; index++) {
+            protocolMappers.add(BenchmarkFixtures.protocolMapper(index));
+
+            ProtocolMapperRepresentation existingProtocolMapper = BenchmarkFixtures.protocolMapper(index);
+            existingProtocolMapper.setId("mapper-id-" + index);
+            existingProtocolMappers.add(existingProtocolMapper);
+        }
+    }
+
+    @Benchmark
+    public boolean areProtocolMappersEqual() {
+        return ProtocolMapperUtil.areProtocolMappersEqual(protocolMappers, existingProtocolMappers);
+    }
+
+    @Benchmark
+    public List<ProtocolMapperRepresentation> estimateProtocolMappersToUpdate() {
+        return ProtocolMapperUtil.estimateProtocolMappersToUpdate(protocolMappers, existingProtocolMappers);
+    }
+}
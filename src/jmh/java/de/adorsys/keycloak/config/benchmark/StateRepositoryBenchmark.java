@@ -0,0 +1,107 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.benchmark;
+
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.repository.RealmRepository;
+import de.adorsys.keycloak.config.repository.StateRepository;
+import org.keycloak.representations.idm.RealmRepresentation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StateRepositoryBenchmark {
+    private static final String REALM = "benchmark";
+
+    @Param({"100", "5000"})
+    public int stateSize;
+
+    @Param({"false", "true"})
+    public boolean encrypted;
+
+    private List<String> state;
+    private StateRepository stateRepository;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        state = new ArrayList<>();
+        for (int index = 0; index < stateSize; index++) {
+            state.add("client-" + index);
+        }
+
+        Map<String, String> properties = new HashMap<>();
+        if (encrypted) {
+            properties.put("import.remote-state.encryption-key", "benchmark");
+            properties.put("import.remote-state.encryption-salt", "2B521C795FBE2F2425DB150CD3700BA9");
+        }
+        ImportConfigProperties importConfigProperties = BenchmarkFixtures.importConfigProperties(properties);
+
+        stateRepository = new StateRepository(new InMemoryRealmRepository(), null, importConfigProperties);
+        stateRepository.loadCustomAttributes(REALM);
+        stateRepository.setState(REALM, "clients", state);
+    }
+
+    @Benchmark
+    public List<String> getState() {
+        return stateRepository.getState(REALM, "clients");
+    }
+
+    @Benchmark
+    public void setState() {
+        stateRepository.setState(REALM, "clients", state);
+    }
+
+    private static final class InMemoryRealmRepository extends RealmRepository {
+        InMemoryRealmRepository() {
+            super(null);
+        }
+
+        @Override
+        public RealmRepresentation get(String realmName) {
+            RealmRepresentation realm = new RealmRepresentation();
+            realm.setRealm(realmName);
+            realm.setAttributes(new HashMap<>());
+            return realm;
+        }
+    }
+}
@@ -20,12 +20,16 @@
 
 package de.adorsys.keycloak.config;
 
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
 import de.adorsys.keycloak.config.model.KeycloakImport;
 import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.properties.KeycloakConfigProperties;
 import de.adorsys.keycloak.config.provider.KeycloakImportProvider;
 import de.adorsys.keycloak.config.service.RealmImportService;
+import de.adorsys.keycloak.config.service.report.ImportReportService;
+import de.adorsys.keycloak.config.service.watch.ChangedRealmImports;
+import de.adorsys.keycloak.config.service.watch.ImportWatchService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,11 +39,21 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.nio.file.Path;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 @Component
 /*
@@ -56,6 +70,8 @@ public class KeycloakConfigRunner implements CommandLineRunner, ExitCodeGenerato
     private final KeycloakImportProvider keycloakImportProvider;
     private final RealmImportService realmImportService;
     private final ImportConfigProperties importConfigProperties;
+    private final ImportWatchService importWatchService;
+    private final ImportReportService importReportService;
 
     private int exitCode = 0;
 
@@ -63,10 +79,14 @@ public class KeycloakConfigRunner implements CommandLineRunner, ExitCodeGenerato
     public KeycloakConfigRunner(
             KeycloakImportProvider keycloakImportProvider,
             RealmImportService realmImportService,
-            ImportConfigProperties importConfigProperties) {
+            ImportConfigProperties importConfigProperties,
+            ImportWatchService importWatchService,
+            ImportReportService importReportService) {
         this.keycloakImportProvider = keycloakImportProvider;
         this.realmImportService = realmImportService;
         this.importConfigProperties = importConfigProperties;
+        this.importWatchService = importWatchService;
+        this.importReportService = importReportService;
     }
 
     @Override
@@ -80,15 +100,10 @@ public class KeycloakConfigRunner implements CommandLineRunner, ExitCodeGenerato
             Collection<String> importLocations = importConfigProperties.getFiles().getLocations();
             KeycloakImport keycloakImport = keycloakImportProvider.readFromLocations(importLocations);
 
-            Map<String, Map<String, List<RealmImport>>> realmImports = keycloakImport.getRealmImports();
+            importRealms(keycloakImport);
 
-            for (Map<String, List<RealmImport>> realmImportLocations : realmImports.values()) {
-                for (Map.Entry<String, List<RealmImport>> realmImport : realmImportLocations.entrySet()) {
-                    logger.info("Importing file '{}'", realmImport.getKey());
-                    for (RealmImport realmImportParts : realmImport.getValue()) {
-                        realmImportService.doImport(realmImportParts);
-                    }
-                }
+            if (importConfigProperties.getWatch().isEnabled()) {
+                importWatchService.watch(importLocations, changedFiles -> importChangedFiles(importLocations, changedFiles));
             }
         } catch (NullPointerException e) {
             throw e;
@@ -114,4 +129,121 @@ public class KeycloakConfigRunner implements CommandLineRunner, ExitCodeGenerato
             logger.info("keycloak-config-cli ran in {}.", formattedTime);
         }
     }
+
+    @SuppressWarnings("java:S1181")
+    private void importRealms(KeycloakImport keycloakImport) {
+        importReportService.reset();
+
+        try {
+            if (importConfigProperties.getRealmConcurrency() > 1) {
+                importRealmsConcurrently(keycloakImport);
+            } else {
+                importFiles(keycloakImport);
+            }
+        } catch (Throwable e) {
+            // the report of a failed import is written as well, but a failure to write it must not hide the import failure
+            try {
+                importReportService.write();
+            } catch (RuntimeException writeException) {
+                e.addSuppressed(writeException);
+            }
+            throw e;
+        }
+
+        importReportService.write();
+    }
+
+    /**
+     * Imports all files of the realms which are defined in the changed files again, in file order. Unchanged parts of these realms
+     * are skipped by the import checksum. All realms are imported again if the changed files are unknown.
+     */
+    private void importChangedFiles(Collection<String> importLocations, Set<Path> changedFiles) {
+        KeycloakImport keycloakImport = keycloakImportProvider.readFromLocations(importLocations);
+
+        if (changedFiles.isEmpty()) {
+            logger.info("Importing all files again");
+            importRealms(keycloakImport);
+            return;
+        }
+
+        KeycloakImport changedRealmImports = ChangedRealmImports.select(keycloakImport, changedFiles);
+        if (changedRealmImports.getRealmImports().isEmpty()) {
+            logger.debug("Changed files {} do not contain any realm import", changedFiles);
+            return;
+        }
+
+        Set<String> changedRealms = changedRealmImports.getRealmImports().values().stream()
+                .flatMap(realmImportLocations -> realmImportLocations.values().stream())
+                .flatMap(List::stream)
+                .map(RealmImport::getRealm)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        logger.info("Importing realms {} again after changes of files {}", changedRealms, changedFiles);
+        importRealms(changedRealmImports);
+    }
+
+    private void importFiles(KeycloakImport keycloakImport) {
+        Map<String, Map<String, List<RealmImport>>> realmImports = keycloakImport.getRealmImports();
+
+        for (Map<String, List<RealmImport>> realmImportLocations : realmImports.values()) {
+            for (Map.Entry<String, List<RealmImport>> realmImport : realmImportLocations.entrySet()) {
+                logger.info("Importing file '{}'", realmImport.getKey());
+                for (RealmImport realmImportParts : realmImport.getValue()) {
+                    realmImportService.doImport(realmImportParts);
+                }
+            }
+        }
+    }
+
+    /**
+     * Imports different realms concurrently, while all parts of the same realm are imported in file order on one thread.
+     * A failing realm does not stop the import of the other realms, all failures are reported at the end.
+     */
+    private void importRealmsConcurrently(KeycloakImport keycloakImport) {
+        Map<String, List<RealmImport>> realmImportsByRealm = new LinkedHashMap<>();
+
+        for (Map<String, List<RealmImport>> realmImportLocations : keycloakImport.getRealmImports().values()) {
+            for (List<RealmImport> realmImportParts : realmImportLocations.values()) {
+                for (RealmImport realmImport : realmImportParts) {
+                    realmImportsByRealm.computeIfAbsent(realmImport.getRealm(), realm -> new ArrayList<>()).add(realmImport);
+                }
+            }
+        }
+
+        int concurrency = Math.max(1, Math.min(importConfigProperties.getRealmConcurrency(), realmImportsByRealm.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+
+        try {
+            Map<String, Future<?>> realmResults = new LinkedHashMap<>();
+            for (Map.Entry<String, List<RealmImport>> realmImports : realmImportsByRealm.entrySet()) {
+                realmResults.put(realmImports.getKey(), executor.submit(() -> importRealm(realmImports.getValue())));
+            }
+
+            List<String> failedRealms = new ArrayList<>();
+            for (Map.Entry<String, Future<?>> realmResult : realmResults.entrySet()) {
+                try {
+                    realmResult.getValue().get();
+                } catch (ExecutionException e) {
+                    failedRealms.add(realmResult.getKey());
+                    logger.error("Error during import of realm '{}': {}", realmResult.getKey(), e.getCause().getMessage(), e.getCause());
+                }
+            }
+
+            if (!failedRealms.isEmpty()) {
+                throw new ImportProcessingException("Import of realms %s failed", failedRealms);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImportProcessingException("Interrupted while importing realms", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void importRealm(List<RealmImport> realmImports) {
+        for (RealmImport realmImport : realmImports) {
+            logger.info("Importing realm '{}' from file '{}'", realmImport.getRealm(), realmImport.getSource());
+            realmImportService.doImport(realmImport);
+        }
+    }
 }
@@ -41,8 +41,12 @@ public class RealmImport extends RealmRepresentation {
 
     private Map<String, Map<String, String>> messageBundles;
 
+    private List<UserFileImport> userFiles;
+
     private String checksum;
+    private Map<String, String> sectionChecksums = Map.of();
     private String source;
+    private List<String> userFileSources = List.of();
 
     @Override
     @SuppressWarnings("java:S1168")
@@ -78,6 +82,16 @@ public class RealmImport extends RealmRepresentation {
         return userProfile;
     }
 
+    public List<UserFileImport> getUserFiles() {
+        return userFiles;
+    }
+
+    @SuppressWarnings("unused")
+    @JsonSetter("userFiles")
+    public void setUserFiles(List<UserFileImport> userFiles) {
+        this.userFiles = userFiles;
+    }
+
     @JsonIgnore
     public String getChecksum() {
         return checksum;
@@ -88,6 +102,19 @@ public class RealmImport extends RealmRepresentation {
         this.checksum = checksum;
     }
 
+    /**
+     * Checksums of the top-level sections of the import, e.g. clients or users, by section name.
+     */
+    @JsonIgnore
+    public Map<String, String> getSectionChecksums() {
+        return sectionChecksums;
+    }
+
+    @JsonIgnore
+    public void setSectionChecksums(Map<String, String> sectionChecksums) {
+        this.sectionChecksums = sectionChecksums;
+    }
+
     @JsonIgnore
     public String getSource() {
         return source;
@@ -97,4 +124,17 @@ public class RealmImport extends RealmRepresentation {
     public void setSource(String source) {
         this.source = source;
     }
+
+    /**
+     * Locations of the user files referenced by the import, their content is part of the checksum.
+     */
+    @JsonIgnore
+    public List<String> getUserFileSources() {
+        return userFileSources;
+    }
+
+    @JsonIgnore
+    public void setUserFileSources(List<String> userFileSources) {
+        this.userFileSources = userFileSources;
+    }
 }
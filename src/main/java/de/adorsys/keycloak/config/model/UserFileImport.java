@@ -0,0 +1,68 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * A file with users, which are streamed into the import instead of being listed in the users section of the realm file.
+ * Relative paths are resolved against the location of the realm file.
+ */
+public class UserFileImport {
+    private String path;
+    private Format format;
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    /**
+     * Returns the configured format, or the format matching the file extension if none is configured.
+     */
+    public Format getFormat() {
+        if (format != null || path == null) return format;
+
+        return StringUtils.endsWithIgnoreCase(path, ".csv") ? Format.CSV : Format.NDJSON;
+    }
+
+    public void setFormat(Format format) {
+        this.format = format;
+    }
+
+    public enum Format {
+        /**
+         * One user representation as JSON per line.
+         */
+        @JsonProperty("ndjson")
+        NDJSON,
+
+        /**
+         * One user per row, the header row names the user properties of the columns.
+         */
+        @JsonProperty("csv")
+        CSV
+    }
+}
@@ -24,9 +24,12 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.DefaultValue;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
 import java.util.Collection;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 
@@ -36,6 +39,7 @@ import jakarta.validation.constraints.Pattern;
 public class ImportConfigProperties {
     public static final String REALM_STATE_ATTRIBUTE_COMMON_PREFIX = "de.adorsys.keycloak.config";
     public static final String REALM_CHECKSUM_ATTRIBUTE_PREFIX_KEY = REALM_STATE_ATTRIBUTE_COMMON_PREFIX + ".import-checksum-{0}";
+    public static final String REALM_SECTION_CHECKSUM_ATTRIBUTE_PREFIX_KEY = REALM_CHECKSUM_ATTRIBUTE_PREFIX_KEY + "-section-";
     public static final String REALM_STATE_ATTRIBUTE_PREFIX_KEY = REALM_STATE_ATTRIBUTE_COMMON_PREFIX + ".state-{0}-{1}";
 
     @NotNull
@@ -44,6 +48,18 @@ public class ImportConfigProperties {
     @NotNull
     private final boolean parallel;
 
+    @Min(1)
+    private final int parallelMaxInflight;
+
+    @Min(0)
+    private final int userIndexThreshold;
+
+    @Min(1)
+    private final int stageConcurrency;
+
+    @Min(1)
+    private final int realmConcurrency;
+
     @Valid
     private final ImportFilesProperties files;
 
@@ -62,23 +78,56 @@ public class ImportConfigProperties {
     @Valid
     private final ImportRemoteStateProperties remoteState;
 
+    @Valid
+    private final ImportWatchProperties watch;
+
+    @Valid
+    private final ImportReportProperties report;
+
+    @Valid
+    private final ImportJournalProperties journal;
+
+    @Valid
+    private final ImportBulkUsersProperties bulkUsers;
+
+    @Valid
+    private final ImportUserFilesProperties userFiles;
+
     public ImportConfigProperties(@DefaultValue("true") boolean validate,
                                   @DefaultValue("false") boolean parallel,
+                                  @DefaultValue("16") int parallelMaxInflight,
+                                  @DefaultValue("100") int userIndexThreshold,
+                                  @DefaultValue("1") int stageConcurrency,
+                                  @DefaultValue("1") int realmConcurrency,
                                   @DefaultValue ImportFilesProperties files,
                                   @DefaultValue ImportVarSubstitutionProperties varSubstitution,
                                   @DefaultValue ImportBehaviorsProperties behaviors,
                                   @DefaultValue ImportCacheProperties cache,
                                   @DefaultValue ImportManagedProperties managed,
-                                  @DefaultValue ImportRemoteStateProperties remoteState
+                                  @DefaultValue ImportRemoteStateProperties remoteState,
+                                  @DefaultValue ImportWatchProperties watch,
+                                  @DefaultValue ImportReportProperties report,
+                                  @DefaultValue ImportJournalProperties journal,
+                                  @DefaultValue ImportBulkUsersProperties bulkUsers,
+                                  @DefaultValue ImportUserFilesProperties userFiles
     ) {
         this.validate = validate;
         this.parallel = parallel;
+        this.parallelMaxInflight = parallelMaxInflight;
+        this.userIndexThreshold = userIndexThreshold;
+        this.stageConcurrency = stageConcurrency;
+        this.realmConcurrency = realmConcurrency;
         this.files = files;
         this.varSubstitution = varSubstitution;
         this.behaviors = behaviors;
         this.cache = cache;
         this.managed = managed;
         this.remoteState = remoteState;
+        this.watch = watch;
+        this.report = report;
+        this.journal = journal;
+        this.bulkUsers = bulkUsers;
+        this.userFiles = userFiles;
     }
 
     public boolean isValidate() {
@@ -89,6 +138,25 @@ public class ImportConfigProperties {
         return parallel;
     }
 
+    public int getParallelMaxInflight() {
+        return parallelMaxInflight;
+    }
+
+    /**
+     * Imports with more users than this read all users of the realm once, instead of searching each user.
+     */
+    public int getUserIndexThreshold() {
+        return userIndexThreshold;
+    }
+
+    public int getStageConcurrency() {
+        return stageConcurrency;
+    }
+
+    public int getRealmConcurrency() {
+        return realmConcurrency;
+    }
+
     public ImportFilesProperties getFiles() {
         return files;
     }
@@ -113,6 +181,26 @@ public class ImportConfigProperties {
         return remoteState;
     }
 
+    public ImportWatchProperties getWatch() {
+        return watch;
+    }
+
+    public ImportReportProperties getReport() {
+        return report;
+    }
+
+    public ImportJournalProperties getJournal() {
+        return journal;
+    }
+
+    public ImportBulkUsersProperties getBulkUsers() {
+        return bulkUsers;
+    }
+
+    public ImportUserFilesProperties getUserFiles() {
+        return userFiles;
+    }
+
     @SuppressWarnings("unused")
     public static class ImportManagedProperties {
         @NotNull
@@ -407,10 +495,15 @@ public class ImportConfigProperties {
         @NotNull
         private final String key;
 
+        @NotNull
+        private final boolean skipUnchangedSections;
+
         public ImportCacheProperties(@DefaultValue("true") boolean enabled,
-                                     @DefaultValue("default") String key) {
+                                     @DefaultValue("default") String key,
+                                     @DefaultValue("false") boolean skipUnchangedSections) {
             this.enabled = enabled;
             this.key = key;
+            this.skipUnchangedSections = skipUnchangedSections;
         }
 
         public boolean isEnabled() {
@@ -420,6 +513,10 @@ public class ImportConfigProperties {
         public String getKey() {
             return key;
         }
+
+        public boolean isSkipUnchangedSections() {
+            return skipUnchangedSections;
+        }
     }
 
     @SuppressWarnings("unused")
@@ -432,12 +529,27 @@ public class ImportConfigProperties {
         @Pattern(regexp = "^[A-Fa-f0-9]+$")
         private final String encryptionSalt;
 
+        @NotNull
+        private final boolean skipUnchangedEntities;
+
+        @NotNull
+        private final Duration fullReconcileInterval;
+
+        @NotNull
+        private final boolean skipUnchangedClientSecrets;
+
         public ImportRemoteStateProperties(@DefaultValue("true") boolean enabled,
                                            String encryptionKey,
-                                           @DefaultValue("2B521C795FBE2F2425DB150CD3700BA9") String encryptionSalt) {
+                                           @DefaultValue("2B521C795FBE2F2425DB150CD3700BA9") String encryptionSalt,
+                                           @DefaultValue("false") boolean skipUnchangedEntities,
+                                           @DefaultValue("24h") Duration fullReconcileInterval,
+                                           @DefaultValue("false") boolean skipUnchangedClientSecrets) {
             this.enabled = enabled;
             this.encryptionKey = encryptionKey;
             this.encryptionSalt = encryptionSalt;
+            this.skipUnchangedEntities = skipUnchangedEntities;
+            this.fullReconcileInterval = fullReconcileInterval;
+            this.skipUnchangedClientSecrets = skipUnchangedClientSecrets;
         }
 
         public boolean isEnabled() {
@@ -451,5 +563,144 @@ public class ImportConfigProperties {
         public String getEncryptionSalt() {
             return encryptionSalt;
         }
+
+        public boolean isSkipUnchangedEntities() {
+            return skipUnchangedEntities;
+        }
+
+        public Duration getFullReconcileInterval() {
+            return fullReconcileInterval;
+        }
+
+        public boolean isSkipUnchangedClientSecrets() {
+            return skipUnchangedClientSecrets;
+        }
+
+        @AssertTrue(message = "import.remote-state.skip-unchanged-client-secrets requires import.remote-state.encryption-key")
+        public boolean isClientSecretFingerprintKeyed() {
+            // the encryption key keys the fingerprints, plain hashes of secrets could be guessed
+            return !skipUnchangedClientSecrets || encryptionKey != null;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    public static class ImportWatchProperties {
+        @NotNull
+        private final boolean enabled;
+
+        @NotNull
+        private final Duration debounce;
+
+        public ImportWatchProperties(@DefaultValue("false") boolean enabled,
+                                     @DefaultValue("500ms") Duration debounce) {
+            this.enabled = enabled;
+            this.debounce = debounce;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public Duration getDebounce() {
+            return debounce;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    public static class ImportReportProperties {
+        private final String path;
+
+        private final String prometheusPath;
+
+        public ImportReportProperties(String path, String prometheusPath) {
+            this.path = path;
+            this.prometheusPath = prometheusPath;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public String getPrometheusPath() {
+            return prometheusPath;
+        }
+
+        public boolean isEnabled() {
+            return path != null && !path.isBlank() || prometheusPath != null && !prometheusPath.isBlank();
+        }
+    }
+
+    public static class ImportJournalProperties {
+        private final String path;
+
+        @NotNull
+        private final boolean resume;
+
+        public ImportJournalProperties(String path, @DefaultValue("false") boolean resume) {
+            this.path = path;
+            this.resume = resume;
+        }
+
+        /**
+         * Directory of the journal files, which record the completed import stages of each realm.
+         */
+        public String getPath() {
+            return path;
+        }
+
+        public boolean isResume() {
+            return resume;
+        }
+
+        public boolean isEnabled() {
+            return path != null && !path.isBlank();
+        }
+    }
+
+    public static class ImportBulkUsersProperties {
+        @NotNull
+        private final boolean enabled;
+
+        @Min(1)
+        private final int batchSize;
+
+        @Min(0)
+        private final int maxRetries;
+
+        public ImportBulkUsersProperties(@DefaultValue("false") boolean enabled,
+                                         @DefaultValue("500") int batchSize,
+                                         @DefaultValue("3") int maxRetries) {
+            this.enabled = enabled;
+            this.batchSize = batchSize;
+            this.maxRetries = maxRetries;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+    }
+
+    public static class ImportUserFilesProperties {
+        @Min(1)
+        private final int chunkSize;
+
+        public ImportUserFilesProperties(@DefaultValue("1000") int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        /**
+         * Number of users which are read from a user file and imported at once.
+         */
+        public int getChunkSize() {
+            return chunkSize;
+        }
     }
 }
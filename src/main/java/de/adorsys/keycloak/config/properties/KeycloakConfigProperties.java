@@ -28,6 +28,7 @@ import java.net.URL;
 import java.time.Duration;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
@@ -69,6 +70,12 @@ public class KeycloakConfigProperties {
     @Valid
     private final KeycloakAvailabilityCheck availabilityCheck;
 
+    @Valid
+    private final KeycloakHttpClientProperties httpClient;
+
+    @Valid
+    private final KeycloakAdaptiveConcurrencyProperties adaptiveConcurrency;
+
     public KeycloakConfigProperties(
             @DefaultValue("master") String loginRealm,
             @DefaultValue("admin-cli") String clientId,
@@ -82,7 +89,9 @@ public class KeycloakConfigProperties {
             URL httpProxy,
             @DefaultValue KeycloakAvailabilityCheck availabilityCheck,
             @DefaultValue("10s") Duration connectTimeout,
-            @DefaultValue("10s") Duration readTimeout
+            @DefaultValue("10s") Duration readTimeout,
+            @DefaultValue KeycloakHttpClientProperties httpClient,
+            @DefaultValue KeycloakAdaptiveConcurrencyProperties adaptiveConcurrency
     ) {
         this.loginRealm = loginRealm;
         this.clientId = clientId;
@@ -97,6 +106,8 @@ public class KeycloakConfigProperties {
         this.availabilityCheck = availabilityCheck;
         this.connectTimeout = connectTimeout;
         this.readTimeout = readTimeout;
+        this.httpClient = httpClient;
+        this.adaptiveConcurrency = adaptiveConcurrency;
     }
 
     public String getLoginRealm() {
@@ -151,6 +162,14 @@ public class KeycloakConfigProperties {
         return readTimeout;
     }
 
+    public KeycloakHttpClientProperties getHttpClient() {
+        return httpClient;
+    }
+
+    public KeycloakAdaptiveConcurrencyProperties getAdaptiveConcurrency() {
+        return adaptiveConcurrency;
+    }
+
     public static class KeycloakAvailabilityCheck {
         @NotNull
         private final boolean enabled;
@@ -182,4 +201,111 @@ public class KeycloakConfigProperties {
             return retryDelay;
         }
     }
+
+    public static class KeycloakHttpClientProperties {
+        @NotNull
+        private final HttpEngine engine;
+
+        @Min(1)
+        private final int connectionPoolSize;
+
+        @Min(0)
+        private final int maxConnectionsPerRoute;
+
+        private final Duration connectionTtl;
+
+        @SuppressWarnings("unused")
+        public KeycloakHttpClientProperties(@DefaultValue("apache") HttpEngine engine,
+                                            @DefaultValue("10") int connectionPoolSize,
+                                            @DefaultValue("0") int maxConnectionsPerRoute,
+                                            Duration connectionTtl) {
+            this.engine = engine;
+            this.connectionPoolSize = connectionPoolSize;
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            this.connectionTtl = connectionTtl;
+        }
+
+        public HttpEngine getEngine() {
+            return engine;
+        }
+
+        /**
+         * Maximum pooled connections of the Apache engine. The JDK engine multiplexes requests over HTTP/2 and ignores it.
+         */
+        public int getConnectionPoolSize() {
+            return connectionPoolSize;
+        }
+
+        /**
+         * Maximum connections to Keycloak of the Apache engine, 0 uses the connection pool size. Ignored by the JDK engine.
+         */
+        public int getMaxConnectionsPerRoute() {
+            return maxConnectionsPerRoute;
+        }
+
+        /**
+         * Maximum lifetime of pooled connections of the Apache engine, regardless of whether they are idle. Ignored by the
+         * JDK engine.
+         */
+        public Duration getConnectionTtl() {
+            return connectionTtl;
+        }
+
+        public enum HttpEngine {
+            APACHE, JDK
+        }
+    }
+
+    public static class KeycloakAdaptiveConcurrencyProperties {
+        @NotNull
+        private final boolean enabled;
+
+        @Min(1)
+        private final int initialLimit;
+
+        @Min(1)
+        private final int minLimit;
+
+        @Min(1)
+        private final int maxLimit;
+
+        @NotNull
+        private final Duration latencyThreshold;
+
+        @SuppressWarnings("unused")
+        public KeycloakAdaptiveConcurrencyProperties(@DefaultValue("false") boolean enabled,
+                                                     @DefaultValue("8") int initialLimit,
+                                                     @DefaultValue("1") int minLimit,
+                                                     @DefaultValue("64") int maxLimit,
+                                                     @DefaultValue("5s") Duration latencyThreshold) {
+            this.enabled = enabled;
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.latencyThreshold = latencyThreshold;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        /**
+         * Responses slower than this count as a sign of an overloaded Keycloak, like 429, 503 and 504 responses.
+         */
+        public Duration getLatencyThreshold() {
+            return latencyThreshold;
+        }
+    }
 }
@@ -20,14 +20,18 @@
 
 package de.adorsys.keycloak.config.provider;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import de.adorsys.keycloak.config.exception.InvalidImportException;
 import de.adorsys.keycloak.config.model.ImportResource;
 import de.adorsys.keycloak.config.model.KeycloakImport;
 import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.model.UserFileImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.text.StringSubstitutor;
@@ -51,14 +55,18 @@ import java.io.InputStream;
 import java.net.Authenticator;
 import java.net.PasswordAuthentication;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 @ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
 public class KeycloakImportProvider {
     private final PathMatchingResourcePatternResolver patternResolver;
     private final ImportConfigProperties importConfigProperties;
+    private final UserFileReader userFileReader;
 
     private StringSubstitutor interpolator = null;
 
@@ -67,14 +75,19 @@ public class KeycloakImportProvider {
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
             .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
 
+    private static final ObjectMapper CANONICAL_OBJECT_MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+
     @Autowired
     public KeycloakImportProvider(
             Environment environment,
             PathMatchingResourcePatternResolver patternResolver,
-            ImportConfigProperties importConfigProperties
+            ImportConfigProperties importConfigProperties,
+            UserFileReader userFileReader
     ) {
         this.patternResolver = patternResolver;
         this.importConfigProperties = importConfigProperties;
+        this.userFileReader = userFileReader;
 
         if (importConfigProperties.getVarSubstitution().isEnabled()) {
             setupVariableSubstitution(environment);
@@ -134,6 +147,50 @@ public class KeycloakImportProvider {
         return new KeycloakImport(realmImports);
     }
 
+    /**
+     * Returns the local directories which contain the files of the given locations. Locations with a "**" pattern include
+     * all subdirectories, remote locations like http or classpath can not be watched and are skipped.
+     */
+    public Set<Path> getLocalDirectories(Collection<String> locations) {
+        Set<Path> directories = new LinkedHashSet<>();
+
+        for (String location : locations) {
+            String resourceLocation = prepareResourceLocation(location);
+            if (!resourceLocation.startsWith("file:")) {
+                logger.warn("Unable to watch location '{}', only local files can be watched", location);
+                continue;
+            }
+
+            String path = resourceLocation.substring("file:".length());
+            int wildcardIndex = StringUtils.indexOfAny(path, '*', '?', '{');
+            Path root = Path.of(wildcardIndex < 0 ? path : path.substring(0, path.lastIndexOf('/', wildcardIndex) + 1))
+                    .toAbsolutePath()
+                    .normalize();
+
+            if (!Files.isDirectory(root)) {
+                root = root.getParent();
+            }
+
+            if (root == null || !Files.isDirectory(root)) {
+                logger.warn("Unable to watch location '{}', directory does not exist", location);
+                continue;
+            }
+
+            if (!path.contains("**")) {
+                directories.add(root);
+                continue;
+            }
+
+            try (Stream<Path> subdirectories = Files.walk(root)) {
+                subdirectories.filter(Files::isDirectory).forEach(directories::add);
+            } catch (IOException e) {
+                throw new InvalidImportException("Unable to proceed location '" + location + "': " + e.getMessage(), e);
+            }
+        }
+
+        return directories;
+    }
+
     private boolean filterExcludedResources(Resource resource) {
         if (!resource.isFile()) {
             return true;
@@ -214,13 +271,39 @@ public class KeycloakImportProvider {
             throw new InvalidImportException("Unable to parse file '" + location + "': " + e.getMessage(), e);
         }
         realmImports.forEach(realmImport -> {
-            realmImport.setChecksum(contentChecksum);
             realmImport.setSource(location);
+            realmImport.setChecksum(calculateChecksum(contentChecksum, realmImport));
         });
 
         return new ImmutablePair<>(location, realmImports);
     }
 
+    /**
+     * Adds the content of the referenced user files to the checksum, otherwise a realm whose users changed only in its
+     * user files would be skipped by the import checksum.
+     */
+    private String calculateChecksum(String contentChecksum, RealmImport realmImport) {
+        if (realmImport.getUserFiles() == null || realmImport.getUserFiles().isEmpty()) {
+            return contentChecksum;
+        }
+
+        StringBuilder checksums = new StringBuilder(contentChecksum);
+        List<String> userFileSources = new ArrayList<>();
+
+        for (UserFileImport userFile : realmImport.getUserFiles()) {
+            Resource resource = userFileReader.getResource(realmImport, userFile);
+            try (InputStream inputStream = resource.getInputStream()) {
+                checksums.append('\n').append(DigestUtils.sha256Hex(inputStream));
+                userFileSources.add(resource.getURI().toString());
+            } catch (IOException e) {
+                throw new InvalidImportException("Unable to read user file '" + userFile.getPath() + "': " + e.getMessage(), e);
+            }
+        }
+
+        realmImport.setUserFileSources(userFileSources);
+        return DigestUtils.sha256Hex(checksums.toString());
+    }
+
     private List<RealmImport> readContent(String content) {
         List<RealmImport> realmImports = new ArrayList<>();
 
@@ -228,12 +311,36 @@ public class KeycloakImportProvider {
         Iterable<Object> yamlDocuments = yaml.loadAll(content);
 
         for (Object yamlDocument : yamlDocuments) {
-            realmImports.add(OBJECT_MAPPER.convertValue(yamlDocument, RealmImport.class));
+            RealmImport realmImport = OBJECT_MAPPER.convertValue(yamlDocument, RealmImport.class);
+            realmImport.setSectionChecksums(calculateSectionChecksums(yamlDocument));
+            realmImports.add(realmImport);
         }
 
         return realmImports;
     }
 
+    /**
+     * Hashes every top-level section of a document with sorted map keys,
+     * so reordering keys within a section does not change its checksum.
+     */
+    private Map<String, String> calculateSectionChecksums(Object yamlDocument) {
+        if (!(yamlDocument instanceof Map<?, ?> sections)) {
+            return Map.of();
+        }
+
+        Map<String, String> sectionChecksums = new HashMap<>();
+        for (Map.Entry<?, ?> section : sections.entrySet()) {
+            try {
+                String canonicalSection = CANONICAL_OBJECT_MAPPER.writeValueAsString(section.getValue());
+                sectionChecksums.put(String.valueOf(section.getKey()), DigestUtils.sha256Hex(canonicalSection));
+            } catch (JsonProcessingException e) {
+                throw new InvalidImportException("Unable to calculate checksum of section '" + section.getKey() + "': " + e.getMessage(), e);
+            }
+        }
+
+        return sectionChecksums;
+    }
+
     private String prepareResourceLocation(String location) {
         String importLocation = location;
 
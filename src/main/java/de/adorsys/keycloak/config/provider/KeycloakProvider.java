@@ -24,7 +24,10 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.adorsys.keycloak.config.exception.KeycloakProviderException;
 import de.adorsys.keycloak.config.properties.KeycloakConfigProperties;
+import de.adorsys.keycloak.config.properties.KeycloakConfigProperties.KeycloakAdaptiveConcurrencyProperties;
 import de.adorsys.keycloak.config.util.ResteasyUtil;
+import de.adorsys.keycloak.config.util.resteasy.AdaptiveConcurrencyLimiter;
+import de.adorsys.keycloak.config.util.resteasy.HttpMetricsFilter;
 import dev.failsafe.Failsafe;
 import dev.failsafe.RetryPolicy;
 import org.jboss.resteasy.client.jaxrs.ResteasyClient;
@@ -33,6 +36,7 @@ import org.jboss.resteasy.client.jaxrs.internal.BasicAuthentication;
 import org.jboss.resteasy.plugins.providers.jackson.ResteasyJackson2Provider;
 import org.keycloak.admin.client.Keycloak;
 import org.keycloak.admin.client.KeycloakBuilder;
+import org.keycloak.representations.AccessTokenResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -43,6 +47,10 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.text.MessageFormat;
 import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import jakarta.ws.rs.WebApplicationException;
@@ -54,41 +62,66 @@ import jakarta.ws.rs.core.Response;
 /**
  * This class exists because we need to create a single keycloak instance or to close the keycloak before using a new one
  * to avoid a deadlock.
+ * <p>
+ * The instance is shared by all import threads. It is created once under a lock and its access token is refreshed by a
+ * background thread before it expires, so import threads do not refresh it inline.
  */
 @Component
 @ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
 public class KeycloakProvider implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(KeycloakProvider.class);
 
+    // the token manager refreshes inline when a token expires in less than 30 seconds, stay ahead of it
+    private static final long TOKEN_REFRESH_LEAD_SECONDS = 40;
+    private static final long TOKEN_REFRESH_RETRY_SECONDS = 5;
+
     private final KeycloakConfigProperties properties;
     private final Supplier<ResteasyClient> resteasyClientSupplier;
+    private final ScheduledExecutorService tokenRefresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "keycloak-token-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-    private Keycloak keycloak;
-    private ResteasyClient resteasyClient;
+    private volatile Keycloak keycloak;
+    private volatile ResteasyClient resteasyClient;
+    private ScheduledFuture<?> tokenRefresh;
 
-    private String version;
+    private volatile String version;
 
     @Autowired
-    private KeycloakProvider(KeycloakConfigProperties properties) {
+    private KeycloakProvider(KeycloakConfigProperties properties, HttpMetricsFilter httpMetricsFilter) {
         this.properties = properties;
+
+        // shared across clients, so a recreated client keeps the learned limit
+        AdaptiveConcurrencyLimiter concurrencyLimiter = createConcurrencyLimiter(properties.getAdaptiveConcurrency());
         this.resteasyClientSupplier = () -> ResteasyUtil.getClient(
                 !this.properties.isSslVerify(),
                 this.properties.getHttpProxy(),
                 this.properties.getConnectTimeout(),
-                this.properties.getReadTimeout()
+                this.properties.getReadTimeout(),
+                this.properties.getHttpClient(),
+                concurrencyLimiter,
+                httpMetricsFilter
         );
     }
 
     public Keycloak getInstance() {
-        if (keycloak == null || resteasyClient == null || keycloak.isClosed() || resteasyClient.isClosed()) {
+        Keycloak instance = keycloak;
+        if (isUsable(instance)) return instance;
+
+        synchronized (this) {
+            if (isUsable(keycloak)) return keycloak;
+
             resteasyClient = resteasyClientSupplier.get();
             resteasyClient.register(JacksonProvider.class);
             keycloak = createKeycloak();
+            scheduleTokenRefresh(keycloak, keycloak.tokenManager().getAccessToken());
 
             checkServerVersion();
-        }
 
-        return keycloak;
+            return keycloak;
+        }
     }
 
     public String getKeycloakVersion() {
@@ -100,7 +133,8 @@ public class KeycloakProvider implements AutoCloseable {
     }
 
     public void refreshToken() {
-        getInstance().tokenManager().refreshToken();
+        Keycloak instance = getInstance();
+        scheduleTokenRefresh(instance, instance.tokenManager().refreshToken());
     }
 
     public <T> T getCustomApiProxy(Class<T> proxyClass) {
@@ -112,6 +146,59 @@ public class KeycloakProvider implements AutoCloseable {
         }
     }
 
+    private boolean isUsable(Keycloak instance) {
+        ResteasyClient client = resteasyClient;
+        return instance != null && client != null && !instance.isClosed() && !client.isClosed();
+    }
+
+    private synchronized void scheduleTokenRefresh(Keycloak instance, AccessTokenResponse token) {
+        if (instance != keycloak || instance.isClosed()) return;
+
+        long expiresIn = token.getExpiresIn();
+        long delay = Math.min(expiresIn / 2, expiresIn - TOKEN_REFRESH_LEAD_SECONDS);
+        if (delay < 1) {
+            delay = Math.max(expiresIn / 2, 1);
+        }
+
+        scheduleTokenRefresh(instance, delay);
+    }
+
+    private synchronized void scheduleTokenRefresh(Keycloak instance, long delaySeconds) {
+        if (tokenRefresh != null) {
+            tokenRefresh.cancel(false);
+        }
+
+        tokenRefresh = tokenRefresher.schedule(() -> refreshTokenInBackground(instance), delaySeconds, TimeUnit.SECONDS);
+    }
+
+    private void refreshTokenInBackground(Keycloak instance) {
+        if (instance != keycloak || instance.isClosed()) return;
+
+        try {
+            scheduleTokenRefresh(instance, instance.tokenManager().refreshToken());
+            logger.trace("Refreshed access token in background");
+        } catch (RuntimeException e) {
+            // until the retry succeeds, the token manager refreshes the token inline on expiry
+            logger.debug("Unable to refresh access token in background: {}", e.getMessage());
+            synchronized (this) {
+                if (instance == keycloak && !instance.isClosed()) {
+                    scheduleTokenRefresh(instance, TOKEN_REFRESH_RETRY_SECONDS);
+                }
+            }
+        }
+    }
+
+    private static AdaptiveConcurrencyLimiter createConcurrencyLimiter(KeycloakAdaptiveConcurrencyProperties adaptiveConcurrency) {
+        if (!adaptiveConcurrency.isEnabled()) return null;
+
+        return new AdaptiveConcurrencyLimiter(
+                adaptiveConcurrency.getInitialLimit(),
+                adaptiveConcurrency.getMinLimit(),
+                adaptiveConcurrency.getMaxLimit(),
+                adaptiveConcurrency.getLatencyThreshold()
+        );
+    }
+
     private Keycloak createKeycloak() {
         Keycloak result;
         if (properties.getAvailabilityCheck().isEnabled()) {
@@ -184,7 +271,12 @@ public class KeycloakProvider implements AutoCloseable {
     }
 
     @Override
-    public void close() {
+    public synchronized void close() {
+        if (tokenRefresh != null) {
+            tokenRefresh.cancel(false);
+            tokenRefresh = null;
+        }
+
         if (!isClosed()) {
             logout();
             keycloak.close();
@@ -238,7 +330,8 @@ public class KeycloakProvider implements AutoCloseable {
     }
 
     public boolean isClosed() {
-        return keycloak == null || keycloak.isClosed();
+        Keycloak instance = keycloak;
+        return instance == null || instance.isClosed();
     }
 
     /*
@@ -0,0 +1,204 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.provider;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import de.adorsys.keycloak.config.exception.InvalidImportException;
+import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.model.UserFileImport;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Streams the users of the user files of a realm import in chunks, so only one chunk of users is held in memory at once.
+ */
+@Component
+@ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
+public class UserFileReader {
+    private static final Logger logger = LoggerFactory.getLogger(UserFileReader.class);
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private static final ObjectReader CSV_READER = new CsvMapper()
+            .readerForMapOf(String.class)
+            .with(CsvSchema.emptySchema().withHeader());
+
+    private static final Set<String> CSV_LIST_COLUMNS = Set.of("groups", "realmRoles", "requiredActions", "disableableCredentialTypes");
+    private static final Set<String> CSV_MAP_COLUMN_PREFIXES = Set.of("attributes", "clientRoles");
+    private static final String CSV_VALUE_SEPARATOR = ";";
+
+    private final PathMatchingResourcePatternResolver patternResolver;
+
+    @Autowired
+    public UserFileReader(PathMatchingResourcePatternResolver patternResolver) {
+        this.patternResolver = patternResolver;
+    }
+
+    /**
+     * Reads the users of the user file and passes them in chunks of the given size, together with the index of the chunk, to the consumer.
+     */
+    public void readChunks(RealmImport realmImport, UserFileImport userFile, int chunkSize,
+                           ObjIntConsumer<List<UserRepresentation>> chunkConsumer) {
+        Resource resource = getResource(realmImport, userFile);
+        logger.debug("Loading user file '{}'", resource.getDescription());
+
+        Chunker chunker = new Chunker(chunkSize, chunkConsumer);
+        try (InputStream inputStream = resource.getInputStream()) {
+            if (userFile.getFormat() == UserFileImport.Format.CSV) {
+                readCsv(inputStream, chunker);
+            } else {
+                readNdjson(inputStream, chunker);
+            }
+        } catch (IOException e) {
+            throw new InvalidImportException("Unable to read user file '" + userFile.getPath() + "': " + e.getMessage(), e);
+        }
+        chunker.flush();
+    }
+
+    /**
+     * Resolves the user file, relative paths are resolved against the file of the realm import.
+     */
+    public Resource getResource(RealmImport realmImport, UserFileImport userFile) {
+        if (userFile.getPath() == null || userFile.getPath().isBlank()) {
+            throw new InvalidImportException("Missing path of user file in realm '" + realmImport.getRealm() + "'");
+        }
+
+        return getResource(realmImport.getSource(), userFile.getPath());
+    }
+
+    private Resource getResource(String source, String path) {
+        if (path.contains(":")) {
+            return patternResolver.getResource(path);
+        }
+
+        if (source == null || path.startsWith("/")) {
+            return patternResolver.getResource("file:" + path);
+        }
+
+        try {
+            return patternResolver.getResource(source).createRelative(path);
+        } catch (IOException e) {
+            throw new InvalidImportException("Unable to resolve user file '" + path + "' relative to '" + source + "': " + e.getMessage(), e);
+        }
+    }
+
+    private void readNdjson(InputStream inputStream, Consumer<UserRepresentation> consumer) throws IOException {
+        try (MappingIterator<UserRepresentation> users = OBJECT_MAPPER.readerFor(UserRepresentation.class).readValues(inputStream)) {
+            while (users.hasNextValue()) {
+                consumer.accept(users.nextValue());
+            }
+        }
+    }
+
+    private void readCsv(InputStream inputStream, Consumer<UserRepresentation> consumer) throws IOException {
+        try (MappingIterator<Map<String, String>> rows = CSV_READER.readValues(inputStream)) {
+            while (rows.hasNextValue()) {
+                consumer.accept(toUser(rows.nextValue()));
+            }
+        }
+    }
+
+    /**
+     * Maps a csv row to a user. List columns, e.g. groups, and the columns of map properties, e.g. attributes.phone,
+     * contain one or more values separated by semicolons. Empty cells are ignored.
+     */
+    private UserRepresentation toUser(Map<String, String> row) throws IOException {
+        ObjectNode user = OBJECT_MAPPER.createObjectNode();
+
+        for (Map.Entry<String, String> cell : row.entrySet()) {
+            String column = cell.getKey();
+            String value = cell.getValue();
+            if (value == null || value.isEmpty()) continue;
+
+            int separatorIndex = column.indexOf('.');
+            if (separatorIndex > 0 && CSV_MAP_COLUMN_PREFIXES.contains(column.substring(0, separatorIndex))) {
+                String property = column.substring(0, separatorIndex);
+                ObjectNode map = user.has(property) ? (ObjectNode) user.get(property) : user.putObject(property);
+                addValues(map.putArray(column.substring(separatorIndex + 1)), value);
+            } else if (CSV_LIST_COLUMNS.contains(column)) {
+                addValues(user.putArray(column), value);
+            } else {
+                user.put(column, value);
+            }
+        }
+
+        return OBJECT_MAPPER.treeToValue(user, UserRepresentation.class);
+    }
+
+    private static void addValues(ArrayNode array, String value) {
+        for (String element : value.split(CSV_VALUE_SEPARATOR)) {
+            array.add(element.trim());
+        }
+    }
+
+    private static final class Chunker implements Consumer<UserRepresentation> {
+        private final int chunkSize;
+        private final ObjIntConsumer<List<UserRepresentation>> chunkConsumer;
+
+        private List<UserRepresentation> chunk;
+        private int chunkIndex;
+
+        private Chunker(int chunkSize, ObjIntConsumer<List<UserRepresentation>> chunkConsumer) {
+            this.chunkSize = chunkSize;
+            this.chunkConsumer = chunkConsumer;
+            this.chunk = new ArrayList<>(chunkSize);
+        }
+
+        @Override
+        public void accept(UserRepresentation user) {
+            chunk.add(user);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) return;
+
+            List<UserRepresentation> users = chunk;
+            chunk = new ArrayList<>(chunkSize);
+            chunkConsumer.accept(users, chunkIndex++);
+        }
+    }
+}
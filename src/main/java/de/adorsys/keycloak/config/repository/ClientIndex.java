@@ -0,0 +1,219 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.repository;
+
+import de.adorsys.keycloak.config.util.CloneUtil;
+import org.keycloak.representations.idm.ClientRepresentation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * All clients of a realm, read once with paged requests and indexed by id, clientId and name. The client repository applies
+ * its writes to the index, a written client is read again by id on its next lookup, so lookups during an import never search
+ * for clients. Returned clients are copies.
+ */
+final class ClientIndex {
+    private final Supplier<Stream<ClientRepresentation>> loader;
+    private final Function<String, Optional<ClientRepresentation>> reader;
+
+    private final Map<String, String> idsByClientId = new HashMap<>();
+    private final Map<String, String> idsByName = new HashMap<>();
+    private final Set<String> staleIds = new HashSet<>();
+    private Map<String, ClientRepresentation> clientsById;
+    private long generation;
+
+    /**
+     * Creates an index which reads all clients on its first lookup.
+     *
+     * @param reader reads a single client by id, or nothing if it does not exist
+     */
+    ClientIndex(Supplier<Stream<ClientRepresentation>> loader, Function<String, Optional<ClientRepresentation>> reader) {
+        this.loader = loader;
+        this.reader = reader;
+    }
+
+    Optional<ClientRepresentation> findByClientId(String clientId) {
+        return findById(findId(idsByClientId, clientId));
+    }
+
+    /**
+     * Returns a client with the given name, names are not unique.
+     */
+    Optional<ClientRepresentation> findByName(String name) {
+        return findById(findId(idsByName, name));
+    }
+
+    Optional<ClientRepresentation> findById(String id) {
+        long readGeneration;
+        synchronized (this) {
+            load();
+            if (id == null || !clientsById.containsKey(id)) {
+                return Optional.empty();
+            }
+
+            if (!staleIds.contains(id)) {
+                return Optional.of(CloneUtil.deepClone(clientsById.get(id)));
+            }
+
+            readGeneration = generation;
+        }
+
+        // read outside the lock, a client written meanwhile stays stale
+        Optional<ClientRepresentation> client = reader.apply(id);
+        store(id, client, readGeneration);
+
+        return client;
+    }
+
+    Stream<ClientRepresentation> findAll() {
+        List<String> ids;
+        synchronized (this) {
+            load();
+            ids = new ArrayList<>(clientsById.keySet());
+        }
+
+        return ids.stream()
+                .map(this::findById)
+                .flatMap(Optional::stream);
+    }
+
+    /**
+     * Adds a created client, which is read by its id on its next lookup.
+     */
+    synchronized void add(String id, ClientRepresentation client) {
+        generation++;
+        if (clientsById == null) return;
+
+        ClientRepresentation createdClient = CloneUtil.deepClone(client);
+        createdClient.setId(id);
+        index(createdClient);
+        staleIds.add(id);
+    }
+
+    /**
+     * Applies an update, the client is read again on its next lookup as Keycloak can change the written values.
+     */
+    synchronized void update(ClientRepresentation client) {
+        generation++;
+        if (clientsById == null) return;
+
+        if (!clientsById.containsKey(client.getId())) {
+            invalidateAll();
+            return;
+        }
+
+        removeFromIndexes(client.getId());
+        index(CloneUtil.deepClone(client));
+        staleIds.add(client.getId());
+    }
+
+    /**
+     * Reads the client again on its next lookup, used for writes to sub-resources of the client.
+     */
+    synchronized void invalidateClientId(String clientId) {
+        generation++;
+        if (clientsById == null) return;
+
+        String id = idsByClientId.get(clientId);
+        if (id == null) {
+            invalidateAll();
+            return;
+        }
+
+        staleIds.add(id);
+    }
+
+    synchronized void remove(String id) {
+        generation++;
+        if (clientsById == null) return;
+
+        removeFromIndexes(id);
+        staleIds.remove(id);
+    }
+
+    synchronized void invalidateAll() {
+        generation++;
+        clientsById = null;
+        idsByClientId.clear();
+        idsByName.clear();
+        staleIds.clear();
+    }
+
+    private synchronized String findId(Map<String, String> ids, String key) {
+        load();
+        return ids.get(key);
+    }
+
+    private synchronized void store(String id, Optional<ClientRepresentation> client, long readGeneration) {
+        if (readGeneration != generation || clientsById == null) return;
+
+        removeFromIndexes(id);
+        client.ifPresent(value -> index(CloneUtil.deepClone(value)));
+        staleIds.remove(id);
+    }
+
+    private void load() {
+        if (clientsById != null) return;
+
+        clientsById = new HashMap<>();
+        try {
+            loader.get().forEach(this::index);
+        } catch (RuntimeException e) {
+            invalidateAll();
+            throw e;
+        }
+    }
+
+    private void index(ClientRepresentation client) {
+        clientsById.put(client.getId(), client);
+        if (client.getClientId() != null) {
+            idsByClientId.put(client.getClientId(), client.getId());
+        }
+        if (client.getName() != null) {
+            idsByName.putIfAbsent(client.getName(), client.getId());
+        }
+    }
+
+    private void removeFromIndexes(String id) {
+        ClientRepresentation client = clientsById.remove(id);
+        if (client == null) return;
+
+        idsByClientId.remove(client.getClientId(), id);
+
+        if (client.getName() != null && idsByName.remove(client.getName(), id)) {
+            // another client can have the same name
+            clientsById.values().stream()
+                    .filter(other -> Objects.equals(client.getName(), other.getName()))
+                    .findFirst()
+                    .ifPresent(other -> idsByName.put(other.getName(), other.getId()));
+        }
+    }
+}
@@ -55,14 +55,27 @@ public class ClientRepository {
     private static final Logger logger = LoggerFactory.getLogger(ClientRepository.class);
 
     private final RealmRepository realmRepository;
+    private final RealmSnapshotRepository realmSnapshotRepository;
 
     @Autowired
-    public ClientRepository(RealmRepository realmRepository) {
+    public ClientRepository(RealmRepository realmRepository, RealmSnapshotRepository realmSnapshotRepository) {
         this.realmRepository = realmRepository;
+        this.realmSnapshotRepository = realmSnapshotRepository;
     }
 
     public Optional<ClientRepresentation> searchByClientId(String realmName, String clientId) {
-        List<ClientRepresentation> foundClients = getResource(realmName).findByClientId(Objects.requireNonNull(clientId));
+        Objects.requireNonNull(clientId);
+
+        Optional<ClientIndex> clientIndex = getClientIndex(realmName);
+        if (clientIndex.isPresent()) {
+            return clientIndex.get().findByClientId(clientId);
+        }
+
+        return findByClientId(realmName, clientId);
+    }
+
+    private Optional<ClientRepresentation> findByClientId(String realmName, String clientId) {
+        List<ClientRepresentation> foundClients = getResource(realmName).findByClientId(clientId);
 
         Optional<ClientRepresentation> client;
         if (foundClients.isEmpty()) {
@@ -77,16 +90,15 @@ public class ClientRepository {
     public Optional<ClientRepresentation> searchByName(String realmName, String name) {
         Objects.requireNonNull(name);
 
-        // this is expensive, but easy to implement.
-        // if this too expensive, please provide a PR which implement a pagination for findAll()
-        Optional<ClientRepresentation> foundClients = realmRepository.getResource(realmName)
-                .partialExport(false, true)
-                .getClients()
-                .stream()
+        Optional<ClientIndex> clientIndex = getClientIndex(realmName);
+        if (clientIndex.isPresent()) {
+            return clientIndex.get().findByName(name);
+        }
+
+        // Keycloak cannot search clients by name
+        return getAll(realmName)
                 .filter(client -> Objects.equals(name, client.getName()))
                 .findAny();
-
-        return foundClients.map(clientRepresentation -> getByClientId(realmName, clientRepresentation.getId()));
     }
 
     public ClientRepresentation getByClientId(String realmName, String clientId) {
@@ -118,9 +130,16 @@ public class ClientRepository {
         return clientResource.getSecret().getValue();
     }
 
-    public void create(String realmName, ClientRepresentation client) {
+    /**
+     * Creates the client.
+     *
+     * @return the id of the created client
+     */
+    public String create(String realmName, ClientRepresentation client) {
         try (Response response = getResource(realmName).create(client)) {
-            CreatedResponseUtil.getCreatedId(response);
+            String id = CreatedResponseUtil.getCreatedId(response);
+            getClientIndex(realmName).ifPresent(clientIndex -> clientIndex.add(id, client));
+            return id;
         } catch (WebApplicationException error) {
             String errorMessage = ResponseUtil.getErrorMessage(error);
 
@@ -134,11 +153,25 @@ public class ClientRepository {
     public void update(String realmName, ClientRepresentation client) {
         ClientResource clientResource = getResourceById(realmName, client.getId());
         clientResource.update(client);
+
+        getClientIndex(realmName).ifPresent(clientIndex -> clientIndex.update(client));
     }
 
     public void remove(String realmName, ClientRepresentation client) {
         ClientResource clientResource = getResourceById(realmName, client.getId());
         clientResource.remove();
+
+        getClientIndex(realmName).ifPresent(clientIndex -> clientIndex.remove(client.getId()));
+        // the roles of a client are removed with it
+        realmSnapshotRepository.invalidateLookup(realmName, RealmSnapshot::getClientRoles, RealmSnapshot.Lookup::invalidateAll);
+    }
+
+    private Optional<ClientIndex> getClientIndex(String realmName) {
+        return realmSnapshotRepository.get(realmName).map(RealmSnapshot::getClients);
+    }
+
+    private void invalidateClientId(String realmName, String clientId) {
+        getClientIndex(realmName).ifPresent(clientIndex -> clientIndex.invalidateClientId(clientId));
     }
 
     private ClientsResource getResource(String realmName) {
@@ -161,34 +194,39 @@ public class ClientRepository {
         return getResourceById(realmName, client.getId());
     }
 
-    public final Stream<String> getAllIds(String realmName) {
+    public Stream<String> getAllIds(String realmName) {
         return getAll(realmName)
                 .map(ClientRepresentation::getClientId);
     }
 
-    public final Stream<ClientRepresentation> getAll(String realmName) {
+    public Stream<ClientRepresentation> getAll(String realmName) {
+        Optional<ClientIndex> clientIndex = getClientIndex(realmName);
+        if (clientIndex.isPresent()) {
+            return clientIndex.get().findAll();
+        }
+
         var clientsResource = getResource(realmName);
         return PaginationUtil
                 .findAll((first, max) -> clientsResource.findAll(null, null, null, first, max));
     }
 
-    public final Stream<ResourceRepresentation> getAuthorizationResources(String realmName, String clientId) {
+    public Stream<ResourceRepresentation> getAuthorizationResources(String realmName, String clientId) {
         var resourcesResource = getResourceById(realmName, clientId).authorization().resources();
         return PaginationUtil
                 .findAll((first, max) -> resourcesResource.find(null, null, null, null, null, first, max));
     }
 
-    public final List<ScopeRepresentation> getAuthorizationScopes(String realmName, String clientId) {
+    public List<ScopeRepresentation> getAuthorizationScopes(String realmName, String clientId) {
         // paginated version not available in the resource. There is pagination in the
         // REST API at /clients/<id>/authz/resource-server/scope if we need it
         return getResourceById(realmName, clientId).authorization().scopes().scopes();
     }
 
-    public final Stream<PolicyRepresentation> getAuthorizationPolicies(String realmName, String clientId) {
+    public Stream<PolicyRepresentation> getAuthorizationPolicies(String realmName, String clientId) {
         return getAuthorizationPolicies(realmName, clientId, Stream.of((String) null));
     }
 
-    public final Stream<PolicyRepresentation> getAuthorizationPolicies(String realmName, String clientId, Stream<String> policyNames) {
+    public Stream<PolicyRepresentation> getAuthorizationPolicies(String realmName, String clientId, Stream<String> policyNames) {
         var policyResource = getResourceById(realmName, clientId).authorization().policies();
 
         return policyNames
@@ -327,6 +365,8 @@ public class ClientRepository {
         for (ClientScopeRepresentation defaultClientScope : defaultClientScopes) {
             clientResource.addDefaultClientScope(defaultClientScope.getId());
         }
+
+        invalidateClientId(realmName, clientId);
     }
 
     public void removeDefaultClientScopes(String realmName, String clientId,
@@ -336,6 +376,8 @@ public class ClientRepository {
         for (ClientScopeRepresentation defaultClientScope : defaultClientScopes) {
             clientResource.removeDefaultClientScope(defaultClientScope.getId());
         }
+
+        invalidateClientId(realmName, clientId);
     }
 
     public void addOptionalClientScopes(String realmName, String clientId,
@@ -345,6 +387,8 @@ public class ClientRepository {
         for (ClientScopeRepresentation optionalClientScope : optionalClientScopes) {
             clientResource.addOptionalClientScope(optionalClientScope.getId());
         }
+
+        invalidateClientId(realmName, clientId);
     }
 
     public void removeOptionalClientScopes(String realmName, String clientId,
@@ -354,6 +398,8 @@ public class ClientRepository {
         for (ClientScopeRepresentation optionalClientScope : optionalClientScopes) {
             clientResource.removeOptionalClientScope(optionalClientScope.getId());
         }
+
+        invalidateClientId(realmName, clientId);
     }
 
     public void enablePermission(String realmName, String id) {
@@ -36,6 +36,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Response;
@@ -45,13 +46,22 @@ import jakarta.ws.rs.core.Response;
 public class ClientScopeRepository {
 
     private final RealmRepository realmRepository;
+    private final RealmSnapshotRepository realmSnapshotRepository;
 
     @Autowired
-    public ClientScopeRepository(RealmRepository realmRepository) {
+    public ClientScopeRepository(RealmRepository realmRepository, RealmSnapshotRepository realmSnapshotRepository) {
         this.realmRepository = realmRepository;
+        this.realmSnapshotRepository = realmSnapshotRepository;
     }
 
     public List<ClientScopeRepresentation> getAll(String realmName) {
+        Optional<List<ClientScopeRepresentation>> snapshotClientScopes = realmSnapshotRepository.get(realmName)
+                .flatMap(snapshot -> snapshot.getClientScopes().findAll())
+                .map(Stream::toList);
+        if (snapshotClientScopes.isPresent()) {
+            return snapshotClientScopes.get();
+        }
+
         ClientScopesResource clientScopeResource = realmRepository.getResource(realmName).clientScopes();
         return clientScopeResource.findAll();
     }
@@ -64,11 +74,7 @@ public class ClientScopeRepository {
     }
 
     public ClientScopeRepresentation getByName(String realmName, String clientScopeName) {
-        ClientScopeResource clientScopeResource = getResourceByName(realmName, clientScopeName);
-        if (clientScopeResource == null) {
-            return null;
-        }
-        return clientScopeResource.toRepresentation();
+        return searchByName(realmName, clientScopeName).orElse(null);
     }
 
     public ClientScopeRepresentation getById(String realmName, String clientScopeId) {
@@ -82,17 +88,24 @@ public class ClientScopeRepository {
     public void create(String realmName, ClientScopeRepresentation clientScope) {
         try (Response response = realmRepository.getResource(realmName).clientScopes().create(clientScope)) {
             CreatedResponseUtil.getCreatedId(response);
+        } finally {
+            realmSnapshotRepository.invalidate(realmName, RealmSnapshot::getClientScopes,
+                    clientScopes -> clientScopes.invalidateKey(clientScope.getName()));
         }
     }
 
     public void delete(String realmName, String id) {
         ClientScopeResource clientScopeResource = getResourceById(realmName, id);
         clientScopeResource.remove();
+
+        invalidateClientScopeId(realmName, id);
     }
 
     public void update(String realmName, ClientScopeRepresentation clientScope) {
         ClientScopeResource clientScopeResource = getResourceById(realmName, clientScope.getId());
         clientScopeResource.update(clientScope);
+
+        realmSnapshotRepository.invalidate(realmName, RealmSnapshot::getClientScopes, clientScopes -> clientScopes.invalidateEntry(clientScope));
     }
 
     public void addProtocolMappers(String realmName, String clientScopeId, List<ProtocolMapperRepresentation> protocolMappers) {
@@ -104,6 +117,8 @@ public class ClientScopeRepository {
                 CreatedResponseUtil.getCreatedId(response);
             }
         }
+
+        invalidateClientScopeId(realmName, clientScopeId);
     }
 
     public void removeProtocolMappers(String realmName, String clientScopeId, List<ProtocolMapperRepresentation> protocolMappers) {
@@ -120,6 +135,8 @@ public class ClientScopeRepository {
         for (ProtocolMapperRepresentation protocolMapper : protocolMapperToRemove) {
             protocolMappersResource.delete(protocolMapper.getId());
         }
+
+        invalidateClientScopeId(realmName, clientScopeId);
     }
 
     public void updateProtocolMappers(String realmName, String clientScopeId, List<ProtocolMapperRepresentation> protocolMappers) {
@@ -141,18 +158,12 @@ public class ClientScopeRepository {
                 );
             }
         }
-    }
-
-    private ClientScopeResource getResourceByName(String realmName, String clientScopeName) {
-        Optional<ClientScopeRepresentation> maybeClientScope = searchByName(realmName, clientScopeName);
 
-        ClientScopeRepresentation existingClientScope = maybeClientScope.orElse(null);
-
-        if (existingClientScope == null) {
-            return null;
-        }
+        invalidateClientScopeId(realmName, clientScopeId);
+    }
 
-        return getResourceById(realmName, existingClientScope.getId());
+    private void invalidateClientScopeId(String realmName, String clientScopeId) {
+        realmSnapshotRepository.invalidate(realmName, RealmSnapshot::getClientScopes, clientScopes -> clientScopes.invalidateId(clientScopeId));
     }
 
     private ClientScopeResource getResourceById(String realmName, String clientScopeId) {
@@ -160,6 +171,11 @@ public class ClientScopeRepository {
     }
 
     public Optional<ClientScopeRepresentation> searchByName(String realmName, String clientScopeName) {
+        return realmSnapshotRepository.find(realmName, RealmSnapshot::getClientScopes, clientScopeName,
+                () -> findByName(realmName, clientScopeName));
+    }
+
+    private Optional<ClientScopeRepresentation> findByName(String realmName, String clientScopeName) {
         ClientScopesResource clientScopeResource = realmRepository.getResource(realmName).clientScopes();
 
         return clientScopeResource.findAll()
@@ -44,10 +44,12 @@ import jakarta.ws.rs.core.Response;
 public class ComponentRepository {
 
     private final RealmRepository realmRepository;
+    private final RealmSnapshotRepository realmSnapshotRepository;
 
     @Autowired
-    public ComponentRepository(RealmRepository realmRepository) {
+    public ComponentRepository(RealmRepository realmRepository, RealmSnapshotRepository realmSnapshotRepository) {
         this.realmRepository = realmRepository;
+        this.realmSnapshotRepository = realmSnapshotRepository;
     }
 
     public String create(String realmName, ComponentRepresentation component) {
@@ -63,17 +65,30 @@ public class ComponentRepository {
                     ),
                     error
             );
+        } finally {
+            invalidateComponents(realmName);
         }
     }
 
     public void update(String realmName, ComponentRepresentation component) {
         ComponentsResource componentsResource = getComponentsResource(realmName);
         componentsResource.component(component.getId()).update(component);
+
+        invalidateComponents(realmName);
     }
 
     public void delete(String realmName, ComponentRepresentation component) {
         ComponentsResource componentsResource = getComponentsResource(realmName);
         componentsResource.component(component.getId()).remove();
+
+        invalidateComponents(realmName);
+    }
+
+    /**
+     * Creating or changing a component may create or remove sub-components as well, e.g. the mappers of a LDAP provider.
+     */
+    private void invalidateComponents(String realmName) {
+        realmSnapshotRepository.invalidate(realmName, RealmSnapshot::getComponents, RealmSnapshot.Index::invalidateAll);
     }
 
     public ComponentRepresentation getById(String realmName, String componentId) {
@@ -108,6 +123,18 @@ public class ComponentRepository {
     }
 
     public Optional<ComponentRepresentation> search(String realmName, String type, String subType, String name, String parentId) {
+        Optional<RealmSnapshot> snapshot = realmSnapshotRepository.get(realmName);
+        if (snapshot.isEmpty() || type == null || name == null) {
+            return findComponent(realmName, type, subType, name, parentId);
+        }
+
+        return snapshot.get().getComponents().find(
+                snapshot.get().componentKey(parentId, type, subType, name),
+                () -> findComponent(realmName, type, subType, name, parentId)
+        );
+    }
+
+    private Optional<ComponentRepresentation> findComponent(String realmName, String type, String subType, String name, String parentId) {
         List<ComponentRepresentation> component = getComponentsResource(realmName)
                 .query(parentId, type, name);
 
@@ -21,6 +21,7 @@
 package de.adorsys.keycloak.config.repository;
 
 import de.adorsys.keycloak.config.exception.ImportProcessingException;
+import de.adorsys.keycloak.config.util.CloneUtil;
 import de.adorsys.keycloak.config.util.PaginationUtil;
 import org.keycloak.admin.client.CreatedResponseUtil;
 import org.keycloak.admin.client.resource.GroupResource;
@@ -37,6 +38,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -51,20 +53,35 @@ public class GroupRepository {
     private final RoleRepository roleRepository;
     private final ClientRepository clientRepository;
     private final UserRepository userRepository;
+    private final RealmSnapshotRepository realmSnapshotRepository;
 
     @Autowired
     public GroupRepository(
             RealmRepository realmRepository,
             RoleRepository roleRepository,
             ClientRepository clientRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            RealmSnapshotRepository realmSnapshotRepository) {
         this.realmRepository = realmRepository;
         this.roleRepository = roleRepository;
         this.clientRepository = clientRepository;
         this.userRepository = userRepository;
+        this.realmSnapshotRepository = realmSnapshotRepository;
+    }
+
+    /**
+     * Serves the group lookups of the realm from a tree of all groups for the rest of the realm import.
+     */
+    public void indexGroupTree(String realmName) {
+        realmSnapshotRepository.indexGroupTree(realmName);
     }
 
     public List<GroupRepresentation> getAll(String realmName) {
+        Optional<GroupTree> groupTree = getGroupTree(realmName);
+        if (groupTree.isPresent()) {
+            return groupTree.get().getTopLevelGroups();
+        }
+
         GroupsResource groupsResource = realmRepository.getResource(realmName)
                 .groups();
 
@@ -76,7 +93,11 @@ public class GroupRepository {
 
         for (String groupPath : groupPaths) {
             try {
-                GroupRepresentation group = getGroupByPath(realmName, groupPath);
+                GroupRepresentation group = getGroupTree(realmName)
+                        .flatMap(groupTree -> groupTree.findByPath(groupPath))
+                        .or(() -> realmSnapshotRepository.lookup(realmName, RealmSnapshot::getGroupsByPath, groupPath,
+                                () -> Optional.ofNullable(getGroupByPath(realmName, groupPath))))
+                        .orElseThrow();
                 groups.add(group);
             } catch (Exception e) {
                 throw new ImportProcessingException(
@@ -89,6 +110,10 @@ public class GroupRepository {
     }
 
     public Optional<GroupRepresentation> searchByName(String realmName, String groupName) {
+        return realmSnapshotRepository.find(realmName, RealmSnapshot::getGroups, groupName, () -> findByName(realmName, groupName));
+    }
+
+    private Optional<GroupRepresentation> findByName(String realmName, String groupName) {
         GroupsResource groupsResource = realmRepository.getResource(realmName)
                 .groups();
 
@@ -98,20 +123,53 @@ public class GroupRepository {
                 .findFirst();
     }
 
-    public void createGroup(String realmName, GroupRepresentation group) {
+    /**
+     * Creates a top level group without its role mappings and subgroups.
+     *
+     * @return the id of the created group
+     */
+    public String createGroup(String realmName, GroupRepresentation group) {
         GroupsResource groupsResource = realmRepository.getResource(realmName).groups();
         try (Response response = groupsResource.add(group)) {
-            CreatedResponseUtil.getCreatedId(response);
+            String groupId = CreatedResponseUtil.getCreatedId(response);
+            getGroupTree(realmName).ifPresent(groupTree -> groupTree.add(null, toCreatedGroup(group, groupId, null)));
+            return groupId;
+        } finally {
+            realmSnapshotRepository.invalidate(realmName, RealmSnapshot::getGroups, groups -> groups.invalidateKey(group.getName()));
+            invalidateGroupPaths(realmName);
         }
     }
 
-    public void addSubGroup(String realmName, String parentGroupId, GroupRepresentation subGroup) {
+    /**
+     * Creates a subgroup without its role mappings and subgroups.
+     *
+     * @return the id of the created subgroup
+     */
+    public String addSubGroup(String realmName, String parentGroupId, GroupRepresentation subGroup) {
         GroupResource groupResource = getResourceById(realmName, parentGroupId);
         try (Response response = groupResource.subGroup(subGroup)) {
-            CreatedResponseUtil.getCreatedId(response);
+            String groupId = CreatedResponseUtil.getCreatedId(response);
+            getGroupTree(realmName).ifPresent(groupTree -> groupTree.add(parentGroupId, toCreatedGroup(subGroup, groupId, parentGroupId)));
+            return groupId;
+        } finally {
+            invalidateGroupId(realmName, parentGroupId);
+            invalidateGroupPaths(realmName);
         }
     }
 
+    /**
+     * A created group as Keycloak would return it, without reading it again. The group tree sets the path.
+     */
+    private static GroupRepresentation toCreatedGroup(GroupRepresentation group, String groupId, String parentGroupId) {
+        GroupRepresentation createdGroup = CloneUtil.deepClone(group, "realmRoles", "clientRoles", "subGroups");
+        createdGroup.setId(groupId);
+        createdGroup.setParentId(parentGroupId);
+        createdGroup.setRealmRoles(new ArrayList<>());
+        createdGroup.setClientRoles(new HashMap<>());
+        createdGroup.setSubGroupCount(0L);
+        return createdGroup;
+    }
+
     public GroupRepresentation getSubGroupByName(String realmName, String parentGroupId, String name) {
         return getSubGroups(realmName, parentGroupId)
                 .stream()
@@ -121,11 +179,18 @@ public class GroupRepository {
     }
 
     public List<GroupRepresentation> getSubGroups(String realmName, String parentGroupId) {
+        Optional<List<GroupRepresentation>> subGroups = getGroupTree(realmName).flatMap(groupTree -> groupTree.findSubGroups(parentGroupId));
+        if (subGroups.isPresent()) {
+            return subGroups.get();
+        }
+
         var groupResource = getResourceById(realmName, parentGroupId);
         return groupResource.getSubGroups(0, Integer.MAX_VALUE, false);
     }
 
     public void addRealmRoles(String realmName, String groupId, List<String> roleNames) {
+        if (roleNames.isEmpty()) return;
+
         GroupResource groupResource = getResourceById(realmName, groupId);
         RoleMappingResource groupRoles = groupResource.roles();
         RoleScopeResource groupRealmRoles = groupRoles.realmLevel();
@@ -135,9 +200,13 @@ public class GroupRepository {
                 .toList();
 
         groupRealmRoles.add(existingRealmRoles);
+
+        getGroupTree(realmName).ifPresent(groupTree -> groupTree.addRealmRoles(groupId, roleNames));
     }
 
     public void removeRealmRoles(String realmName, String groupId, List<String> roleNames) {
+        if (roleNames.isEmpty()) return;
+
         GroupResource groupResource = getResourceById(realmName, groupId);
         RoleMappingResource groupRoles = groupResource.roles();
         RoleScopeResource groupRealmRoles = groupRoles.realmLevel();
@@ -147,11 +216,17 @@ public class GroupRepository {
                 .toList();
 
         groupRealmRoles.remove(existingRealmRoles);
+
+        getGroupTree(realmName).ifPresent(groupTree -> groupTree.removeRealmRoles(groupId, roleNames));
     }
 
     public void deleteGroup(String realmName, String id) {
         GroupResource groupResource = getResourceById(realmName, id);
         groupResource.remove();
+
+        getGroupTree(realmName).ifPresent(groupTree -> groupTree.remove(id));
+        invalidateGroupId(realmName, id);
+        invalidateGroupPaths(realmName);
     }
 
     public void addGroupsToUser(String realmName, String username, List<GroupRepresentation> groups) {
@@ -170,6 +245,8 @@ public class GroupRepository {
 
 
     public void addClientRoles(String realmName, String groupId, String clientId, List<String> roleNames) {
+        if (roleNames.isEmpty()) return;
+
         GroupResource groupResource = getResourceById(realmName, groupId);
         RoleMappingResource rolesResource = groupResource.roles();
 
@@ -178,9 +255,13 @@ public class GroupRepository {
 
         List<RoleRepresentation> clientRoles = roleRepository.getClientRolesByName(realmName, clientId, roleNames);
         groupClientRolesResource.add(clientRoles);
+
+        getGroupTree(realmName).ifPresent(groupTree -> groupTree.addClientRoles(groupId, clientId, roleNames));
     }
 
     public void removeClientRoles(String realmName, String groupId, String clientId, List<String> roleNames) {
+        if (roleNames.isEmpty()) return;
+
         GroupResource groupResource = getResourceById(realmName, groupId);
         RoleMappingResource rolesResource = groupResource.roles();
 
@@ -189,14 +270,25 @@ public class GroupRepository {
 
         List<RoleRepresentation> clientRoles = roleRepository.getClientRolesByName(realmName, clientId, roleNames);
         groupClientRolesResource.remove(clientRoles);
+
+        getGroupTree(realmName).ifPresent(groupTree -> groupTree.removeClientRoles(groupId, clientId, roleNames));
     }
 
     public void update(String realmName, GroupRepresentation group) {
         GroupResource groupResource = getResourceById(realmName, group.getId());
         groupResource.update(group);
+
+        getGroupTree(realmName).ifPresent(groupTree -> groupTree.update(group));
+        realmSnapshotRepository.invalidate(realmName, RealmSnapshot::getGroups, groups -> groups.invalidateEntry(group));
+        invalidateGroupPaths(realmName);
     }
 
     public GroupRepresentation getGroupByName(String realmName, String groupName) {
+        Optional<GroupTree> groupTree = getGroupTree(realmName);
+        if (groupTree.isPresent()) {
+            return groupTree.get().findTopLevelByName(groupName).orElse(null);
+        }
+
         GroupResource groupResource = getResourceByName(realmName, groupName);
 
         if (groupResource == null) {
@@ -207,12 +299,15 @@ public class GroupRepository {
     }
 
     public GroupRepresentation getGroupById(String realmName, String groupId) {
-        GroupResource groupResource = getResourceById(realmName, groupId);
-        return groupResource.toRepresentation();
+        return getGroupTree(realmName)
+                .flatMap(groupTree -> groupTree.findById(groupId))
+                .orElseGet(() -> getResourceById(realmName, groupId).toRepresentation());
     }
 
     public GroupRepresentation getGroupByPath(String realmName, String groupPath) {
-        return realmRepository.getResource(realmName).getGroupByPath(groupPath);
+        return getGroupTree(realmName)
+                .flatMap(groupTree -> groupTree.findByPath(groupPath))
+                .orElseGet(() -> realmRepository.getResource(realmName).getGroupByPath(groupPath));
     }
 
     public void enablePermission(String realmName, String id) {
@@ -227,6 +322,21 @@ public class GroupRepository {
         return groupResource.getPermissions().isEnabled();
     }
 
+    private Optional<GroupTree> getGroupTree(String realmName) {
+        return realmSnapshotRepository.get(realmName)
+                .filter(RealmSnapshot::isGroupTreeIndexed)
+                .map(RealmSnapshot::getGroupTree);
+    }
+
+    private void invalidateGroupId(String realmName, String groupId) {
+        realmSnapshotRepository.invalidate(realmName, RealmSnapshot::getGroups, groups -> groups.invalidateId(groupId));
+    }
+
+    // a write can move, rename or remove the groups below the written group as well
+    private void invalidateGroupPaths(String realmName) {
+        realmSnapshotRepository.invalidateLookup(realmName, RealmSnapshot::getGroupsByPath, RealmSnapshot.Lookup::invalidateAll);
+    }
+
     private GroupResource getResourceByName(String realmName, String groupName) {
         Optional<GroupRepresentation> maybeGroup = searchByName(realmName, groupName);
 
@@ -0,0 +1,284 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.repository;
+
+import de.adorsys.keycloak.config.util.CloneUtil;
+import org.keycloak.representations.idm.GroupRepresentation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * All groups of a realm, read once with paged non-brief requests and indexed by id and path, including their role mappings.
+ * The group repository applies its writes to the tree, so lookups during an import never read groups from Keycloak again.
+ * Returned groups are copies, with subgroups populated to the requested depth.
+ */
+final class GroupTree {
+    private static final String[] IGNORED_PROPERTIES_FOR_UPDATE = {
+            "id", "path", "realmRoles", "clientRoles", "subGroups", "subGroupCount", "access"
+    };
+
+    private final Supplier<Stream<GroupRepresentation>> topLevelLoader;
+    private final Function<String, Stream<GroupRepresentation>> subGroupLoader;
+
+    private Node root;
+    private Map<String, Node> nodesById;
+    private Map<String, Node> nodesByPath;
+
+    GroupTree(Supplier<Stream<GroupRepresentation>> topLevelLoader, Function<String, Stream<GroupRepresentation>> subGroupLoader) {
+        this.topLevelLoader = topLevelLoader;
+        this.subGroupLoader = subGroupLoader;
+    }
+
+    synchronized List<GroupRepresentation> getTopLevelGroups() {
+        return toRepresentations(getRoot().children, 0);
+    }
+
+    /**
+     * Returns the top-level group with the given name, with its direct subgroups.
+     */
+    synchronized Optional<GroupRepresentation> findTopLevelByName(String name) {
+        return getRoot().children.stream()
+                .filter(node -> Objects.equals(node.group.getName(), name))
+                .findFirst()
+                .map(node -> toRepresentation(node, 1));
+    }
+
+    synchronized Optional<GroupRepresentation> findById(String id) {
+        load();
+        return Optional.ofNullable(nodesById.get(id)).map(node -> toRepresentation(node, 0));
+    }
+
+    synchronized Optional<GroupRepresentation> findByPath(String path) {
+        load();
+        return Optional.ofNullable(nodesByPath.get(path)).map(node -> toRepresentation(node, 0));
+    }
+
+    /**
+     * Returns the direct subgroups of the given group, or nothing if the group is unknown.
+     */
+    synchronized Optional<List<GroupRepresentation>> findSubGroups(String parentId) {
+        load();
+        return Optional.ofNullable(nodesById.get(parentId)).map(node -> toRepresentations(node.children, 0));
+    }
+
+    /**
+     * Adds a created group below the given parent, or top-level if the parent id is null. The path is derived from the parent.
+     */
+    synchronized void add(String parentId, GroupRepresentation group) {
+        if (root == null) return;
+
+        Node parent = parentId == null ? root : nodesById.get(parentId);
+        if (parent == null) {
+            invalidate();
+            return;
+        }
+
+        Node node = new Node(parent, strip(group));
+        node.group.setPath(pathOf(node));
+        parent.children.add(node);
+        nodesById.put(node.group.getId(), node);
+        nodesByPath.put(node.group.getPath(), node);
+    }
+
+    /**
+     * Applies an update of the group attributes. Role mappings and subgroups are not changed by a group update.
+     */
+    synchronized void update(GroupRepresentation group) {
+        if (root == null) return;
+
+        Node node = nodesById.get(group.getId());
+        if (node == null) {
+            invalidate();
+            return;
+        }
+
+        node.group = CloneUtil.patch(node.group, group, IGNORED_PROPERTIES_FOR_UPDATE);
+        if (!Objects.equals(node.group.getPath(), pathOf(node))) {
+            updatePaths(node);
+        }
+    }
+
+    synchronized void remove(String id) {
+        if (root == null) return;
+
+        Node node = nodesById.get(id);
+        if (node == null) return;
+
+        node.parent.children.remove(node);
+        removeFromIndexes(node);
+    }
+
+    synchronized void addRealmRoles(String id, Collection<String> roleNames) {
+        updateNode(id, group -> group.setRealmRoles(merge(group.getRealmRoles(), roleNames, true)));
+    }
+
+    synchronized void removeRealmRoles(String id, Collection<String> roleNames) {
+        updateNode(id, group -> group.setRealmRoles(merge(group.getRealmRoles(), roleNames, false)));
+    }
+
+    synchronized void addClientRoles(String id, String clientId, Collection<String> roleNames) {
+        updateNode(id, group -> updateClientRoles(group, clientId, roleNames, true));
+    }
+
+    synchronized void removeClientRoles(String id, String clientId, Collection<String> roleNames) {
+        updateNode(id, group -> updateClientRoles(group, clientId, roleNames, false));
+    }
+
+    /**
+     * Drops the tree, it is read again on the next lookup.
+     */
+    synchronized void invalidate() {
+        root = null;
+        nodesById = null;
+        nodesByPath = null;
+    }
+
+    private Node getRoot() {
+        load();
+        return root;
+    }
+
+    private void load() {
+        if (root != null) return;
+
+        Node loadedRoot = new Node(null, null);
+        nodesById = new HashMap<>();
+        nodesByPath = new HashMap<>();
+
+        List<Node> parents = topLevelLoader.get()
+                .map(group -> addLoaded(loadedRoot, group))
+                .toList();
+
+        while (!parents.isEmpty()) {
+            List<Node> nextParents = new ArrayList<>();
+            for (Node parent : parents) {
+                // subgroup counts are only known since Keycloak 23
+                Long subGroupCount = parent.group.getSubGroupCount();
+                if (subGroupCount != null && subGroupCount == 0) continue;
+
+                subGroupLoader.apply(parent.group.getId()).forEach(group -> nextParents.add(addLoaded(parent, group)));
+            }
+            parents = nextParents;
+        }
+
+        root = loadedRoot;
+    }
+
+    private Node addLoaded(Node parent, GroupRepresentation group) {
+        Node node = new Node(parent, strip(group));
+        node.group.setPath(pathOf(node));
+        parent.children.add(node);
+        nodesById.put(node.group.getId(), node);
+        nodesByPath.put(node.group.getPath(), node);
+        return node;
+    }
+
+    private void updateNode(String id, Consumer<GroupRepresentation> update) {
+        if (root == null) return;
+
+        Node node = nodesById.get(id);
+        if (node == null) {
+            invalidate();
+            return;
+        }
+
+        update.accept(node.group);
+    }
+
+    private void updatePaths(Node node) {
+        nodesByPath.remove(node.group.getPath());
+        node.group.setPath(pathOf(node));
+        nodesByPath.put(node.group.getPath(), node);
+
+        node.children.forEach(this::updatePaths);
+    }
+
+    private void removeFromIndexes(Node node) {
+        nodesById.remove(node.group.getId());
+        nodesByPath.remove(node.group.getPath());
+
+        node.children.forEach(this::removeFromIndexes);
+    }
+
+    private static String pathOf(Node node) {
+        String parentPath = node.parent.group == null ? "" : node.parent.group.getPath();
+        return parentPath + "/" + node.group.getName();
+    }
+
+    private static GroupRepresentation strip(GroupRepresentation group) {
+        GroupRepresentation strippedGroup = CloneUtil.deepClone(group, "subGroups");
+        strippedGroup.setSubGroups(null);
+        return strippedGroup;
+    }
+
+    private static List<GroupRepresentation> toRepresentations(List<Node> nodes, int depth) {
+        return nodes.stream().map(node -> toRepresentation(node, depth)).toList();
+    }
+
+    private static GroupRepresentation toRepresentation(Node node, int depth) {
+        GroupRepresentation group = CloneUtil.deepClone(node.group);
+        group.setSubGroups(depth > 0 ? new ArrayList<>(toRepresentations(node.children, depth - 1)) : new ArrayList<>());
+        return group;
+    }
+
+    private static List<String> merge(List<String> values, Collection<String> changedValues, boolean add) {
+        List<String> mergedValues = values == null ? new ArrayList<>() : new ArrayList<>(values);
+        if (add) {
+            changedValues.stream().filter(value -> !mergedValues.contains(value)).forEach(mergedValues::add);
+        } else {
+            mergedValues.removeAll(changedValues);
+        }
+        return mergedValues;
+    }
+
+    private static void updateClientRoles(GroupRepresentation group, String clientId, Collection<String> roleNames, boolean add) {
+        Map<String, List<String>> clientRoles = group.getClientRoles() == null ? new HashMap<>() : new HashMap<>(group.getClientRoles());
+        List<String> mergedRoleNames = merge(clientRoles.get(clientId), roleNames, add);
+
+        if (mergedRoleNames.isEmpty()) {
+            clientRoles.remove(clientId);
+        } else {
+            clientRoles.put(clientId, mergedRoleNames);
+        }
+        group.setClientRoles(clientRoles);
+    }
+
+    private static final class Node {
+        private final Node parent;
+        private final List<Node> children = new ArrayList<>();
+        private GroupRepresentation group;
+
+        private Node(Node parent, GroupRepresentation group) {
+            this.parent = parent;
+            this.group = group;
+        }
+    }
+}
@@ -43,14 +43,23 @@ public class IdentityProviderRepository {
 
     private final RealmRepository realmRepository;
     private final KeycloakProvider keycloakProvider;
+    private final RealmSnapshotRepository realmSnapshotRepository;
 
     @Autowired
-    public IdentityProviderRepository(RealmRepository realmRepository, KeycloakProvider keycloakProvider) {
+    public IdentityProviderRepository(
+            RealmRepository realmRepository,
+            KeycloakProvider keycloakProvider,
+            RealmSnapshotRepository realmSnapshotRepository) {
         this.realmRepository = realmRepository;
         this.keycloakProvider = keycloakProvider;
+        this.realmSnapshotRepository = realmSnapshotRepository;
     }
 
     public Optional<IdentityProviderRepresentation> search(String realmName, String alias) {
+        return realmSnapshotRepository.find(realmName, RealmSnapshot::getIdentityProviders, alias, () -> findByAlias(realmName, alias));
+    }
+
+    private Optional<IdentityProviderRepresentation> findByAlias(String realmName, String alias) {
         Optional<IdentityProviderRepresentation> maybeIdentityProvider;
 
         IdentityProviderResource identityProviderResource = getResourceByAlias(realmName, alias);
@@ -80,6 +89,8 @@ public class IdentityProviderRepository {
         IdentityProvidersResource identityProvidersResource = realmRepository.getResource(realmName).identityProviders();
         try (Response response = identityProvidersResource.create(identityProvider)) {
             CreatedResponseUtil.getCreatedId(response);
+        } finally {
+            invalidate(realmName, identityProvider);
         }
     }
 
@@ -89,6 +100,8 @@ public class IdentityProviderRepository {
                 .get(identityProviderToUpdate.getAlias());
 
         identityProviderResource.update(identityProviderToUpdate);
+
+        invalidate(realmName, identityProviderToUpdate);
     }
 
     public void delete(String realmName, IdentityProviderRepresentation identityProviderToDelete) {
@@ -97,6 +110,8 @@ public class IdentityProviderRepository {
                 .get(identityProviderToDelete.getInternalId());
 
         identityProviderResource.remove();
+
+        invalidate(realmName, identityProviderToDelete);
     }
 
     public boolean isPermissionEnabled(String realmName, String alias) {
@@ -109,6 +124,11 @@ public class IdentityProviderRepository {
         permissions.setIdpPermissions(realmName, alias, new ManagementPermissionRepresentation(true));
     }
 
+    private void invalidate(String realmName, IdentityProviderRepresentation identityProvider) {
+        realmSnapshotRepository.invalidate(realmName, RealmSnapshot::getIdentityProviders,
+                identityProviders -> identityProviders.invalidateEntry(identityProvider));
+    }
+
     private IdentityProviderResource getResourceByAlias(String realmName, String identityProviderAlias) {
         return realmRepository.getResource(realmName).identityProviders().get(identityProviderAlias);
     }
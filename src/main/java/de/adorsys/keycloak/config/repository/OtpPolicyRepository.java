@@ -28,19 +28,16 @@ import org.springframework.stereotype.Service;
 @Service
 @ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
 public class OtpPolicyRepository {
-    private final RealmRepository realmRepository;
+    private final RealmWriteBuffer realmWriteBuffer;
 
     @Autowired
-    public OtpPolicyRepository(RealmRepository realmRepository) {
-        this.realmRepository = realmRepository;
+    public OtpPolicyRepository(RealmWriteBuffer realmWriteBuffer) {
+        this.realmWriteBuffer = realmWriteBuffer;
     }
 
     public void updateOtpPolicy(String realmName, RealmRepresentation newRealmRepresentation) {
-        RealmRepresentation existingRealm = realmRepository.get(realmName);
+        String otpPolicyAlgorithm = newRealmRepresentation.getOtpPolicyAlgorithm();
 
-        existingRealm.setOtpPolicyAlgorithm(newRealmRepresentation.getOtpPolicyAlgorithm());
-
-
-        realmRepository.update(existingRealm);
+        realmWriteBuffer.update(realmName, existingRealm -> existingRealm.setOtpPolicyAlgorithm(otpPolicyAlgorithm));
     }
 }
@@ -22,6 +22,7 @@ package de.adorsys.keycloak.config.repository;
 
 import de.adorsys.keycloak.config.exception.KeycloakRepositoryException;
 import de.adorsys.keycloak.config.provider.KeycloakProvider;
+import de.adorsys.keycloak.config.util.CloneUtil;
 import de.adorsys.keycloak.config.util.ResponseUtil;
 import org.apache.commons.lang3.ObjectUtils;
 import org.keycloak.admin.client.Keycloak;
@@ -34,6 +35,9 @@ import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.WebApplicationException;
@@ -44,6 +48,8 @@ import jakarta.ws.rs.WebApplicationException;
 public class RealmRepository {
     private final KeycloakProvider keycloakProvider;
 
+    private final Map<String, MemoizedRealm> memoizedRealms = new ConcurrentHashMap<>();
+
     @Autowired
     public RealmRepository(KeycloakProvider keycloakProvider) {
         this.keycloakProvider = keycloakProvider;
@@ -63,7 +69,41 @@ public class RealmRepository {
         return keycloakProvider.getInstance().realms().realm(realmName);
     }
 
+    /**
+     * Serves {@link #get(String)} of the given realm from memory until {@link #stopMemoizing(String)} is called.
+     * The memoized realm is dropped on every write through this repository.
+     */
+    public void startMemoizing(String realmName) {
+        memoizedRealms.put(realmName, new MemoizedRealm());
+    }
+
+    public void stopMemoizing(String realmName) {
+        memoizedRealms.remove(realmName);
+    }
+
+    public void invalidate(String realmName) {
+        MemoizedRealm memoizedRealm = memoizedRealms.get(realmName);
+        if (memoizedRealm != null) {
+            memoizedRealm.clear();
+        }
+    }
+
     public RealmRepresentation get(String realmName) {
+        MemoizedRealm memoizedRealm = memoizedRealms.get(realmName);
+        if (memoizedRealm == null) {
+            return fetch(realmName);
+        }
+
+        // callers modify the returned realm, e.g. before passing it to update()
+        return CloneUtil.deepClone(memoizedRealm.get(() -> fetch(realmName)));
+    }
+
+    /**
+     * Reads the realm from keycloak, bypassing the memoized realm. Must be used to read the realm before passing it to
+     * {@link #update(RealmRepresentation)}, because realm level state may have been changed through sub resources since
+     * the realm was memoized, which would be reverted by the update otherwise.
+     */
+    public RealmRepresentation fetch(String realmName) {
         final var realm = getResource(realmName).toRepresentation();
         realm.setAttributes(ObjectUtils.firstNonNull(realm.getAttributes(), new HashMap<>()));
         realm.setEventsEnabled(ObjectUtils.firstNonNull(realm.isEventsEnabled(), false));
@@ -82,6 +122,8 @@ public class RealmRepository {
                     String.format("Cannot create realm '%s': %s", realm.getRealm(), errorMessage),
                     error
             );
+        } finally {
+            invalidate(realm.getRealm());
         }
     }
 
@@ -94,6 +136,8 @@ public class RealmRepository {
                     String.format("Cannot update realm '%s': %s", realm.getRealm(), errorMessage),
                     error
             );
+        } finally {
+            invalidate(realm.getRealm());
         }
     }
 
@@ -103,21 +147,41 @@ public class RealmRepository {
 
     public void addDefaultDefaultClientScope(String realmName, String scopeId) {
         getResource(realmName).addDefaultDefaultClientScope(scopeId);
+        invalidate(realmName);
     }
 
     public void addDefaultOptionalClientScope(String realmName, String scopeId) {
         getResource(realmName).addDefaultOptionalClientScope(scopeId);
+        invalidate(realmName);
     }
 
     public void removeDefaultDefaultClientScope(String realmName, String scopeId) {
         getResource(realmName).removeDefaultDefaultClientScope(scopeId);
+        invalidate(realmName);
     }
 
     public void removeDefaultOptionalClientScope(String realmName, String scopeId) {
         getResource(realmName).removeDefaultOptionalClientScope(scopeId);
+        invalidate(realmName);
     }
 
     public List<RealmRepresentation> getRealms() {
         return keycloakProvider.getInstance().realms().findAll();
     }
+
+    private static final class MemoizedRealm {
+        private RealmRepresentation realm;
+
+        synchronized RealmRepresentation get(Supplier<RealmRepresentation> loader) {
+            if (realm == null) {
+                realm = loader.get();
+            }
+
+            return realm;
+        }
+
+        synchronized void clear() {
+            realm = null;
+        }
+    }
 }
@@ -0,0 +1,416 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.repository;
+
+import de.adorsys.keycloak.config.util.CloneUtil;
+import de.adorsys.keycloak.config.util.PaginationUtil;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.ClientScopeRepresentation;
+import org.keycloak.representations.idm.ComponentRepresentation;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.IdentityProviderRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import jakarta.ws.rs.NotFoundException;
+
+/**
+ * Live state of a single realm, read in bulk and indexed by natural key for the duration of one realm import.
+ * Each index is read with paged list requests the first time it is accessed. Repositories invalidate entries
+ * after each write, invalidated entries are always read from Keycloak again.
+ * <p>
+ * Users are only indexed after {@link #indexUsers()} is called, as reading all users is only worth it for large user imports.
+ * The group tree is only used after {@link #indexGroupTree()} is called by the group import. Clients and the group tree apply
+ * writes themselves instead of being invalidated.
+ * <p>
+ * Lookups of single entries which are not read in bulk, like client roles or groups by path, are memoized until they are invalidated.
+ */
+final class RealmSnapshot {
+    private static final int PAGE_SIZE = 100;
+    private static final int USER_PAGE_SIZE = 500;
+
+    private final ClientIndex clients;
+    private final Index<String, RoleRepresentation> realmRoles;
+    private final Index<String, GroupRepresentation> groups;
+    private final Index<String, ClientScopeRepresentation> clientScopes;
+    private final Index<String, IdentityProviderRepresentation> identityProviders;
+    private final Index<List<String>, ComponentRepresentation> components;
+    private final Index<String, UserRepresentation> usersByUsername;
+    private final Index<String, UserRepresentation> usersByEmail;
+    private final Lookup<String, RoleRepresentation> writtenRealmRoles = new Lookup<>();
+    private final Lookup<List<String>, RoleRepresentation> clientRoles = new Lookup<>();
+    private final Lookup<String, GroupRepresentation> groupsByPath = new Lookup<>();
+    private final Lookup<String, UserRepresentation> createdUsers = new Lookup<>();
+    private final GroupTree groupTree;
+
+    private final RealmRepository realmRepository;
+    private final String realmName;
+    private String realmId;
+    private volatile boolean usersIndexed;
+    private volatile boolean groupTreeIndexed;
+    private List<UserRepresentation> users;
+
+    RealmSnapshot(String realmName, RealmRepository realmRepository) {
+        this.realmName = realmName;
+        this.realmRepository = realmRepository;
+
+        this.clients = new ClientIndex(
+                () -> PaginationUtil.findAll(PAGE_SIZE, (first, max) -> realmRepository.getResource(realmName)
+                        .clients().findAll(null, null, null, first, max)),
+                this::readClient
+        );
+        this.realmRoles = new Index<>(
+                () -> PaginationUtil.findAll(PAGE_SIZE, (first, max) -> realmRepository.getResource(realmName)
+                        .roles().list(first, max, false)),
+                RoleRepresentation::getName,
+                RoleRepresentation::getId
+        );
+        this.groups = new Index<>(
+                () -> PaginationUtil.findAll(PAGE_SIZE, (first, max) -> realmRepository.getResource(realmName)
+                        .groups().groups(first, max)),
+                GroupRepresentation::getName,
+                GroupRepresentation::getId
+        );
+        this.clientScopes = new Index<>(
+                () -> realmRepository.getResource(realmName).clientScopes().findAll().stream(),
+                ClientScopeRepresentation::getName,
+                ClientScopeRepresentation::getId
+        );
+        this.identityProviders = new Index<>(
+                () -> realmRepository.getResource(realmName).identityProviders().findAll().stream(),
+                IdentityProviderRepresentation::getAlias,
+                IdentityProviderRepresentation::getInternalId
+        );
+        this.components = new Index<>(
+                () -> realmRepository.getResource(realmName).components().query().stream(),
+                RealmSnapshot::componentKeyOf,
+                ComponentRepresentation::getId
+        );
+        this.groupTree = new GroupTree(
+                () -> PaginationUtil.findAll(PAGE_SIZE, (first, max) -> realmRepository.getResource(realmName)
+                        .groups().groups(null, null, first, max, false)),
+                parentId -> PaginationUtil.findAll(PAGE_SIZE, (first, max) -> realmRepository.getResource(realmName)
+                        .groups().group(parentId).getSubGroups(first, max, false))
+        );
+        this.usersByUsername = new Index<>(
+                this::loadUsers,
+                user -> userKey(user.getUsername()),
+                UserRepresentation::getId
+        );
+        this.usersByEmail = new Index<>(
+                this::loadUsers,
+                user -> userKey(user.getEmail()),
+                UserRepresentation::getId
+        );
+    }
+
+    ClientIndex getClients() {
+        return clients;
+    }
+
+    Index<String, RoleRepresentation> getRealmRoles() {
+        return realmRoles;
+    }
+
+    Index<String, GroupRepresentation> getGroups() {
+        return groups;
+    }
+
+    Index<String, ClientScopeRepresentation> getClientScopes() {
+        return clientScopes;
+    }
+
+    Index<String, IdentityProviderRepresentation> getIdentityProviders() {
+        return identityProviders;
+    }
+
+    Index<List<String>, ComponentRepresentation> getComponents() {
+        return components;
+    }
+
+    /**
+     * Keyed by lower case username, as Keycloak treats usernames case-insensitive.
+     */
+    Index<String, UserRepresentation> getUsersByUsername() {
+        return usersByUsername;
+    }
+
+    /**
+     * Keyed by lower case email.
+     */
+    Index<String, UserRepresentation> getUsersByEmail() {
+        return usersByEmail;
+    }
+
+    /**
+     * Realm roles which were written during this import, each read again once after it was invalidated.
+     */
+    Lookup<String, RoleRepresentation> getWrittenRealmRoles() {
+        return writtenRealmRoles;
+    }
+
+    /**
+     * Keyed by clientId and role name.
+     */
+    Lookup<List<String>, RoleRepresentation> getClientRoles() {
+        return clientRoles;
+    }
+
+    Lookup<String, GroupRepresentation> getGroupsByPath() {
+        return groupsByPath;
+    }
+
+    /**
+     * Users created during this import, keyed by lower case username.
+     */
+    Lookup<String, UserRepresentation> getCreatedUsers() {
+        return createdUsers;
+    }
+
+    GroupTree getGroupTree() {
+        return groupTree;
+    }
+
+    void indexGroupTree() {
+        groupTreeIndexed = true;
+    }
+
+    boolean isGroupTreeIndexed() {
+        return groupTreeIndexed;
+    }
+
+    void indexUsers() {
+        usersIndexed = true;
+    }
+
+    boolean isUsersIndexed() {
+        return usersIndexed;
+    }
+
+    private Optional<ClientRepresentation> readClient(String id) {
+        try {
+            return Optional.of(realmRepository.getResource(realmName).clients().get(id).toRepresentation());
+        } catch (NotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    static String userKey(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
+
+    // both user indexes are built from a single read of all users
+    private synchronized Stream<UserRepresentation> loadUsers() {
+        if (users == null) {
+            users = PaginationUtil.findAll(USER_PAGE_SIZE, (first, max) -> realmRepository.getResource(realmName)
+                    .users().list(first, max)).toList();
+        }
+
+        return users.stream();
+    }
+
+    /**
+     * Keycloak resolves a component query without parent to the components of the realm itself.
+     */
+    List<String> componentKey(String parentId, String providerType, String subType, String name) {
+        return Arrays.asList(parentId != null ? parentId : getRealmId(), providerType, subType, name);
+    }
+
+    private synchronized String getRealmId() {
+        if (realmId == null) {
+            realmId = realmRepository.get(realmName).getId();
+        }
+
+        return realmId;
+    }
+
+    private static List<String> componentKeyOf(ComponentRepresentation component) {
+        return Arrays.asList(component.getParentId(), component.getProviderType(), component.getSubType(), component.getName());
+    }
+
+    static final class Index<K, T> {
+        private final Supplier<Stream<T>> loader;
+        private final Function<T, K> keyFunction;
+        private final Function<T, String> idFunction;
+
+        private final Set<K> invalidatedKeys = ConcurrentHashMap.newKeySet();
+        private volatile Map<K, T> entries;
+
+        Index(Supplier<Stream<T>> loader, Function<T, K> keyFunction, Function<T, String> idFunction) {
+            this.loader = loader;
+            this.keyFunction = keyFunction;
+            this.idFunction = idFunction;
+        }
+
+        /**
+         * Returns a copy of the indexed entry, or falls back to the given lookup if the entry was written during this import.
+         */
+        Optional<T> find(K key, Supplier<Optional<T>> fallback) {
+            if (invalidatedKeys.contains(key)) {
+                return fallback.get();
+            }
+
+            return Optional.ofNullable(getEntries().get(key)).map(CloneUtil::deepClone);
+        }
+
+        /**
+         * Returns copies of all indexed entries, or nothing if any entry was written during this import.
+         */
+        Optional<Stream<T>> findAll() {
+            Map<K, T> currentEntries = getEntries();
+
+            if (!invalidatedKeys.isEmpty()) {
+                return Optional.empty();
+            }
+
+            return Optional.of(currentEntries.values().stream().map(CloneUtil::deepClone));
+        }
+
+        void invalidateKey(K key) {
+            invalidatedKeys.add(key);
+        }
+
+        void invalidateEntry(T entry) {
+            invalidateKey(keyFunction.apply(entry));
+            invalidateId(idFunction.apply(entry));
+        }
+
+        /**
+         * Adds or replaces an entry written during this import, for writes which return the complete entry.
+         */
+        void put(T entry) {
+            K key = keyFunction.apply(entry);
+            if (key == null) return;
+
+            getEntries().put(key, entry);
+            invalidatedKeys.remove(key);
+        }
+
+        void invalidateId(String id) {
+            if (id == null || entries == null) return;
+
+            entries.values().stream()
+                    .filter(entry -> Objects.equals(id, idFunction.apply(entry)))
+                    .map(keyFunction)
+                    .forEach(invalidatedKeys::add);
+        }
+
+        /**
+         * Drops the whole index, used when a write has side effects on other entries of the same kind.
+         */
+        synchronized void invalidateAll() {
+            entries = null;
+            invalidatedKeys.clear();
+        }
+
+        private Map<K, T> getEntries() {
+            Map<K, T> currentEntries = entries;
+            if (currentEntries != null) {
+                return currentEntries;
+            }
+
+            synchronized (this) {
+                if (entries == null) {
+                    Map<K, T> loadedEntries = new ConcurrentHashMap<>();
+                    loader.get().forEach(entry -> {
+                        K key = keyFunction.apply(entry);
+                        if (key != null) {
+                            loadedEntries.putIfAbsent(key, entry);
+                        }
+                    });
+                    entries = loadedEntries;
+                }
+
+                return entries;
+            }
+        }
+    }
+
+    static final class Lookup<K, T> {
+        private final Map<K, T> entries = new ConcurrentHashMap<>();
+        private long generation;
+
+        /**
+         * Returns a copy of the memoized entry, or looks it up and memoizes it, unless it was invalidated during the lookup.
+         */
+        Optional<T> find(K key, Supplier<Optional<T>> lookup) {
+            if (key == null) {
+                return lookup.get();
+            }
+
+            T entry = entries.get(key);
+            if (entry != null) {
+                return Optional.of(CloneUtil.deepClone(entry));
+            }
+
+            long lookupGeneration = getGeneration();
+            Optional<T> result = lookup.get();
+            result.ifPresent(value -> store(key, CloneUtil.deepClone(value), lookupGeneration));
+
+            return result;
+        }
+
+        /**
+         * Memoizes an entry which is known without a lookup, like a created entity.
+         */
+        synchronized void put(K key, T entry) {
+            if (key != null) {
+                entries.put(key, CloneUtil.deepClone(entry));
+            }
+            generation++;
+        }
+
+        synchronized void invalidateKey(K key) {
+            if (key != null) {
+                entries.remove(key);
+            }
+            generation++;
+        }
+
+        synchronized void invalidateAll() {
+            entries.clear();
+            generation++;
+        }
+
+        private synchronized long getGeneration() {
+            return generation;
+        }
+
+        private synchronized void store(K key, T entry, long lookupGeneration) {
+            if (lookupGeneration == generation) {
+                entries.put(key, entry);
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Service
+@ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
+public class RealmSnapshotRepository {
+    private final RealmRepository realmRepository;
+
+    private final Map<String, RealmSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RealmSnapshotRepository(RealmRepository realmRepository) {
+        this.realmRepository = realmRepository;
+    }
+
+    /**
+     * Repositories serve lookups of the given realm from a snapshot until {@link #close(String)} is called.
+     */
+    public void open(String realmName) {
+        snapshots.put(realmName, new RealmSnapshot(realmName, realmRepository));
+    }
+
+    /**
+     * Serves user lookups of the given realm from an index of all users, read once with paged list requests.
+     */
+    public void indexUsers(String realmName) {
+        get(realmName).ifPresent(RealmSnapshot::indexUsers);
+    }
+
+    /**
+     * Serves group lookups of the given realm from a tree of all groups, read once with paged list requests.
+     */
+    public void indexGroupTree(String realmName) {
+        get(realmName).ifPresent(RealmSnapshot::indexGroupTree);
+    }
+
+    public void close(String realmName) {
+        snapshots.remove(realmName);
+    }
+
+    <K, T> Optional<T> find(
+            String realmName,
+            Function<RealmSnapshot, RealmSnapshot.Index<K, T>> index,
+            K key,
+            Supplier<Optional<T>> fallback
+    ) {
+        RealmSnapshot snapshot = snapshots.get(realmName);
+        if (snapshot == null) {
+            return fallback.get();
+        }
+
+        return index.apply(snapshot).find(key, fallback);
+    }
+
+    <K, T> Optional<T> lookup(
+            String realmName,
+            Function<RealmSnapshot, RealmSnapshot.Lookup<K, T>> lookups,
+            K key,
+            Supplier<Optional<T>> lookup
+    ) {
+        RealmSnapshot snapshot = snapshots.get(realmName);
+        if (snapshot == null) {
+            return lookup.get();
+        }
+
+        return lookups.apply(snapshot).find(key, lookup);
+    }
+
+    Optional<RealmSnapshot> get(String realmName) {
+        return Optional.ofNullable(snapshots.get(realmName));
+    }
+
+    <K, T> void invalidate(String realmName, Function<RealmSnapshot, RealmSnapshot.Index<K, T>> index, Consumer<RealmSnapshot.Index<K, T>> action) {
+        RealmSnapshot snapshot = snapshots.get(realmName);
+        if (snapshot != null) {
+            action.accept(index.apply(snapshot));
+        }
+    }
+
+    <K, T> void invalidateLookup(
+            String realmName,
+            Function<RealmSnapshot, RealmSnapshot.Lookup<K, T>> lookups,
+            Consumer<RealmSnapshot.Lookup<K, T>> action
+    ) {
+        RealmSnapshot snapshot = snapshots.get(realmName);
+        if (snapshot != null) {
+            action.accept(lookups.apply(snapshot));
+        }
+    }
+}
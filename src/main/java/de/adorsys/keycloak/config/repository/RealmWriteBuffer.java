@@ -0,0 +1,99 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.repository;
+
+import org.keycloak.representations.idm.RealmRepresentation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Collects changes to the realm representation, e.g. the remote state and checksum attributes, and writes them with a single
+ * GET and PUT of the realm. Changes are only buffered between {@link #open(String)} and {@link #flush(String)},
+ * otherwise they are written immediately.
+ */
+@Component
+@ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
+public class RealmWriteBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(RealmWriteBuffer.class);
+
+    private final RealmRepository realmRepository;
+
+    private final Map<String, List<Consumer<RealmRepresentation>>> pendingChanges = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RealmWriteBuffer(RealmRepository realmRepository) {
+        this.realmRepository = realmRepository;
+    }
+
+    public void open(String realmName) {
+        pendingChanges.put(realmName, Collections.synchronizedList(new ArrayList<>()));
+    }
+
+    /**
+     * Discards all changes which were not flushed, e.g. because the import of the realm failed.
+     */
+    public void close(String realmName) {
+        pendingChanges.remove(realmName);
+    }
+
+    public void update(String realmName, Consumer<RealmRepresentation> change) {
+        List<Consumer<RealmRepresentation>> changes = pendingChanges.get(realmName);
+
+        if (changes == null) {
+            write(realmName, List.of(change));
+        } else {
+            changes.add(change);
+        }
+    }
+
+    public void flush(String realmName) {
+        List<Consumer<RealmRepresentation>> changes = pendingChanges.get(realmName);
+        if (changes == null) return;
+
+        List<Consumer<RealmRepresentation>> changesToWrite;
+        synchronized (changes) {
+            changesToWrite = List.copyOf(changes);
+            changes.clear();
+        }
+
+        if (changesToWrite.isEmpty()) return;
+
+        write(realmName, changesToWrite);
+        logger.debug("Wrote {} buffered changes of realm '{}'", changesToWrite.size(), realmName);
+    }
+
+    private void write(String realmName, List<Consumer<RealmRepresentation>> changes) {
+        RealmRepresentation existingRealm = realmRepository.fetch(realmName);
+        changes.forEach(change -> change.accept(existingRealm));
+        realmRepository.update(existingRealm);
+    }
+}
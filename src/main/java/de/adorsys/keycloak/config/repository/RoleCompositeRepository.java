@@ -135,6 +135,8 @@ public class RoleCompositeRepository {
                 realmComposites,
                 () -> loadRealmRole(realmName, roleName)
         );
+
+        roleRepository.invalidateRealmRole(realmName, roleName);
     }
 
     public void addClientRoleRealmComposites(
@@ -148,6 +150,8 @@ public class RoleCompositeRepository {
                 realmComposites,
                 () -> loadClientRole(realmName, roleClientId, roleName)
         );
+
+        roleRepository.invalidateClientRole(realmName, roleClientId, roleName);
     }
 
     public void addRealmRoleClientComposites(
@@ -168,6 +172,8 @@ public class RoleCompositeRepository {
                     String.format("Error adding composite roles to realm role '%s': %s", roleName, e.getMessage()), e
             );
         }
+
+        roleRepository.invalidateRealmRole(realmName, roleName);
     }
 
     public void addClientRoleClientComposites(
@@ -189,6 +195,8 @@ public class RoleCompositeRepository {
                     String.format("Error adding composite roles to client role '%s': %s", roleName, e.getMessage()), e
             );
         }
+
+        roleRepository.invalidateClientRole(realmName, roleClientId, roleName);
     }
 
     public void removeRealmRoleRealmComposites(
@@ -201,6 +209,8 @@ public class RoleCompositeRepository {
                 realmComposites,
                 () -> loadRealmRole(realmName, roleName)
         );
+
+        roleRepository.invalidateRealmRole(realmName, roleName);
     }
 
     public void removeClientRoleRealmComposites(
@@ -214,6 +224,8 @@ public class RoleCompositeRepository {
                 realmComposites,
                 () -> loadClientRole(realmName, roleClientId, roleName)
         );
+
+        roleRepository.invalidateClientRole(realmName, roleClientId, roleName);
     }
 
     public void removeRealmRoleClientComposites(
@@ -226,6 +238,8 @@ public class RoleCompositeRepository {
                 clientCompositesToRemove,
                 () -> loadRealmRole(realmName, roleName)
         );
+
+        roleRepository.invalidateRealmRole(realmName, roleName);
     }
 
     public void removeRealmRoleClientComposites(
@@ -240,6 +254,8 @@ public class RoleCompositeRepository {
                 clientRoleNames,
                 () -> loadRealmRole(realmName, roleName)
         );
+
+        roleRepository.invalidateRealmRole(realmName, roleName);
     }
 
     public void removeClientRoleClientComposites(
@@ -253,6 +269,8 @@ public class RoleCompositeRepository {
                 clientCompositesToRemove,
                 () -> loadClientRole(realmName, roleClientId, roleName)
         );
+
+        roleRepository.invalidateClientRole(realmName, roleClientId, roleName);
     }
 
     public void removeClientRoleClientComposites(
@@ -268,6 +286,8 @@ public class RoleCompositeRepository {
                 clientRoleNames,
                 () -> loadClientRole(realmName, roleClientId, roleName)
         );
+
+        roleRepository.invalidateClientRole(realmName, roleClientId, roleName);
     }
 
     private void addRealmComposites(
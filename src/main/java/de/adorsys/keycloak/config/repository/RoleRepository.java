@@ -24,7 +24,6 @@ import de.adorsys.keycloak.config.exception.ImportProcessingException;
 import de.adorsys.keycloak.config.exception.KeycloakRepositoryException;
 import de.adorsys.keycloak.config.provider.KeycloakProvider;
 import de.adorsys.keycloak.config.resource.ManagementPermissions;
-import de.adorsys.keycloak.config.util.PaginationUtil;
 import org.keycloak.admin.client.resource.*;
 import org.keycloak.representations.idm.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -34,6 +33,7 @@ import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import jakarta.ws.rs.NotFoundException;
 
@@ -44,20 +44,28 @@ public class RoleRepository {
     private final ClientRepository clientRepository;
     private final UserRepository userRepository;
     private final KeycloakProvider keycloakProvider;
+    private final RealmSnapshotRepository realmSnapshotRepository;
 
     @Autowired
     public RoleRepository(
             RealmRepository realmRepository,
             ClientRepository clientRepository,
             UserRepository userRepository,
-            KeycloakProvider keycloakProvider) {
+            KeycloakProvider keycloakProvider,
+            RealmSnapshotRepository realmSnapshotRepository) {
         this.realmRepository = realmRepository;
         this.clientRepository = clientRepository;
         this.userRepository = userRepository;
         this.keycloakProvider = keycloakProvider;
+        this.realmSnapshotRepository = realmSnapshotRepository;
     }
 
     public Optional<RoleRepresentation> searchRealmRole(String realmName, String name) {
+        return realmSnapshotRepository.find(realmName, RealmSnapshot::getRealmRoles, name,
+                () -> realmSnapshotRepository.lookup(realmName, RealmSnapshot::getWrittenRealmRoles, name, () -> findRealmRole(realmName, name)));
+    }
+
+    private Optional<RoleRepresentation> findRealmRole(String realmName, String name) {
         Optional<RoleRepresentation> maybeRole;
 
         RolesResource rolesResource = realmRepository.getResource(realmName).roles();
@@ -75,6 +83,8 @@ public class RoleRepository {
     public void createRealmRole(String realmName, RoleRepresentation role) {
         RolesResource rolesResource = realmRepository.getResource(realmName).roles();
         rolesResource.create(role);
+
+        invalidateRealmRole(realmName, role.getName());
     }
 
     public void updateRealmRole(String realmName, RoleRepresentation roleToUpdate) {
@@ -83,12 +93,26 @@ public class RoleRepository {
                 .get(roleToUpdate.getName());
 
         roleResource.update(roleToUpdate);
+
+        invalidateRealmRole(realmName, roleToUpdate.getName());
     }
 
     public void deleteRealmRole(String realmName, RoleRepresentation roleToUpdate) {
         realmRepository.getResource(realmName)
                 .roles()
                 .deleteRole(roleToUpdate.getName());
+
+        invalidateRealmRole(realmName, roleToUpdate.getName());
+    }
+
+    void invalidateRealmRole(String realmName, String roleName) {
+        realmSnapshotRepository.invalidate(realmName, RealmSnapshot::getRealmRoles, realmRoles -> realmRoles.invalidateKey(roleName));
+        realmSnapshotRepository.invalidateLookup(realmName, RealmSnapshot::getWrittenRealmRoles, realmRoles -> realmRoles.invalidateKey(roleName));
+    }
+
+    void invalidateClientRole(String realmName, String clientId, String roleName) {
+        realmSnapshotRepository.invalidateLookup(realmName, RealmSnapshot::getClientRoles,
+                clientRoles -> clientRoles.invalidateKey(List.of(clientId, roleName)));
     }
 
     public RoleRepresentation getRealmRole(String realmName, String roleName) {
@@ -99,6 +123,13 @@ public class RoleRepository {
     }
 
     public List<RoleRepresentation> getRealmRoles(String realmName) {
+        Optional<List<RoleRepresentation>> snapshotRealmRoles = realmSnapshotRepository.get(realmName)
+                .flatMap(snapshot -> snapshot.getRealmRoles().findAll())
+                .map(Stream::toList);
+        if (snapshotRealmRoles.isPresent()) {
+            return snapshotRealmRoles.get();
+        }
+
         return realmRepository.getResource(realmName)
                 .roles().list();
     }
@@ -109,7 +140,7 @@ public class RoleRepository {
                 .toList();
     }
 
-    public final RoleRepresentation getClientRole(String realmName, String clientId, String roleName) {
+    public RoleRepresentation getClientRole(String realmName, String clientId, String roleName) {
         ClientRepresentation client = clientRepository.getByClientId(realmName, clientId);
         RealmResource realmResource = realmRepository.getResource(realmName);
 
@@ -126,8 +157,7 @@ public class RoleRepository {
 
     public Map<String, List<RoleRepresentation>> getClientRoles(String realmName) {
         var clientsResource = realmRepository.getResource(realmName).clients();
-        return PaginationUtil
-                .findAll((first, max) -> clientsResource.findAll(null, null, null, first, max))
+        return clientRepository.getAll(realmName)
                 .collect(Collectors.toMap(
                         ClientRepresentation::getClientId,
                         client -> clientsResource.get(client.getId()).roles().list()
@@ -135,24 +165,31 @@ public class RoleRepository {
     }
 
     public List<RoleRepresentation> getClientRolesByName(String realmName, String clientId, List<String> roleNames) {
-        ClientResource clientResource = clientRepository.getResourceByClientId(realmName, clientId);
-
         List<RoleRepresentation> roles = new ArrayList<>();
 
         for (String roleName : roleNames) {
-            try {
-                roles.add(clientResource.roles().get(roleName).toRepresentation());
-            } catch (NotFoundException e) {
-                throw new KeycloakRepositoryException(
-                        "Cannot find client role '%s' for client '%s' within realm '%s'",
-                        roleName, clientId, realmName
-                );
-            }
+            RoleRepresentation role = realmSnapshotRepository
+                    .lookup(realmName, RealmSnapshot::getClientRoles, List.of(clientId, roleName),
+                            () -> findClientRole(realmName, clientId, roleName))
+                    .orElseThrow(() -> new KeycloakRepositoryException(
+                            "Cannot find client role '%s' for client '%s' within realm '%s'",
+                            roleName, clientId, realmName
+                    ));
+
+            roles.add(role);
         }
 
         return roles;
     }
 
+    private Optional<RoleRepresentation> findClientRole(String realmName, String clientId, String roleName) {
+        try {
+            return Optional.of(loadClientRole(realmName, clientId, roleName).toRepresentation());
+        } catch (NotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
     public void createClientRole(String realmName, String clientId, RoleRepresentation role) {
         RolesResource rolesResource = clientRepository.getResourceByClientId(realmName, clientId).roles();
         rolesResource.create(role);
@@ -164,6 +201,8 @@ public class RoleRepository {
     public void updateClientRole(String realmName, String clientId, RoleRepresentation role) {
         RoleResource roleResource = loadClientRole(realmName, clientId, role.getName());
         roleResource.update(role);
+
+        invalidateClientRole(realmName, clientId, role.getName());
     }
 
     public void deleteClientRole(String realmName, String clientId, RoleRepresentation role) {
@@ -174,22 +213,20 @@ public class RoleRepository {
                 .get(client.getId())
                 .roles()
                 .deleteRole(role.getName());
+
+        invalidateClientRole(realmName, clientId, role.getName());
     }
 
     public List<RoleRepresentation> searchRealmRoles(String realmName, List<String> roleNames) {
         List<RoleRepresentation> roles = new ArrayList<>();
-        RealmResource realmResource = realmRepository.getResource(realmName);
 
         for (String roleName : roleNames) {
-            try {
-                RoleRepresentation role = realmResource.roles().get(roleName).toRepresentation();
-
-                roles.add(role);
-            } catch (NotFoundException e) {
-                throw new ImportProcessingException(
-                        String.format("Could not find role '%s' in realm '%s'!", roleName, realmName)
-                );
-            }
+            RoleRepresentation role = searchRealmRole(realmName, roleName)
+                    .orElseThrow(() -> new ImportProcessingException(
+                            String.format("Could not find role '%s' in realm '%s'!", roleName, realmName)
+                    ));
+
+            roles.add(role);
         }
 
         return roles;
@@ -272,14 +309,14 @@ public class RoleRepository {
         return roles.stream().map(RoleRepresentation::getName).toList();
     }
 
-    final RoleResource loadRealmRole(String realmName, String roleName) {
+    RoleResource loadRealmRole(String realmName, String roleName) {
         RealmResource realmResource = realmRepository.getResource(realmName);
         return realmResource
                 .roles()
                 .get(roleName);
     }
 
-    final RoleResource loadClientRole(String realmName, String roleClientId, String roleName) {
+    RoleResource loadClientRole(String realmName, String roleClientId, String roleName) {
         return clientRepository.getResourceByClientId(realmName, roleClientId)
                 .roles()
                 .get(roleName);
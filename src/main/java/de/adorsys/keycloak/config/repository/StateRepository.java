@@ -32,6 +32,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 import static de.adorsys.keycloak.config.util.JsonUtil.fromJson;
 import static de.adorsys.keycloak.config.util.JsonUtil.toJson;
@@ -42,12 +44,14 @@ public class StateRepository {
     private static final int MAX_ATTRIBUTE_LENGTH = 250;
 
     private final RealmRepository realmRepository;
+    private final RealmWriteBuffer realmWriteBuffer;
     private final ImportConfigProperties importConfigProperties;
 
-    private Map<String, String> customAttributes;
+    private final Map<String, Map<String, String>> customAttributes = new ConcurrentHashMap<>();
 
-    public StateRepository(RealmRepository realmRepository, ImportConfigProperties importConfigProperties) {
+    public StateRepository(RealmRepository realmRepository, RealmWriteBuffer realmWriteBuffer, ImportConfigProperties importConfigProperties) {
         this.realmRepository = realmRepository;
+        this.realmWriteBuffer = realmWriteBuffer;
         this.importConfigProperties = importConfigProperties;
     }
 
@@ -67,7 +71,7 @@ public class StateRepository {
     }
 
     public void loadCustomAttributes(String realmName) {
-        customAttributes = retrieveCustomAttributes(realmName);
+        customAttributes.put(realmName, retrieveCustomAttributes(realmName));
     }
 
     /**
@@ -80,6 +84,7 @@ public class StateRepository {
     public void loadCustomAttributes(RealmRepresentation realmForUpdating) {
         loadCustomAttributes(realmForUpdating.getRealm());
 
+        Map<String, String> realmCustomAttributes = customAttributes.get(realmForUpdating.getRealm());
         Map<String, String> attributes = realmForUpdating.getAttributes();
 
         if (attributes == null) {
@@ -91,9 +96,9 @@ public class StateRepository {
         attributes.entrySet()
                 .stream()
                 .filter(e -> !isStateAttribute(e))
-                .forEach(e -> customAttributes.put(e.getKey(), e.getValue()));
+                .forEach(e -> realmCustomAttributes.put(e.getKey(), e.getValue()));
 
-        customAttributes.entrySet()
+        realmCustomAttributes.entrySet()
                 .stream()
                 .filter(this::isStateAttribute)
                 .forEach(e -> attributes.put(e.getKey(), e.getValue()));
@@ -103,17 +108,18 @@ public class StateRepository {
         return e.getKey().startsWith(ImportConfigProperties.REALM_STATE_ATTRIBUTE_COMMON_PREFIX);
     }
 
-    public List<String> getState(String entity) {
+    public List<String> getState(String realmName, String entity) {
+        Map<String, String> realmCustomAttributes = customAttributes.get(realmName);
         List<String> stateValues = new ArrayList<>();
 
-        long attributeCount = customAttributes
+        long attributeCount = realmCustomAttributes
                 .entrySet()
                 .stream()
-                .filter(attribute -> attribute.getKey().matches(String.format("^%s-\\d+$", getCustomAttributeKey(entity))))
+                .filter(attribute -> attribute.getKey().matches(String.format("^%s-\\d+$", Pattern.quote(getCustomAttributeKey(entity)))))
                 .count();
 
         for (int index = 0; index < attributeCount; index++) {
-            stateValues.add(customAttributes.get(getCustomAttributeKey(entity) + "-" + index));
+            stateValues.add(realmCustomAttributes.get(getCustomAttributeKey(entity) + "-" + index));
         }
 
         if (stateValues.isEmpty()) {
@@ -134,11 +140,9 @@ public class StateRepository {
     }
 
     public void update(RealmImport realmImport) {
-        RealmRepresentation existingRealm = realmRepository.get(realmImport.getRealm());
-        Map<String, String> realmAttributes = existingRealm.getAttributes();
-        realmAttributes.putAll(customAttributes);
+        Map<String, String> realmCustomAttributes = Map.copyOf(customAttributes.get(realmImport.getRealm()));
 
-        realmRepository.update(existingRealm);
+        realmWriteBuffer.update(realmImport.getRealm(), existingRealm -> existingRealm.getAttributes().putAll(realmCustomAttributes));
     }
 
     private String getCustomAttributeKey(String entity) {
@@ -154,7 +158,9 @@ public class StateRepository {
         return existingRealm.getAttributes();
     }
 
-    public void setState(String entity, List<String> values) {
+    public void setState(String realmName, String entity, List<String> values) {
+        Map<String, String> realmCustomAttributes = customAttributes.get(realmName);
+
         String valuesAsString = toJson(values);
 
         if (this.importConfigProperties.getRemoteState().getEncryptionKey() != null) {
@@ -167,13 +173,13 @@ public class StateRepository {
 
         List<String> valueList = splitEqually(valuesAsString);
 
-        customAttributes.entrySet()
+        realmCustomAttributes.entrySet()
                 .removeIf(attribute -> attribute.getKey().startsWith(getCustomAttributeKey(entity) + "-"));
 
         // split value into multiple attributes to avoid max length limit
         int index = 0;
         for (String value : valueList) {
-            customAttributes.put(getCustomAttributeKey(entity) + "-" + index, value);
+            realmCustomAttributes.put(getCustomAttributeKey(entity) + "-" + index, value);
             index++;
         }
     }
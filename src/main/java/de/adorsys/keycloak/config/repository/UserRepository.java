@@ -20,34 +20,60 @@
 
 package de.adorsys.keycloak.config.repository;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import de.adorsys.keycloak.config.exception.KeycloakRepositoryException;
+import de.adorsys.keycloak.config.util.CloneUtil;
 import org.keycloak.admin.client.CreatedResponseUtil;
 import org.keycloak.admin.client.resource.RealmResource;
 import org.keycloak.admin.client.resource.UserResource;
 import org.keycloak.admin.client.resource.UsersResource;
 import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.PartialImportRepresentation;
 import org.keycloak.representations.idm.UserRepresentation;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Response;
 
 @Service
 @ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
 public class UserRepository {
+    private static final String SERVICE_ACCOUNT_USER_PREFIX = "service-account-";
 
     private final RealmRepository realmRepository;
+    private final RealmSnapshotRepository realmSnapshotRepository;
 
     @Autowired
-    public UserRepository(RealmRepository realmRepository) {
+    public UserRepository(RealmRepository realmRepository, RealmSnapshotRepository realmSnapshotRepository) {
         this.realmRepository = realmRepository;
+        this.realmSnapshotRepository = realmSnapshotRepository;
+    }
+
+    /**
+     * Serves the user lookups of the current import of the given realm from an index of all users.
+     */
+    public void indexUsers(String realmName) {
+        realmSnapshotRepository.indexUsers(realmName);
     }
 
     public Optional<UserRepresentation> search(String realmName, String username) {
+        Optional<RealmSnapshot> snapshot = getUsersIndexedSnapshot(realmName);
+        if (snapshot.isEmpty()) {
+            return findCreatedUser(realmName, username).or(() -> searchByUsername(realmName, username));
+        }
+
+        return snapshot.get().getUsersByUsername()
+                .find(RealmSnapshot.userKey(username), () -> searchByUsername(realmName, username))
+                .map(user -> withServiceAccountClientId(realmName, user));
+    }
+
+    private Optional<UserRepresentation> searchByUsername(String realmName, String username) {
         UsersResource usersResource = realmRepository.getResource(realmName).users();
         List<UserRepresentation> foundUsers = usersResource.search(username, true);
 
@@ -69,25 +95,70 @@ public class UserRepository {
     }
 
     public Optional<UserRepresentation> searchByAttributes(String realmName, String email, String firstname, String lastname) {
+        Optional<RealmSnapshot> snapshot = getUsersIndexedSnapshot(realmName);
+        if (snapshot.isEmpty()) {
+            return findByAttributes(realmName, email, firstname, lastname);
+        }
+
+        return snapshot.get().getUsersByEmail()
+                .find(RealmSnapshot.userKey(email), () -> findByAttributes(realmName, email, firstname, lastname))
+                .filter(user -> matchesAttributes(user, email, firstname, lastname));
+    }
+
+    private Optional<UserRepresentation> findByAttributes(String realmName, String email, String firstname, String lastname) {
         UsersResource usersResource = realmRepository.getResource(realmName).users();
         List<UserRepresentation> foundUsers = usersResource.search("", firstname, lastname, email,
                 null, null, null, 0, 100, null, null);
 
         for (UserRepresentation user : foundUsers) {
-            if (email.equalsIgnoreCase(user.getEmail()) && firstname.equalsIgnoreCase(user.getFirstName())
-                    && lastname.equalsIgnoreCase(user.getLastName())) {
+            if (matchesAttributes(user, email, firstname, lastname)) {
                 return Optional.of(user);
             }
         }
         return Optional.empty();
     }
 
-    final UserResource getResource(String realmName, String username) {
+    private static boolean matchesAttributes(UserRepresentation user, String email, String firstname, String lastname) {
+        return email.equalsIgnoreCase(user.getEmail()) && firstname.equalsIgnoreCase(user.getFirstName())
+                && lastname.equalsIgnoreCase(user.getLastName());
+    }
+
+    private Optional<RealmSnapshot> getUsersIndexedSnapshot(String realmName) {
+        return realmSnapshotRepository.get(realmName).filter(RealmSnapshot::isUsersIndexed);
+    }
+
+    /**
+     * The user list does not contain the client of service account users, only service account users need another request.
+     */
+    private UserRepresentation withServiceAccountClientId(String realmName, UserRepresentation user) {
+        if (user.getServiceAccountClientId() == null && user.getUsername().startsWith(SERVICE_ACCOUNT_USER_PREFIX)) {
+            UserRepresentation userRepresentation = realmRepository.getResource(realmName).users().get(user.getId()).toRepresentation();
+            user.setServiceAccountClientId(userRepresentation.getServiceAccountClientId());
+        }
+
+        return user;
+    }
+
+    private Optional<UserRepresentation> findCreatedUser(String realmName, String username) {
+        return realmSnapshotRepository.get(realmName)
+                .flatMap(snapshot -> snapshot.getCreatedUsers().find(RealmSnapshot.userKey(username), Optional::empty));
+    }
+
+    private void putIndexedUser(String realmName, UserRepresentation user) {
+        getUsersIndexedSnapshot(realmName).ifPresent(snapshot -> {
+            UserRepresentation indexedUser = CloneUtil.deepClone(user, "credentials", "realmRoles", "clientRoles", "groups");
+            indexedUser.setUsername(RealmSnapshot.userKey(user.getUsername()));
+            snapshot.getUsersByUsername().put(indexedUser);
+            snapshot.getUsersByEmail().put(indexedUser);
+        });
+    }
+
+    UserResource getResource(String realmName, String username) {
         UserRepresentation user = get(realmName, username);
         return realmRepository.getResource(realmName).users().get(user.getId());
     }
 
-    final UserResource getResource(String realmName, String username, String email, String firstname, String lastname) {
+    UserResource getResource(String realmName, String username, String email, String firstname, String lastname) {
         UserRepresentation user = get(realmName, username, email, firstname, lastname);
         return realmRepository.getResource(realmName).users().get(user.getId());
     }
@@ -111,18 +182,81 @@ public class UserRepository {
         );
     }
 
-    public void create(String realmName, UserRepresentation user) {
+    /**
+     * Creates the user, following lookups of the user during this import use the id from the create response.
+     *
+     * @return the id of the created user
+     */
+    public String create(String realmName, UserRepresentation user) {
         RealmResource realmResource = realmRepository.getResource(realmName);
         UsersResource usersResource = realmResource.users();
 
         try (Response response = usersResource.create(user)) {
-            CreatedResponseUtil.getCreatedId(response);
+            String userId = CreatedResponseUtil.getCreatedId(response);
+
+            // keep the index complete, otherwise each following lookup of the user falls back to a search
+            UserRepresentation createdUser = CloneUtil.deepClone(user, "credentials", "realmRoles", "clientRoles", "groups");
+            createdUser.setId(userId);
+            putIndexedUser(realmName, createdUser);
+            realmSnapshotRepository.get(realmName)
+                    .ifPresent(snapshot -> snapshot.getCreatedUsers().put(RealmSnapshot.userKey(user.getUsername()), createdUser));
+
+            return userId;
+        }
+    }
+
+    /**
+     * Creates the users with a single partial import, users which already exist are skipped.
+     *
+     * @return the usernames of the skipped users
+     */
+    public List<String> partialImport(String realmName, List<UserRepresentation> users) {
+        PartialImportRepresentation partialImport = new PartialImportRepresentation();
+        partialImport.setUsers(users);
+        partialImport.setIfResourceExists(PartialImportRepresentation.Policy.SKIP.name());
+
+        // the ids of the created users are unknown, look them up again if needed
+        getUsersIndexedSnapshot(realmName).ifPresent(snapshot -> users.forEach(user -> {
+            snapshot.getUsersByUsername().invalidateKey(RealmSnapshot.userKey(user.getUsername()));
+            if (user.getEmail() != null) {
+                snapshot.getUsersByEmail().invalidateKey(RealmSnapshot.userKey(user.getEmail()));
+            }
+        }));
+
+        JsonNode results;
+        try (Response response = realmRepository.getResource(realmName).partialImport(partialImport)) {
+            if (response.getStatusInfo().getFamily() != Response.Status.Family.SUCCESSFUL) {
+                // read the error before the response is closed, it can not be read from the exception afterwards
+                String errorBody = response.hasEntity() ? response.readEntity(String.class).trim() : "";
+                throw new WebApplicationException(
+                        String.format("HTTP %d %s %s", response.getStatus(), response.getStatusInfo().getReasonPhrase(), errorBody).trim(),
+                        response.getStatus()
+                );
+            }
+
+            // read as tree, the result classes are not part of the admin client
+            results = response.readEntity(JsonNode.class);
+        }
+
+        List<String> skippedUsers = new ArrayList<>();
+        for (JsonNode result : results.path("results")) {
+            if ("USER".equals(result.path("resourceType").asText()) && "SKIPPED".equals(result.path("action").asText())) {
+                skippedUsers.add(result.path("resourceName").asText());
+            }
         }
+
+        return skippedUsers;
     }
 
     public void updateUser(String realmName, UserRepresentation user) {
         UserResource userResource = getResource(realmName, user.getUsername(), user.getEmail(), user.getFirstName(), user.getLastName());
         userResource.update(user);
+
+        realmSnapshotRepository.invalidateLookup(realmName, RealmSnapshot::getCreatedUsers,
+                createdUsers -> createdUsers.invalidateKey(RealmSnapshot.userKey(user.getUsername())));
+        if (user.getId() != null) {
+            putIndexedUser(realmName, user);
+        }
     }
 
     public List<GroupRepresentation> getGroups(String realmName, UserRepresentation user) {
@@ -103,7 +103,7 @@ public class AuthenticationFlowsImportService {
     }
 
     private void setupFlowsInRealm(RealmImport realmImport) {
-        RealmRepresentation realm = realmRepository.get(realmImport.getRealm());
+        RealmRepresentation realm = realmRepository.fetch(realmImport.getRealm());
 
         realm.setBrowserFlow(realmImport.getBrowserFlow());
         realm.setDirectGrantFlow(realmImport.getDirectGrantFlow());
@@ -385,7 +385,8 @@ public class ClientAuthorizationImportService {
                 .stream().map(ResourceRepresentation::getName)
                 .toList();
 
-        List<ResourceRepresentation> managedClientAuthorizationResources = getManagedClientResources(client, existingClientAuthorizationResources);
+        List<ResourceRepresentation> managedClientAuthorizationResources =
+                getManagedClientResources(realmName, client, existingClientAuthorizationResources);
 
         managedClientAuthorizationResources.stream()
                 .filter(resource -> !authorizationResourceNamesToImport.contains(resource.getName()))
@@ -594,10 +595,14 @@ public class ClientAuthorizationImportService {
         }
     }
 
-    private List<ResourceRepresentation> getManagedClientResources(ClientRepresentation client, List<ResourceRepresentation> existingResources) {
+    private List<ResourceRepresentation> getManagedClientResources(
+            String realmName,
+            ClientRepresentation client,
+            List<ResourceRepresentation> existingResources
+    ) {
         if (importConfigProperties.getRemoteState().isEnabled()) {
             String clientKey = Objects.equals(client.getId(), client.getClientId()) ? "name:" + client.getName() : client.getClientId();
-            List<String> clientResourcesInState = stateService.getClientAuthorizationResources(clientKey);
+            List<String> clientResourcesInState = stateService.getClientAuthorizationResources(realmName, clientKey);
             // ignore all object there are not in state
             return existingResources.stream()
                     .filter(resource -> clientResourcesInState.contains(resource.getName()) || Objects.equals(resource.getName(), "Default Resource"))
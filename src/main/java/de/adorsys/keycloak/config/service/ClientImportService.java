@@ -26,6 +26,9 @@ import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.repository.AuthenticationFlowRepository;
 import de.adorsys.keycloak.config.repository.ClientRepository;
 import de.adorsys.keycloak.config.repository.ClientScopeRepository;
+import de.adorsys.keycloak.config.service.parallel.ParallelImportExecutor;
+import de.adorsys.keycloak.config.service.report.ImportReportService;
+import de.adorsys.keycloak.config.service.report.ImportReportService.EntityOutcome;
 import de.adorsys.keycloak.config.service.state.StateService;
 import de.adorsys.keycloak.config.util.ClientScopeUtil;
 import de.adorsys.keycloak.config.util.CloneUtil;
@@ -43,7 +46,6 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -70,6 +72,8 @@ public class ClientImportService {
     private final AuthenticationFlowRepository authenticationFlowRepository;
     private final ImportConfigProperties importConfigProperties;
     private final StateService stateService;
+    private final ImportReportService importReportService;
+    private final ParallelImportExecutor parallelImportExecutor;
 
     @Autowired
     public ClientImportService(
@@ -77,12 +81,16 @@ public class ClientImportService {
             ClientScopeRepository clientScopeRepository,
             AuthenticationFlowRepository authenticationFlowRepository,
             ImportConfigProperties importConfigProperties,
-            StateService stateService) {
+            StateService stateService,
+            ImportReportService importReportService,
+            ParallelImportExecutor parallelImportExecutor) {
         this.clientRepository = clientRepository;
         this.clientScopeRepository = clientScopeRepository;
         this.authenticationFlowRepository = authenticationFlowRepository;
         this.importConfigProperties = importConfigProperties;
         this.stateService = stateService;
+        this.importReportService = importReportService;
+        this.parallelImportExecutor = parallelImportExecutor;
     }
 
     public void doImport(RealmImport realmImport) {
@@ -110,12 +118,7 @@ public class ClientImportService {
             RealmImport realmImport,
             List<ClientRepresentation> clients
     ) {
-        Consumer<ClientRepresentation> loop = client -> createOrUpdateClient(realmImport, client);
-        if (importConfigProperties.isParallel()) {
-            clients.parallelStream().forEach(loop);
-        } else {
-            clients.forEach(loop);
-        }
+        parallelImportExecutor.forEach(clients, ClientRepresentation::getClientId, client -> createOrUpdateClient(realmImport, client));
     }
 
     private void deleteClientsMissingInImport(
@@ -127,7 +130,7 @@ public class ClientImportService {
                 .collect(Collectors.toSet());
 
         boolean isState = importConfigProperties.getRemoteState().isEnabled();
-        final List<String> stateClients = stateService.getClients();
+        final List<String> stateClients = stateService.getClients(realmImport.getRealm());
 
         Stream<ClientRepresentation> candidateClients;
         if (isState) {
@@ -147,6 +150,7 @@ public class ClientImportService {
                 )
                 .forEach(clientToRemove -> {
                     logger.debug("Remove client '{}' in realm '{}'", clientToRemove.getClientId(), realmImport.getRealm());
+                    importReportService.countEntity(realmImport.getRealm(), "client", EntityOutcome.DELETED);
                     clientRepository.remove(realmImport.getRealm(), clientToRemove);
                 });
         logger.debug("Done deleting missing in import clients");
@@ -176,6 +180,10 @@ public class ClientImportService {
             }
         }
 
+        // recorded for every client which declares a secret, as each import stores the secrets it applied
+        boolean secretUnchanged = client.getSecret() != null
+                && stateService.recordClientSecret(realmName, StateService.getClientKey(client), client.getSecret());
+
         Optional<ClientRepresentation> existingClient;
         if (client.getClientId() != null) {
             existingClient = clientRepository.searchByClientId(realmName, client.getClientId());
@@ -185,10 +193,17 @@ public class ClientImportService {
             throw new ImportProcessingException("clients require client id or name.");
         }
 
-        if (existingClient.isPresent()) {
-            updateClientIfNeeded(realmName, client, existingClient.get());
+        // recorded for every client, a client which was deleted in Keycloak since the last import is created again
+        boolean unchanged = stateService.isUnchanged(realmName, "clients", StateService.getClientKey(client), client);
+
+        if (existingClient.isPresent() && unchanged) {
+            logger.debug("Skip client '{}' in realm '{}', unchanged since last import", getClientIdentifier(client), realmName);
+            importReportService.countEntity(realmName, "client", EntityOutcome.UNCHANGED);
+        } else if (existingClient.isPresent()) {
+            updateClientIfNeeded(realmName, client, existingClient.get(), secretUnchanged);
         } else {
             logger.debug("Create client '{}' in realm '{}'", getClientIdentifier(client), realmName);
+            importReportService.countEntity(realmName, "client", EntityOutcome.CREATED);
             createClient(realmName, client);
         }
     }
@@ -196,18 +211,21 @@ public class ClientImportService {
     private void updateClientIfNeeded(
             String realmName,
             ClientRepresentation clientToUpdate,
-            ClientRepresentation existingClient
+            ClientRepresentation existingClient,
+            boolean secretUnchanged
     ) {
         String[] propertiesToIgnore = ArrayUtils.addAll(propertiesWithDependencies, "id", "access");
         ClientRepresentation mergedClient = CloneUtil.patch(existingClient, clientToUpdate, propertiesToIgnore);
         String clientIdentifier = getClientIdentifier(clientToUpdate);
 
-        if (!isClientEqual(realmName, existingClient, mergedClient)) {
+        if (!isClientEqual(realmName, existingClient, mergedClient, secretUnchanged)) {
             logger.debug("Update client '{}' in realm '{}'", clientIdentifier, realmName);
+            importReportService.countEntity(realmName, "client", EntityOutcome.UPDATED);
             updateClient(realmName, mergedClient);
             updateClientDefaultOptionalClientScopes(realmName, mergedClient, existingClient);
         } else {
             logger.debug("No need to update client '{}' in realm '{}'", clientIdentifier, realmName);
+            importReportService.countEntity(realmName, "client", EntityOutcome.UNCHANGED);
         }
     }
 
@@ -218,10 +236,15 @@ public class ClientImportService {
         clientRepository.create(realmName, clientToImport);
     }
 
+    /**
+     * Compares the clients, the secret of the client is only read from Keycloak if the imported secret was not applied by the
+     * last successful import.
+     */
     private boolean isClientEqual(
             String realmName,
             ClientRepresentation existingClient,
-            ClientRepresentation patchedClient
+            ClientRepresentation patchedClient,
+            boolean secretUnchanged
     ) {
         String[] propertiesToIgnore = ArrayUtils.addAll(
                 propertiesWithDependencies, "id", "secret", "access", "protocolMappers", "defaultClientScopes", "optionalClientScopes"
@@ -246,7 +269,7 @@ public class ClientImportService {
         }
 
         String patchedClientSecret = patchedClient.getSecret();
-        if (patchedClientSecret == null) {
+        if (patchedClientSecret == null || secretUnchanged) {
             return true;
         }
 
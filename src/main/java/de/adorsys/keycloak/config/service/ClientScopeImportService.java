@@ -25,6 +25,9 @@ import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.repository.ClientScopeRepository;
 import de.adorsys.keycloak.config.repository.RealmRepository;
+import de.adorsys.keycloak.config.service.parallel.ParallelImportExecutor;
+import de.adorsys.keycloak.config.service.report.ImportReportService;
+import de.adorsys.keycloak.config.service.report.ImportReportService.EntityOutcome;
 import de.adorsys.keycloak.config.util.CloneUtil;
 import de.adorsys.keycloak.config.util.ProtocolMapperUtil;
 import org.keycloak.representations.idm.ClientScopeRepresentation;
@@ -38,7 +41,6 @@ import org.springframework.stereotype.Service;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.function.Consumer;
 
 @Service
 @ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
@@ -48,14 +50,20 @@ public class ClientScopeImportService {
     private final ClientScopeRepository clientScopeRepository;
     private final ImportConfigProperties importConfigProperties;
     private final RealmRepository realmRepository;
+    private final ImportReportService importReportService;
+    private final ParallelImportExecutor parallelImportExecutor;
 
     public ClientScopeImportService(
             ClientScopeRepository clientScopeRepository,
             ImportConfigProperties importConfigProperties,
-            RealmRepository realmRepository) {
+            RealmRepository realmRepository,
+            ImportReportService importReportService,
+            ParallelImportExecutor parallelImportExecutor) {
         this.clientScopeRepository = clientScopeRepository;
         this.importConfigProperties = importConfigProperties;
         this.realmRepository = realmRepository;
+        this.importReportService = importReportService;
+        this.parallelImportExecutor = parallelImportExecutor;
     }
 
     public void doImport(RealmImport realmImport) {
@@ -170,12 +178,11 @@ public class ClientScopeImportService {
             String realmName,
             List<ClientScopeRepresentation> clientScopes
     ) {
-        Consumer<ClientScopeRepresentation> loop = clientScope -> createOrUpdateClientScope(realmName, clientScope);
-        if (importConfigProperties.isParallel()) {
-            clientScopes.parallelStream().forEach(loop);
-        } else {
-            clientScopes.forEach(loop);
-        }
+        parallelImportExecutor.forEach(
+                clientScopes,
+                ClientScopeRepresentation::getName,
+                clientScope -> createOrUpdateClientScope(realmName, clientScope)
+        );
     }
 
     private void deleteClientScopesMissingInImport(
@@ -190,6 +197,7 @@ public class ClientScopeImportService {
                             && !hasClientScopeWithName(clientScopes, existingClientScope.getName())
             ) {
                 logger.debug("Delete clientScope '{}' in realm '{}'", existingClientScope.getName(), realmName);
+                importReportService.countEntity(realmName, "client-scope", EntityOutcome.DELETED);
                 clientScopeRepository.delete(realmName, existingClientScope.getId());
             }
         }
@@ -224,6 +232,7 @@ public class ClientScopeImportService {
             updateClientScopeIfNecessary(realmName, clientScope);
         } else {
             logger.debug("Create clientScope '{}' in realm '{}'", clientScopeName, realmName);
+            importReportService.countEntity(realmName, "client-scope", EntityOutcome.CREATED);
             createClientScope(realmName, clientScope);
         }
     }
@@ -250,8 +259,10 @@ public class ClientScopeImportService {
 
         if (isClientScopeEqual(existingClientScope, patchedClientScope)) {
             logger.debug("No need to update clientScope '{}' in realm '{}'", clientScopeName, realmName);
+            importReportService.countEntity(realmName, "client-scope", EntityOutcome.UNCHANGED);
         } else {
             logger.debug("Update clientScope '{}' in realm '{}'", clientScopeName, realmName);
+            importReportService.countEntity(realmName, "client-scope", EntityOutcome.UPDATED);
             updateClientScope(realmName, patchedClientScope);
         }
     }
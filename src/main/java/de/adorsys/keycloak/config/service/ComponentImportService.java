@@ -25,6 +25,8 @@ import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues;
 import de.adorsys.keycloak.config.repository.ComponentRepository;
 import de.adorsys.keycloak.config.repository.RealmRepository;
+import de.adorsys.keycloak.config.service.report.ImportReportService;
+import de.adorsys.keycloak.config.service.report.ImportReportService.EntityOutcome;
 import de.adorsys.keycloak.config.service.state.StateService;
 import de.adorsys.keycloak.config.util.CloneUtil;
 import org.keycloak.admin.client.resource.RealmResource;
@@ -48,17 +50,20 @@ public class ComponentImportService {
     private final ImportConfigProperties importConfigProperties;
     private final StateService stateService;
     private final RealmRepository realmRepository;
+    private final ImportReportService importReportService;
 
     @Autowired
     public ComponentImportService(
             ComponentRepository componentRepository,
             ImportConfigProperties importConfigProperties,
             StateService stateService,
-            RealmRepository realmRepository) {
+            RealmRepository realmRepository,
+            ImportReportService importReportService) {
         this.componentRepository = componentRepository;
         this.importConfigProperties = importConfigProperties;
         this.stateService = stateService;
         this.realmRepository = realmRepository;
+        this.importReportService = importReportService;
     }
 
     public void doImport(RealmImport realmImport) {
@@ -99,6 +104,7 @@ public class ComponentImportService {
             updateComponentIfNeeded(realmName, providerType, componentToImport, existingComponent.get());
         } else {
             logger.debug("Creating component: {}/{}", providerType, componentToImport.getName());
+            importReportService.countEntity(realmName, "component", EntityOutcome.CREATED);
             createComponent(realmName, providerType, componentToImport);
         }
     }
@@ -145,6 +151,7 @@ public class ComponentImportService {
             updateComponent(realmName, providerType, componentToImport, patchedComponent);
         } else {
             logger.debug("No need to update component: {}/{}", existingComponent.getProviderType(), componentToImport.getName());
+            importReportService.countEntity(realmName, "component", EntityOutcome.UNCHANGED);
         }
     }
 
@@ -187,6 +194,7 @@ public class ComponentImportService {
             ComponentRepresentation patchedComponent
     ) {
         logger.debug("Updating component: {}/{}", patchedComponent.getProviderType(), componentToImport.getName());
+        importReportService.countEntity(realmName, "component", EntityOutcome.UPDATED);
 
         if (patchedComponent.getProviderType() == null) {
             patchedComponent.setProviderType(providerType);
@@ -252,6 +260,7 @@ public class ComponentImportService {
         for (ComponentRepresentation existingComponent : existingComponents) {
             if (checkIfComponentMissingImport(existingComponent, componentsToImport)) {
                 logger.debug("Delete component: {}/{}", existingComponent.getProviderType(), existingComponent.getName());
+                importReportService.countEntity(realmName, "component", EntityOutcome.DELETED);
                 componentRepository.delete(realmName, existingComponent);
             }
         }
@@ -268,7 +277,7 @@ public class ComponentImportService {
         String parentName = parentComponent != null ? parentComponent.getName() : null;
 
         // ignore all object there are not in state
-        return stateService.getComponents(existingComponents, parentName);
+        return stateService.getComponents(realmName, existingComponents, parentName);
     }
 
     private boolean checkIfComponentMissingImport(
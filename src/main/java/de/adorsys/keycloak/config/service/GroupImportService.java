@@ -20,12 +20,14 @@
 
 package de.adorsys.keycloak.config.service;
 
-import de.adorsys.keycloak.config.ThreadHelper;
-import de.adorsys.keycloak.config.exception.ImportProcessingException;
 import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues;
 import de.adorsys.keycloak.config.repository.GroupRepository;
+import de.adorsys.keycloak.config.service.parallel.ParallelImportExecutor;
+import de.adorsys.keycloak.config.service.report.ImportReportService;
+import de.adorsys.keycloak.config.service.report.ImportReportService.EntityOutcome;
+import de.adorsys.keycloak.config.service.state.StateService;
 import de.adorsys.keycloak.config.util.CloneUtil;
 import org.keycloak.representations.idm.GroupRepresentation;
 import org.slf4j.Logger;
@@ -35,27 +37,31 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
 import java.util.*;
-import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 @ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
 public class GroupImportService {
     private static final Logger logger = LoggerFactory.getLogger(GroupImportService.class);
-    private static final int LOAD_CREATED_GROUP_MAX_RETRIES = 5;
 
     private final GroupRepository groupRepository;
     private final ImportConfigProperties importConfigProperties;
-    private final ThreadHelper threadHelper;
+    private final StateService stateService;
+    private final ImportReportService importReportService;
+    private final ParallelImportExecutor parallelImportExecutor;
 
     public GroupImportService(
             GroupRepository groupRepository,
             ImportConfigProperties importConfigProperties,
-            ThreadHelper threadHelper
+            StateService stateService,
+            ImportReportService importReportService,
+            ParallelImportExecutor parallelImportExecutor
     ) {
         this.groupRepository = groupRepository;
         this.importConfigProperties = importConfigProperties;
-        this.threadHelper = threadHelper;
+        this.stateService = stateService;
+        this.importReportService = importReportService;
+        this.parallelImportExecutor = parallelImportExecutor;
     }
 
     public void importGroups(RealmImport realmImport) {
@@ -67,6 +73,7 @@ public class GroupImportService {
         }
 
         logger.debug("Fetching all groups");
+        groupRepository.indexGroupTree(realmName);
         List<GroupRepresentation> existingGroups = groupRepository.getAll(realmName);
         logger.debug("Done fetching all groups");
 
@@ -77,13 +84,33 @@ public class GroupImportService {
         }
     }
 
+    /**
+     * Imports the group trees level by level, each level starts after its parents were created or updated. The groups of a
+     * level are imported concurrently across all trees if {@code import.parallel} is enabled.
+     */
     public void createOrUpdateGroups(List<GroupRepresentation> groups, String realmName) {
-        Consumer<GroupRepresentation> loop = group -> createOrUpdateRealmGroup(realmName, group);
-        if (importConfigProperties.isParallel()) {
-            groups.parallelStream().forEach(loop);
-        } else {
-            groups.forEach(loop);
+        List<GroupTask> topLevelGroups = groups.stream()
+                .map(group -> new GroupTask(null, group, false))
+                .toList();
+
+        parallelImportExecutor.forEachWave(topLevelGroups, GroupTask::getName, task -> importGroup(realmName, task));
+    }
+
+    /**
+     * Imports a single group without its subgroups.
+     *
+     * @return the subgroups to import in the next level
+     */
+    private List<GroupTask> importGroup(String realmName, GroupTask task) {
+        if (task.getParentGroupId() == null) {
+            return createOrUpdateRealmGroup(realmName, task.getGroup());
         }
+
+        if (task.isExisting()) {
+            return updateSubGroupIfNecessary(realmName, task.getParentGroupId(), task.getGroup());
+        }
+
+        return addSubGroup(realmName, task.getParentGroupId(), task.getGroup());
     }
 
     private void deleteGroupsMissingInImport(
@@ -103,6 +130,7 @@ public class GroupImportService {
             }
 
             logger.debug("Delete group '{}' in realm '{}'", existingGroup.getName(), realmName);
+            importReportService.countEntity(realmName, "group", EntityOutcome.DELETED);
             groupRepository.deleteGroup(realmName, existingGroup.getId());
         }
     }
@@ -131,48 +159,33 @@ public class GroupImportService {
         }
     }
 
-    private void createOrUpdateRealmGroup(String realmName, GroupRepresentation group) {
+    private List<GroupTask> createOrUpdateRealmGroup(String realmName, GroupRepresentation group) {
         String groupName = group.getName();
 
         GroupRepresentation existingGroup = groupRepository.getGroupByName(realmName, group.getName());
 
-        if (existingGroup != null) {
-            updateGroupIfNecessary(realmName, group, existingGroup);
-        } else {
-            logger.debug("Create group '{}' in realm '{}'", groupName, realmName);
-            createGroup(realmName, group);
-        }
-    }
-
-    private void createGroup(String realmName, GroupRepresentation group) {
-        groupRepository.createGroup(realmName, group);
+        // recorded for every group, a group which was deleted in Keycloak since the last import is created again
+        boolean unchanged = stateService.isUnchanged(realmName, "groups", groupName, group);
 
-        GroupRepresentation existingGroup = loadCreatedGroupUsingRamp(realmName, group.getName(), 0);
-        GroupRepresentation patchedGroup = CloneUtil.patch(existingGroup, group);
-
-        addRealmRoles(realmName, patchedGroup);
-        addClientRoles(realmName, patchedGroup);
-        addSubGroups(realmName, patchedGroup);
-    }
-
-    /**
-     * This method retries the GET call to the created group as it fails in parallel mode pretty often.
-     * It uses a ramp from 0 milliseconds increasing to a square of the retryCount times a fixed number (500 milliseconds) as delay.
-     */
-    private GroupRepresentation loadCreatedGroupUsingRamp(String realmName, String groupName, int retryCount) {
-        if (retryCount >= LOAD_CREATED_GROUP_MAX_RETRIES) {
-            throw new ImportProcessingException("Cannot find created group '%s' in realm '%s'", groupName, realmName);
+        if (existingGroup != null && unchanged) {
+            logger.debug("Skip group '{}' in realm '{}', unchanged since last import", groupName, realmName);
+            importReportService.countEntity(realmName, "group", EntityOutcome.UNCHANGED);
+            return Collections.emptyList();
         }
 
-        GroupRepresentation existingGroup = groupRepository.getGroupByName(realmName, groupName);
-
         if (existingGroup != null) {
-            return existingGroup;
+            return updateGroupIfNecessary(realmName, group, existingGroup);
         }
 
-        threadHelper.sleep(500L * retryCount * retryCount);
+        logger.debug("Create group '{}' in realm '{}'", groupName, realmName);
+        importReportService.countEntity(realmName, "group", EntityOutcome.CREATED);
+        return createGroup(realmName, group);
+    }
+
+    private List<GroupTask> createGroup(String realmName, GroupRepresentation group) {
+        String groupId = groupRepository.createGroup(realmName, group);
 
-        return loadCreatedGroupUsingRamp(realmName, groupName, retryCount + 1);
+        return addGroupRelations(realmName, groupId, group);
     }
 
     private void addRealmRoles(String realmName, GroupRepresentation existingGroup) {
@@ -197,38 +210,43 @@ public class GroupImportService {
         }
     }
 
-    private void addSubGroups(String realmName, GroupRepresentation existingGroup) {
-        List<GroupRepresentation> subGroups = existingGroup.getSubGroups();
-        String groupId = existingGroup.getId();
+    private List<GroupTask> addSubGroup(String realmName, String parentGroupId, GroupRepresentation subGroup) {
+        String groupId = groupRepository.addSubGroup(realmName, parentGroupId, subGroup);
 
-        if (subGroups != null && !subGroups.isEmpty()) {
-            for (GroupRepresentation subGroup : subGroups) {
-                addSubGroup(realmName, groupId, subGroup);
-            }
-        }
+        return addGroupRelations(realmName, groupId, subGroup);
     }
 
-    public void addSubGroup(String realmName, String parentGroupId, GroupRepresentation subGroup) {
-        groupRepository.addSubGroup(realmName, parentGroupId, subGroup);
+    /**
+     * Adds the role mappings of a created group, using the id from the create response.
+     *
+     * @return the subgroups to create in the next level
+     */
+    private List<GroupTask> addGroupRelations(String realmName, String groupId, GroupRepresentation group) {
+        GroupRepresentation createdGroup = CloneUtil.deepClone(group);
+        createdGroup.setId(groupId);
 
-        GroupRepresentation existingSubGroup = groupRepository.getSubGroupByName(realmName, parentGroupId, subGroup.getName());
-        GroupRepresentation patchedGroup = CloneUtil.patch(existingSubGroup, subGroup);
+        addRealmRoles(realmName, createdGroup);
+        addClientRoles(realmName, createdGroup);
 
-        addRealmRoles(realmName, patchedGroup);
-        addClientRoles(realmName, patchedGroup);
-        addSubGroups(realmName, patchedGroup);
+        List<GroupRepresentation> subGroups = Optional.ofNullable(createdGroup.getSubGroups()).orElseGet(Collections::emptyList);
+        return subGroups.stream()
+                .map(subGroup -> new GroupTask(groupId, subGroup, false))
+                .toList();
     }
 
-    private void updateGroupIfNecessary(String realmName, GroupRepresentation group, GroupRepresentation existingGroup) {
+    private List<GroupTask> updateGroupIfNecessary(String realmName, GroupRepresentation group, GroupRepresentation existingGroup) {
         GroupRepresentation patchedGroup = CloneUtil.patch(existingGroup, group);
         String groupName = existingGroup.getName();
 
         if (isGroupEqual(existingGroup, patchedGroup)) {
             logger.debug("No need to update group '{}' in realm '{}'", groupName, realmName);
-        } else {
-            logger.debug("Update group '{}' in realm '{}'", groupName, realmName);
-            updateGroup(realmName, group, patchedGroup);
+            importReportService.countEntity(realmName, "group", EntityOutcome.UNCHANGED);
+            return Collections.emptyList();
         }
+
+        logger.debug("Update group '{}' in realm '{}'", groupName, realmName);
+        importReportService.countEntity(realmName, "group", EntityOutcome.UPDATED);
+        return updateGroup(realmName, group, patchedGroup);
     }
 
     private boolean isGroupEqual(GroupRepresentation existingGroup, GroupRepresentation patchedGroup) {
@@ -270,7 +288,7 @@ public class GroupImportService {
         return true;
     }
 
-    private void updateGroup(String realmName, GroupRepresentation group, GroupRepresentation patchedGroup) {
+    private List<GroupTask> updateGroup(String realmName, GroupRepresentation group, GroupRepresentation patchedGroup) {
         groupRepository.update(realmName, patchedGroup);
 
         String groupId = patchedGroup.getId();
@@ -286,9 +304,11 @@ public class GroupImportService {
         }
 
         List<GroupRepresentation> subGroups = group.getSubGroups();
-        if (subGroups != null) {
-            updateSubGroups(realmName, patchedGroup.getId(), subGroups);
+        if (subGroups == null) {
+            return Collections.emptyList();
         }
+
+        return updateSubGroups(realmName, patchedGroup.getId(), subGroups);
     }
 
     private void updateGroupRealmRoles(String realmName, String groupId, List<String> realmRoles) {
@@ -417,7 +437,12 @@ public class GroupImportService {
         return clientRoleNamesToAdd;
     }
 
-    private void updateSubGroups(String realmName, String parentGroupId, List<GroupRepresentation> subGroups) {
+    /**
+     * Deletes the subgroups missing in the import.
+     *
+     * @return the subgroups to create or update in the next level
+     */
+    private List<GroupTask> updateSubGroups(String realmName, String parentGroupId, List<GroupRepresentation> subGroups) {
         List<GroupRepresentation> existingSubGroups = groupRepository.getSubGroups(realmName, parentGroupId);
 
         deleteAllSubGroupsMissingInImport(realmName, subGroups, existingSubGroups);
@@ -426,13 +451,9 @@ public class GroupImportService {
                 .map(GroupRepresentation::getName)
                 .collect(Collectors.toSet());
 
-        for (GroupRepresentation subGroup : subGroups) {
-            if (existingSubGroupNames.contains(subGroup.getName())) {
-                updateSubGroupIfNecessary(realmName, parentGroupId, subGroup);
-            } else {
-                addSubGroup(realmName, parentGroupId, subGroup);
-            }
-        }
+        return subGroups.stream()
+                .map(subGroup -> new GroupTask(parentGroupId, subGroup, existingSubGroupNames.contains(subGroup.getName())))
+                .toList();
     }
 
     private void deleteAllSubGroupsMissingInImport(
@@ -451,7 +472,7 @@ public class GroupImportService {
         }
     }
 
-    public void updateSubGroupIfNecessary(String realmName, String parentGroupId, GroupRepresentation subGroup) {
+    private List<GroupTask> updateSubGroupIfNecessary(String realmName, String parentGroupId, GroupRepresentation subGroup) {
         String subGroupName = subGroup.getName();
         GroupRepresentation existingSubGroup = groupRepository.getSubGroupByName(realmName, parentGroupId, subGroupName);
 
@@ -459,10 +480,45 @@ public class GroupImportService {
 
         if (CloneUtil.deepEquals(existingSubGroup, patchedSubGroup)) {
             logger.debug("No need to update subGroup '{}' in group with id '{}' in realm '{}'", subGroupName, parentGroupId, realmName);
-        } else {
-            logger.debug("Update subGroup '{}' in group with id '{}' in realm '{}'", subGroupName, parentGroupId, realmName);
+            return Collections.emptyList();
+        }
+
+        logger.debug("Update subGroup '{}' in group with id '{}' in realm '{}'", subGroupName, parentGroupId, realmName);
+
+        return updateGroup(realmName, subGroup, patchedSubGroup);
+    }
+
+    /**
+     * A group to import below the given parent, or a top level group if the parent id is null.
+     */
+    private static final class GroupTask {
+        private final String parentGroupId;
+        private final GroupRepresentation group;
+        private final boolean existing;
+
+        private GroupTask(String parentGroupId, GroupRepresentation group, boolean existing) {
+            this.parentGroupId = parentGroupId;
+            this.group = group;
+            this.existing = existing;
+        }
+
+        private String getParentGroupId() {
+            return parentGroupId;
+        }
+
+        private GroupRepresentation getGroup() {
+            return group;
+        }
+
+        private String getName() {
+            return group.getName();
+        }
 
-            updateGroup(realmName, subGroup, patchedSubGroup);
+        /**
+         * Whether the subgroup exists below its parent, unknown for top level groups.
+         */
+        private boolean isExisting() {
+            return existing;
         }
     }
 }
@@ -24,6 +24,8 @@ import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.repository.IdentityProviderMapperRepository;
 import de.adorsys.keycloak.config.repository.IdentityProviderRepository;
+import de.adorsys.keycloak.config.service.report.ImportReportService;
+import de.adorsys.keycloak.config.service.report.ImportReportService.EntityOutcome;
 import de.adorsys.keycloak.config.util.CloneUtil;
 import org.keycloak.representations.idm.IdentityProviderMapperRepresentation;
 import org.keycloak.representations.idm.IdentityProviderRepresentation;
@@ -47,16 +49,19 @@ public class IdentityProviderImportService {
     private final IdentityProviderRepository identityProviderRepository;
     private final IdentityProviderMapperRepository identityProviderMapperRepository;
     private final ImportConfigProperties importConfigProperties;
+    private final ImportReportService importReportService;
 
     @Autowired
     public IdentityProviderImportService(
             IdentityProviderRepository identityProviderRepository,
             IdentityProviderMapperRepository identityProviderMapperRepository,
-            ImportConfigProperties importConfigProperties
+            ImportConfigProperties importConfigProperties,
+            ImportReportService importReportService
     ) {
         this.identityProviderRepository = identityProviderRepository;
         this.identityProviderMapperRepository = identityProviderMapperRepository;
         this.importConfigProperties = importConfigProperties;
+        this.importReportService = importReportService;
     }
 
     public void doImport(RealmImport realmImport) {
@@ -88,6 +93,7 @@ public class IdentityProviderImportService {
         for (IdentityProviderRepresentation identityProvider : existingIdentityProviders) {
             if (!hasIdentityProviderWithAlias(identityProviders, identityProvider.getAlias())) {
                 logger.debug("Delete identityProvider '{}' in realm '{}'", identityProvider.getAlias(), realmName);
+                importReportService.countEntity(realmName, "identity-provider", EntityOutcome.DELETED);
                 identityProviderRepository.delete(realmName, identityProvider);
             }
         }
@@ -104,6 +110,7 @@ public class IdentityProviderImportService {
             updateIdentityProviderIfNecessary(realmName, identityProvider);
         } else {
             logger.debug("Create identityProvider '{}' in realm '{}'", identityProviderName, realmName);
+            importReportService.countEntity(realmName, "identity-provider", EntityOutcome.CREATED);
             identityProviderRepository.create(realmName, identityProvider);
         }
     }
@@ -141,8 +148,10 @@ public class IdentityProviderImportService {
 
         if (isIdentityProviderEqual(existingIdentityProvider, patchedIdentityProvider)) {
             logger.debug("No need to update identityProvider '{}' in realm '{}'", identityProviderAlias, realmName);
+            importReportService.countEntity(realmName, "identity-provider", EntityOutcome.UNCHANGED);
         } else {
             logger.debug("Update identityProvider '{}' in realm '{}'", identityProviderAlias, realmName);
+            importReportService.countEntity(realmName, "identity-provider", EntityOutcome.UPDATED);
             identityProviderRepository.update(realmName, patchedIdentityProvider);
         }
     }
@@ -186,6 +195,7 @@ public class IdentityProviderImportService {
             updateIdentityProviderMapperIfNecessary(realmName, identityProviderMapper);
         } else {
             logger.debug("Create identityProviderMapper '{}' in realm '{}'", identityProviderMapperName, realmName);
+            importReportService.countEntity(realmName, "identity-provider-mapper", EntityOutcome.CREATED);
             identityProviderMapperRepository.create(realmName, identityProviderMapper);
         }
     }
@@ -205,10 +215,12 @@ public class IdentityProviderImportService {
             logger.debug("No need to update identityProviderMapper '{}' for identityProvider '{}' in realm '{}'",
                     identityProviderMapperName, identityProviderAlias, realmName
             );
+            importReportService.countEntity(realmName, "identity-provider-mapper", EntityOutcome.UNCHANGED);
         } else {
             logger.debug("Update identityProviderMapper '{}' for identityProvider '{}' in realm '{}'",
                     identityProviderMapperName, identityProviderAlias, realmName
             );
+            importReportService.countEntity(realmName, "identity-provider-mapper", EntityOutcome.UPDATED);
             identityProviderMapperRepository.update(realmName, patchedIdentityProviderMapper);
         }
     }
@@ -229,6 +241,7 @@ public class IdentityProviderImportService {
         for (IdentityProviderMapperRepresentation identityProviderMapper : existingIdentityProviderMappers) {
             if (!hasIdentityProviderMapperWithNameForAlias(identityProviderMappers, identityProviderMapper)) {
                 logger.debug("Delete identityProviderMapper '{}' in realm '{}'", identityProviderMapper.getName(), realmName);
+                importReportService.countEntity(realmName, "identity-provider-mapper", EntityOutcome.DELETED);
                 identityProviderMapperRepository.delete(realmName, identityProviderMapper);
             }
         }
@@ -97,7 +97,7 @@ public class MessageBundleImportService {
             Map<String, Map<String, String>> importedMessageBundles) {
         if (importConfigProperties.getRemoteState().isEnabled()) {
             // unknown message bundles are ignored always
-            List<String> messageBundlesInState = stateService.getMessageBundles();
+            List<String> messageBundlesInState = stateService.getMessageBundles(realmName);
 
             Set<String> importMessageBundles = importedMessageBundles.keySet();
 
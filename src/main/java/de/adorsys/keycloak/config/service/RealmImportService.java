@@ -24,7 +24,13 @@ import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.provider.KeycloakProvider;
 import de.adorsys.keycloak.config.repository.RealmRepository;
+import de.adorsys.keycloak.config.repository.RealmSnapshotRepository;
+import de.adorsys.keycloak.config.repository.RealmWriteBuffer;
 import de.adorsys.keycloak.config.service.checksum.ChecksumService;
+import de.adorsys.keycloak.config.service.journal.ImportJournal;
+import de.adorsys.keycloak.config.service.journal.ImportJournalService;
+import de.adorsys.keycloak.config.service.stage.ImportStage;
+import de.adorsys.keycloak.config.service.stage.ImportStageExecutor;
 import de.adorsys.keycloak.config.service.state.StateService;
 import de.adorsys.keycloak.config.util.CloneUtil;
 import org.keycloak.representations.idm.RealmRepresentation;
@@ -34,6 +40,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
 public class RealmImportService {
@@ -66,6 +74,8 @@ public class RealmImportService {
     private static final Logger logger = LoggerFactory.getLogger(RealmImportService.class);
     private final KeycloakProvider keycloakProvider;
     private final RealmRepository realmRepository;
+    private final RealmSnapshotRepository realmSnapshotRepository;
+    private final RealmWriteBuffer realmWriteBuffer;
     private final OtpPolicyImportService otpPolicyImportService;
 
     private final UserImportService userImportService;
@@ -92,6 +102,8 @@ public class RealmImportService {
 
     private final ChecksumService checksumService;
     private final StateService stateService;
+    private final ImportStageExecutor importStageExecutor;
+    private final ImportJournalService importJournalService;
 
     @Autowired
     public RealmImportService(
@@ -117,7 +129,11 @@ public class RealmImportService {
             MessageBundleImportService messageBundleImportService,
             OtpPolicyImportService otpPolicyImportService,
             ChecksumService checksumService,
-            StateService stateService) {
+            StateService stateService,
+            ImportStageExecutor importStageExecutor,
+            RealmSnapshotRepository realmSnapshotRepository,
+            RealmWriteBuffer realmWriteBuffer,
+            ImportJournalService importJournalService) {
         this.importProperties = importProperties;
         this.keycloakProvider = keycloakProvider;
         this.realmRepository = realmRepository;
@@ -141,15 +157,28 @@ public class RealmImportService {
         this.otpPolicyImportService = otpPolicyImportService;
         this.checksumService = checksumService;
         this.stateService = stateService;
+        this.importStageExecutor = importStageExecutor;
+        this.realmSnapshotRepository = realmSnapshotRepository;
+        this.realmWriteBuffer = realmWriteBuffer;
+        this.importJournalService = importJournalService;
     }
 
     public void doImport(RealmImport realmImport) {
-        boolean realmExists = realmRepository.exists(realmImport.getRealm());
+        realmRepository.startMemoizing(realmImport.getRealm());
+        realmSnapshotRepository.open(realmImport.getRealm());
+        realmWriteBuffer.open(realmImport.getRealm());
+        try {
+            boolean realmExists = realmRepository.exists(realmImport.getRealm());
 
-        if (realmExists) {
-            updateRealmIfNecessary(realmImport);
-        } else {
-            createRealm(realmImport);
+            if (realmExists) {
+                updateRealmIfNecessary(realmImport);
+            } else {
+                createRealm(realmImport);
+            }
+        } finally {
+            realmWriteBuffer.close(realmImport.getRealm());
+            realmSnapshotRepository.close(realmImport.getRealm());
+            realmRepository.stopMemoizing(realmImport.getRealm());
         }
     }
 
@@ -184,7 +213,7 @@ public class RealmImportService {
         keycloakProvider.refreshToken();
 
         stateService.loadState(realmImport);
-        configureRealm(realmImport, realm);
+        configureRealm(realmImport, realm, false);
     }
 
     private void updateRealm(RealmImport realmImport) {
@@ -199,11 +228,11 @@ public class RealmImportService {
         }
 
         otpPolicyImportService.updateOtpPolicy(realmImport.getRealm(), realm);
-        stateService.loadState(realm);
+        stateService.loadState(realmImport, realm);
 
         realmRepository.update(realm);
 
-        configureRealm(realmImport, realm);
+        configureRealm(realmImport, realm, true);
     }
 
     private void importOtpPolicy(RealmImport realmImport) {
@@ -216,31 +245,76 @@ public class RealmImportService {
         }
     }
 
-    private void configureRealm(RealmImport realmImport, RealmRepresentation existingRealm) {
-        importOtpPolicy(realmImport);
-        clientScopeImportService.doImport(realmImport);
-        clientScopeImportService.updateDefaultClientScopes(realmImport, existingRealm);
-        clientPoliciesImportService.doImport(realmImport);
-        clientImportService.doImport(realmImport);
-        roleImportService.doImport(realmImport);
-        groupImportService.importGroups(realmImport);
-        defaultGroupsImportService.doImport(realmImport);
-        componentImportService.doImport(realmImport);
-        userProfileImportService.doImport(realmImport);
-        userImportService.doImport(realmImport);
-        requiredActionsImportService.doImport(realmImport);
-        authenticationFlowsImportService.doImport(realmImport);
-        authenticatorConfigImportService.doImport(realmImport);
-        clientImportService.doImportDependencies(realmImport);
-        clientScopeImportService.updateDefaultClientScopes(realmImport, existingRealm);
-        identityProviderImportService.doImport(realmImport);
-        clientAuthorizationImportService.doImport(realmImport);
-        scopeMappingImportService.doImport(realmImport);
-        clientScopeMappingImportService.doImport(realmImport);
-        clientScopeImportService.doRemoveOrphan(realmImport);
-        messageBundleImportService.doImport(realmImport);
+    private void configureRealm(RealmImport realmImport, RealmRepresentation existingRealm, boolean resumable) {
+        ImportJournal journal = importJournalService.open(realmImport, resumable);
+        importStageExecutor.execute(
+                realmImport, getImportStages(existingRealm), checksumService.getUnchangedSections(realmImport), journal
+        );
 
         stateService.doImport(realmImport);
         checksumService.doImport(realmImport);
+
+        // OTP policy, remote state and checksum are written with a single realm update
+        realmWriteBuffer.flush(realmImport.getRealm());
+        importJournalService.close(journal);
+    }
+
+    /**
+     * The stages are declared in the order they run sequentially. Each stage lists the stages it depends on,
+     * stages which write the realm representation itself are chained to avoid concurrent realm updates.
+     * The sections of a stage are the top-level properties of the import it reads.
+     */
+    private List<ImportStage> getImportStages(RealmRepresentation existingRealm) {
+        return List.of(
+                ImportStage.of("otpPolicy", this::importOtpPolicy),
+                ImportStage.of("clientScopes", clientScopeImportService::doImport, "otpPolicy")
+                        .withSections("clientScopes"),
+                ImportStage.of("defaultClientScopes",
+                        realmImport -> clientScopeImportService.updateDefaultClientScopes(realmImport, existingRealm), "clientScopes")
+                        .withSections("defaultDefaultClientScopes", "defaultOptionalClientScopes"),
+                ImportStage.of("clientPolicies", clientPoliciesImportService::doImport, "clientScopes")
+                        .withSections("clientProfiles", "clientPolicies"),
+                ImportStage.of("clients", clientImportService::doImport, "clientScopes", "clientPolicies")
+                        .withSections("clients"),
+                ImportStage.of("roles", roleImportService::doImport, "clients")
+                        .withSections("roles"),
+                ImportStage.of("groups", groupImportService::importGroups, "roles")
+                        .withSections("groups"),
+                ImportStage.of("defaultGroups", defaultGroupsImportService::doImport, "groups")
+                        .withSections("defaultGroups"),
+                ImportStage.of("components", componentImportService::doImport, "groups")
+                        .withSections("components"),
+                ImportStage.of("userProfile", userProfileImportService::doImport, "otpPolicy")
+                        .withSections("userProfile"),
+                ImportStage.of("users", userImportService::doImport, "components", "userProfile")
+                        .withSections("users", "userFiles"),
+                ImportStage.of("requiredActions", requiredActionsImportService::doImport, "otpPolicy")
+                        .withSections("requiredActions"),
+                ImportStage.of("authenticationFlows", authenticationFlowsImportService::doImport, "defaultClientScopes")
+                        .withSections("authenticationFlows", "browserFlow", "directGrantFlow", "clientAuthenticationFlow",
+                                "dockerAuthenticationFlow", "registrationFlow", "resetCredentialsFlow", "firstBrokerLoginFlow"),
+                ImportStage.of("authenticatorConfig", authenticatorConfigImportService::doImport, "authenticationFlows")
+                        .withSections("authenticatorConfig"),
+                ImportStage.of("clientDependencies", clientImportService::doImportDependencies, "clients", "authenticationFlows")
+                        .withSections("clients"),
+                ImportStage.of("defaultClientScopesAfterClients",
+                        realmImport -> clientScopeImportService.updateDefaultClientScopes(realmImport, existingRealm),
+                        "defaultClientScopes", "clients")
+                        .withSections("defaultDefaultClientScopes", "defaultOptionalClientScopes"),
+                ImportStage.of("identityProviders", identityProviderImportService::doImport, "authenticationFlows", "groups")
+                        .withSections("identityProviders", "identityProviderMappers"),
+                ImportStage.of("clientAuthorization", clientAuthorizationImportService::doImport,
+                        "clients", "users", "identityProviders")
+                        .withSections("clients"),
+                ImportStage.of("scopeMappings", scopeMappingImportService::doImport, "roles")
+                        .withSections("scopeMappings"),
+                ImportStage.of("clientScopeMappings", clientScopeMappingImportService::doImport, "roles")
+                        .withSections("clientScopeMappings"),
+                ImportStage.of("clientScopeOrphans", clientScopeImportService::doRemoveOrphan,
+                        "defaultClientScopesAfterClients", "scopeMappings", "clientScopeMappings")
+                        .withSections("clientScopes"),
+                ImportStage.of("messageBundles", messageBundleImportService::doImport, "otpPolicy")
+                        .withSections("messageBundles")
+        );
     }
 }
@@ -24,6 +24,9 @@ import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.repository.ClientRepository;
 import de.adorsys.keycloak.config.repository.RoleRepository;
+import de.adorsys.keycloak.config.service.parallel.ParallelImportExecutor;
+import de.adorsys.keycloak.config.service.report.ImportReportService;
+import de.adorsys.keycloak.config.service.report.ImportReportService.EntityOutcome;
 import de.adorsys.keycloak.config.service.rolecomposites.client.ClientRoleCompositeImportService;
 import de.adorsys.keycloak.config.service.rolecomposites.realm.RealmRoleCompositeImportService;
 import de.adorsys.keycloak.config.service.state.StateService;
@@ -41,7 +44,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues.FULL;
@@ -61,6 +63,8 @@ public class RoleImportService {
     private final ClientRepository clientRepository;
     private final ImportConfigProperties importConfigProperties;
     private final StateService stateService;
+    private final ImportReportService importReportService;
+    private final ParallelImportExecutor parallelImportExecutor;
 
     @Autowired
     public RoleImportService(
@@ -68,13 +72,17 @@ public class RoleImportService {
             ClientRoleCompositeImportService clientRoleCompositeImportService,
             RoleRepository roleRepository,
             ClientRepository clientRepository,
-            ImportConfigProperties importConfigProperties, StateService stateService) {
+            ImportConfigProperties importConfigProperties, StateService stateService,
+            ImportReportService importReportService,
+            ParallelImportExecutor parallelImportExecutor) {
         this.realmRoleCompositeImport = realmRoleCompositeImportService;
         this.clientRoleCompositeImport = clientRoleCompositeImportService;
         this.roleRepository = roleRepository;
         this.clientRepository = clientRepository;
         this.importConfigProperties = importConfigProperties;
         this.stateService = stateService;
+        this.importReportService = importReportService;
+        this.parallelImportExecutor = parallelImportExecutor;
     }
 
     public void doImport(RealmImport realmImport) {
@@ -142,12 +150,11 @@ public class RoleImportService {
             List<RoleRepresentation> rolesToImport,
             List<RoleRepresentation> existingRealmRoles
     ) {
-        Consumer<RoleRepresentation> loop = role -> createOrUpdateRealmRole(realmName, role, existingRealmRoles);
-        if (importConfigProperties.isParallel()) {
-            rolesToImport.parallelStream().forEach(loop);
-        } else {
-            rolesToImport.forEach(loop);
-        }
+        parallelImportExecutor.forEach(
+                rolesToImport,
+                RoleRepresentation::getName,
+                role -> createOrUpdateRealmRole(realmName, role, existingRealmRoles)
+        );
     }
 
     private void createOrUpdateRealmRole(
@@ -170,6 +177,7 @@ public class RoleImportService {
 
     private void createRole(String realmName, RoleRepresentation roleToImport, String roleName) {
         logger.debug("Create realm-level role '{}' in realm '{}'", roleName, realmName);
+        importReportService.countEntity(realmName, "realm-role", EntityOutcome.CREATED);
         RoleRepresentation roleToImportWithoutDependencies = CloneUtil.deepClone(
                 roleToImport, RoleRepresentation.class, propertiesWithDependencies
         );
@@ -209,6 +217,7 @@ public class RoleImportService {
 
     private void createClientRole(String realmName, String clientId, RoleRepresentation roleToImport, String roleName) {
         logger.debug("Create client-level role '{}' for client '{}' in realm '{}'", roleName, clientId, realmName);
+        importReportService.countEntity(realmName, "client-role", EntityOutcome.CREATED);
         RoleRepresentation roleToImportWithoutDependencies = CloneUtil.deepClone(
                 roleToImport, RoleRepresentation.class, propertiesWithDependencies
         );
@@ -228,9 +237,11 @@ public class RoleImportService {
 
         if (!CloneUtil.deepEquals(existingRole, patchedRole)) {
             logger.debug("Update realm-level role '{}' in realm '{}'", roleName, realmName);
+            importReportService.countEntity(realmName, "realm-role", EntityOutcome.UPDATED);
             roleRepository.updateRealmRole(realmName, patchedRole);
         } else {
             logger.debug("No need to update realm-level '{}' in realm '{}'", roleName, realmName);
+            importReportService.countEntity(realmName, "realm-role", EntityOutcome.UNCHANGED);
         }
     }
 
@@ -245,8 +256,10 @@ public class RoleImportService {
 
         if (CloneUtil.deepEquals(existingRole, patchedRole)) {
             logger.debug("No need to update client-level role '{}' for client '{}' in realm '{}'", roleName, clientId, realmName);
+            importReportService.countEntity(realmName, "client-role", EntityOutcome.UNCHANGED);
         } else {
             logger.debug("Update client-level role '{}' for client '{}' in realm '{}'", roleName, clientId, realmName);
+            importReportService.countEntity(realmName, "client-role", EntityOutcome.UPDATED);
             roleRepository.updateClientRole(realmName, clientId, patchedRole);
         }
     }
@@ -257,7 +270,7 @@ public class RoleImportService {
             List<RoleRepresentation> existingRoles
     ) {
         if (importConfigProperties.getRemoteState().isEnabled()) {
-            List<String> realmRolesInState = stateService.getRealmRoles();
+            List<String> realmRolesInState = stateService.getRealmRoles(realmName);
 
             // ignore all object there are not in state
             existingRoles = existingRoles.stream()
@@ -275,6 +288,7 @@ public class RoleImportService {
             }
 
             logger.debug("Delete realm-level role '{}' in realm '{}'", existingRole.getName(), realmName);
+            importReportService.countEntity(realmName, "realm-role", EntityOutcome.DELETED);
             roleRepository.deleteRealmRole(realmName, existingRole);
         }
     }
@@ -285,7 +299,7 @@ public class RoleImportService {
             List<RoleRepresentation> importedClientRoles,
             List<RoleRepresentation> existingRoles
     ) {
-        List<RoleRepresentation> managedRoles = getManagedClientRoles(clientId, existingRoles);
+        List<RoleRepresentation> managedRoles = getManagedClientRoles(realmName, clientId, existingRoles);
 
         for (RoleRepresentation role : managedRoles) {
             boolean isImported = importedClientRoles != null 
@@ -294,14 +308,15 @@ public class RoleImportService {
             if (!(isImported || KeycloakUtil.isDefaultRole(role))) {
                 logger.debug("Delete client-level role '{}' for client '{}' in realm '{}'",
                         role.getName(), clientId, realmName);
+                importReportService.countEntity(realmName, "client-role", EntityOutcome.DELETED);
                 roleRepository.deleteClientRole(realmName, clientId, role);
             }
         }
     }
 
-    private List<RoleRepresentation> getManagedClientRoles(String client, List<RoleRepresentation> existingRoles) {
+    private List<RoleRepresentation> getManagedClientRoles(String realmName, String client, List<RoleRepresentation> existingRoles) {
         if (importConfigProperties.getRemoteState().isEnabled()) {
-            List<String> clientRolesInState = stateService.getClientRoles(client);
+            List<String> clientRolesInState = stateService.getClientRoles(realmName, client);
             // ignore all object there are not in state
             return existingRoles.stream()
                     .filter(role -> clientRolesInState.contains(role.getName()))
@@ -20,16 +20,27 @@
 
 package de.adorsys.keycloak.config.service;
 
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
 import de.adorsys.keycloak.config.exception.InvalidImportException;
 import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.model.UserFileImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportBulkUsersProperties;
+import de.adorsys.keycloak.config.provider.UserFileReader;
 import de.adorsys.keycloak.config.repository.ClientRepository;
 import de.adorsys.keycloak.config.repository.GroupRepository;
 import de.adorsys.keycloak.config.repository.RealmRepository;
 import de.adorsys.keycloak.config.repository.RoleRepository;
 import de.adorsys.keycloak.config.repository.UserRepository;
+import de.adorsys.keycloak.config.service.parallel.ParallelImportExecutor;
+import de.adorsys.keycloak.config.service.report.ImportReportService;
+import de.adorsys.keycloak.config.service.report.ImportReportService.EntityOutcome;
+import de.adorsys.keycloak.config.service.state.StateService;
 import de.adorsys.keycloak.config.util.CloneUtil;
 import de.adorsys.keycloak.config.util.KeycloakUtil;
+import de.adorsys.keycloak.config.util.ResponseUtil;
+import dev.failsafe.Failsafe;
+import dev.failsafe.RetryPolicy;
 import org.keycloak.representations.idm.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,10 +49,13 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.time.Duration;
 import java.util.*;
-import java.util.function.Consumer;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.stream.Collectors;
 
+import jakarta.ws.rs.WebApplicationException;
+
 @Service
 @ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
 public class UserImportService {
@@ -55,15 +69,23 @@ public class UserImportService {
     private final RoleRepository roleRepository;
     private final GroupRepository groupRepository;
     private final ClientRepository clientRepository;
+    private final StateService stateService;
 
     private final ImportConfigProperties importConfigProperties;
+    private final ImportReportService importReportService;
+    private final ParallelImportExecutor parallelImportExecutor;
+    private final UserFileReader userFileReader;
 
     @Autowired
     public UserImportService(
             RealmRepository realmRepository, UserRepository userRepository,
             RoleRepository roleRepository,
             GroupRepository groupRepository,
-            ClientRepository clientRepository, ImportConfigProperties importConfigProperties
+            ClientRepository clientRepository, ImportConfigProperties importConfigProperties,
+            StateService stateService,
+            ImportReportService importReportService,
+            ParallelImportExecutor parallelImportExecutor,
+            UserFileReader userFileReader
     ) {
         this.realmRepository = realmRepository;
         this.userRepository = userRepository;
@@ -71,9 +93,15 @@ public class UserImportService {
         this.groupRepository = groupRepository;
         this.clientRepository = clientRepository;
         this.importConfigProperties = importConfigProperties;
+        this.stateService = stateService;
+        this.importReportService = importReportService;
+        this.parallelImportExecutor = parallelImportExecutor;
+        this.userFileReader = userFileReader;
     }
 
     public void doImport(RealmImport realmImport) {
+        importUserFiles(realmImport);
+
         List<UserRepresentation> users = realmImport.getUsers();
 
         if (users == null) {
@@ -85,17 +113,133 @@ public class UserImportService {
             return;
         }
 
-        Consumer<UserRepresentation> loop = user -> importUser(realmImport.getRealm(), user);
-        if (importConfigProperties.isParallel()) {
-            users.parallelStream().forEach(loop);
-        } else {
-            users.forEach(loop);
+        String realmName = realmImport.getRealm();
+
+        if (users.size() > importConfigProperties.getUserIndexThreshold()) {
+            logger.debug("Index all users of realm '{}' for {} users to import", realmName, users.size());
+            userRepository.indexUsers(realmName);
+        }
+
+        importUsers(realmName, users);
+    }
+
+    /**
+     * Imports the users of the user files chunk by chunk. Chunks which are unchanged since the last import are skipped.
+     * The users of the realm are not indexed, so memory stays bounded by the chunk size.
+     */
+    private void importUserFiles(RealmImport realmImport) {
+        List<UserFileImport> userFiles = realmImport.getUserFiles();
+        if (userFiles == null) return;
+
+        String realmName = realmImport.getRealm();
+        int chunkSize = importConfigProperties.getUserFiles().getChunkSize();
+
+        for (UserFileImport userFile : userFiles) {
+            userFileReader.readChunks(realmImport, userFile, chunkSize, (users, chunkIndex) -> {
+                String chunkKey = userFile.getPath() + "#" + chunkIndex;
+
+                if (stateService.recordFingerprint(realmName, "user-files", chunkKey, users)) {
+                    logger.debug("Skip users of chunk '{}' in realm '{}', unchanged since last import", chunkKey, realmName);
+                    importReportService.countEntity(realmName, "user", EntityOutcome.UNCHANGED, users.size());
+                    return;
+                }
+
+                logger.debug("Import {} users of chunk '{}' in realm '{}'", users.size(), chunkKey, realmName);
+                importUsers(realmName, users);
+            });
         }
     }
 
+    private void importUsers(String realmName, List<UserRepresentation> users) {
+        if (!importConfigProperties.getBulkUsers().isEnabled()) {
+            parallelImportExecutor.forEach(users, UserRepresentation::getUsername, user -> importUser(realmName, user));
+            return;
+        }
+
+        Queue<UserRepresentation> newUsers = new ConcurrentLinkedQueue<>();
+        parallelImportExecutor.forEach(users, UserRepresentation::getUsername, user -> {
+            if (!new UserImport(realmName, user).importUser(true)) {
+                newUsers.add(user);
+            }
+        });
+
+        createUsersInBatches(realmName, new ArrayList<>(newUsers));
+    }
+
     private void importUser(String realmName, UserRepresentation user) {
         UserImport userImport = new UserImport(realmName, user);
-        userImport.importUser();
+        userImport.importUser(false);
+    }
+
+    /**
+     * Creates new users, including their credentials, roles and groups, with one partial import per batch.
+     * Users which were created concurrently in the meantime are skipped by Keycloak and imported one by one.
+     */
+    private void createUsersInBatches(String realmName, List<UserRepresentation> newUsers) {
+        if (newUsers.isEmpty()) return;
+
+        ImportBulkUsersProperties bulkUsers = importConfigProperties.getBulkUsers();
+        RetryPolicy<Object> retryPolicy = RetryPolicy.builder()
+                .withMaxRetries(bulkUsers.getMaxRetries())
+                .withBackoff(Duration.ofSeconds(1), Duration.ofSeconds(30))
+                .handleIf(ResponseUtil::isTransientError)
+                .onRetry(e -> logger.warn("Retry creating users in realm '{}', attempt #{} failed: {}",
+                        realmName, e.getAttemptCount(), e.getLastException().getMessage()))
+                .build();
+
+        for (int from = 0; from < newUsers.size(); from += bulkUsers.getBatchSize()) {
+            List<UserRepresentation> batch = newUsers.subList(from, Math.min(from + bulkUsers.getBatchSize(), newUsers.size()));
+            List<UserRepresentation> batchToImport = batch.stream()
+                    .map(user -> toPartialImportUser(realmName, user))
+                    .toList();
+
+            logger.debug("Create {} users in realm '{}'", batch.size(), realmName);
+            Set<String> skippedUsers = createUsers(realmName, batchToImport, retryPolicy).stream()
+                    .map(username -> username.toLowerCase(Locale.ROOT))
+                    .collect(Collectors.toSet());
+
+            for (UserRepresentation user : batch) {
+                if (skippedUsers.contains(user.getUsername().toLowerCase(Locale.ROOT))) {
+                    importUser(realmName, user);
+                } else {
+                    importReportService.countEntity(realmName, "user", EntityOutcome.CREATED);
+                }
+            }
+        }
+    }
+
+    private List<String> createUsers(String realmName, List<UserRepresentation> users, RetryPolicy<Object> retryPolicy) {
+        try {
+            return Failsafe.with(retryPolicy).get(() -> userRepository.partialImport(realmName, users));
+        } catch (WebApplicationException error) {
+            throw new ImportProcessingException(
+                    String.format("Cannot create users in realm '%s': %s", realmName, ResponseUtil.getErrorMessage(error)),
+                    error
+            );
+        }
+    }
+
+    private UserRepresentation toPartialImportUser(String realmName, UserRepresentation user) {
+        UserRepresentation userToCreate = CloneUtil.deepClone(user);
+
+        // unlike the users endpoint, the partial import does not grant the default role
+        String defaultRole = "default-roles-" + realmName.toLowerCase();
+        if (!importConfigProperties.getBehaviors().isRemoveDefaultRoleFromUser()) {
+            List<String> realmRoles = new ArrayList<>(Optional.ofNullable(userToCreate.getRealmRoles()).orElseGet(Collections::emptyList));
+            if (!realmRoles.contains(defaultRole)) {
+                realmRoles.add(defaultRole);
+            }
+            userToCreate.setRealmRoles(realmRoles);
+        }
+
+        // group paths are required, the users endpoint accepts group names as well
+        if (userToCreate.getGroups() != null) {
+            userToCreate.setGroups(userToCreate.getGroups().stream()
+                    .map(group -> group.startsWith("/") ? group : "/" + group)
+                    .toList());
+        }
+
+        return userToCreate;
     }
 
     private class UserImport {
@@ -107,7 +251,10 @@ public class UserImportService {
             this.userToImport = userToImport;
         }
 
-        public void importUser() {
+        /**
+         * @param deferCreation if a user does not exist, it is not created and false is returned
+         */
+        public boolean importUser(boolean deferCreation) {
             if (
                     // The service accounts shall not be taken into account
                     !StringUtils.hasLength(userToImport.getServiceAccountClientId())
@@ -134,16 +281,28 @@ public class UserImportService {
                         userToImport.getLastName());
             }
 
-            if (maybeUser.isPresent()) {
+            // recorded for every user, a user which was deleted in Keycloak since the last import is created again
+            boolean unchanged = stateService.isUnchanged(realmName, "users", StateService.getUserKey(userToImport), userToImport);
+
+            if (maybeUser.isPresent() && unchanged) {
+                logger.debug("Skip user '{}' in realm '{}', unchanged since last import", StateService.getUserKey(userToImport), realmName);
+                importReportService.countEntity(realmName, "user", EntityOutcome.UNCHANGED);
+                return true;
+            } else if (maybeUser.isPresent()) {
                 updateUser(maybeUser.get());
+            } else if (deferCreation) {
+                return false;
             } else {
                 logger.debug("Create user '{}' in realm '{}'", userToImport.getUsername(), realmName);
+                importReportService.countEntity(realmName, "user", EntityOutcome.CREATED);
                 userRepository.create(realmName, userToImport);
             }
 
             handleRealmRoles();
             handleClientRoles();
             handleGroups();
+
+            return true;
         }
 
         private void updateUser(UserRepresentation existingUser) {
@@ -168,9 +327,11 @@ public class UserImportService {
 
             if (!CloneUtil.deepEquals(existingUser, patchedUser, "access")) {
                 logger.debug("Update user '{}' in realm '{}'", userToImport.getUsername(), realmName);
+                importReportService.countEntity(realmName, "user", EntityOutcome.UPDATED);
                 userRepository.updateUser(realmName, patchedUser);
             } else {
                 logger.debug("No need to update user '{}' in realm '{}'", userToImport.getUsername(), realmName);
+                importReportService.countEntity(realmName, "user", EntityOutcome.UNCHANGED);
             }
         }
 
@@ -25,6 +25,7 @@ import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportBehaviorsProperties.ChecksumChangedOption;
 import de.adorsys.keycloak.config.repository.RealmRepository;
+import de.adorsys.keycloak.config.repository.RealmWriteBuffer;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.keycloak.representations.idm.RealmRepresentation;
@@ -35,31 +36,45 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.text.MessageFormat;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Predicate;
 
 @Service
 @ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
 public class ChecksumService {
     private static final Logger logger = LoggerFactory.getLogger(ChecksumService.class);
 
+    private static final String USER_FILES_SECTION = "userFiles";
+
     private final RealmRepository realmRepository;
+    private final RealmWriteBuffer realmWriteBuffer;
     private final ImportConfigProperties importConfigProperties;
 
     @Autowired
-    public ChecksumService(RealmRepository realmRepository, ImportConfigProperties importConfigProperties) {
+    public ChecksumService(RealmRepository realmRepository, RealmWriteBuffer realmWriteBuffer, ImportConfigProperties importConfigProperties) {
         this.realmRepository = realmRepository;
+        this.realmWriteBuffer = realmWriteBuffer;
         this.importConfigProperties = importConfigProperties;
     }
 
     public void doImport(RealmImport realmImport) {
-        RealmRepresentation existingRealm = realmRepository.get(realmImport.getRealm());
-        Map<String, String> customAttributes = existingRealm.getAttributes();
-
         String importChecksum = realmImport.getChecksum();
         String attributeKey = getCustomAttributeKey(realmImport);
-        customAttributes.put(attributeKey, importChecksum);
-        realmRepository.update(existingRealm);
+        boolean skipUnchangedSections = importConfigProperties.getCache().isSkipUnchangedSections();
+        String sectionAttributeKeyPrefix = getSectionAttributeKeyPrefix(realmImport);
+
+        realmWriteBuffer.update(realmImport.getRealm(), existingRealm -> {
+            Map<String, String> customAttributes = existingRealm.getAttributes();
+            customAttributes.put(attributeKey, importChecksum);
+
+            if (skipUnchangedSections) {
+                customAttributes.keySet().removeIf(key -> key.startsWith(sectionAttributeKeyPrefix));
+                realmImport.getSectionChecksums()
+                        .forEach((section, checksum) -> customAttributes.put(sectionAttributeKeyPrefix + section, checksum));
+            }
+        });
 
         logger.debug("Updated import checksum of realm '{}' to '{}', attributeKey: '{}'", realmImport.getRealm(), importChecksum, attributeKey);
     }
@@ -93,19 +108,56 @@ public class ChecksumService {
         }
     }
 
-    @SuppressWarnings("java:S4790")
-    private String getCustomAttributeKey(RealmImport realmImport) {
-        String attributeSuffix;
-        if (importConfigProperties.getBehaviors().isChecksumWithCacheKey()) {
-            attributeSuffix = importConfigProperties.getCache().getKey();
-        } else {
-            attributeSuffix = FilenameUtils.getName(realmImport.getSource()) + "_" + DigestUtils.md5Hex(realmImport.getSource());
+    /**
+     * Returns which top-level sections of the import are unchanged since the last successful import of the same source.
+     * Nothing is considered unchanged if the cache or the section checksums are disabled, or no section checksums were stored yet.
+     */
+    public Predicate<String> getUnchangedSections(RealmImport realmImport) {
+        if (!importConfigProperties.getCache().isEnabled() || !importConfigProperties.getCache().isSkipUnchangedSections()) {
+            return section -> false;
         }
 
+        String sectionAttributeKeyPrefix = getSectionAttributeKeyPrefix(realmImport);
+        Map<String, String> storedSectionChecksums = new HashMap<>();
+        realmRepository.get(realmImport.getRealm()).getAttributes().forEach((key, value) -> {
+            if (key.startsWith(sectionAttributeKeyPrefix)) {
+                storedSectionChecksums.put(key.substring(sectionAttributeKeyPrefix.length()), value);
+            }
+        });
+
+        if (storedSectionChecksums.isEmpty()) {
+            return section -> false;
+        }
+
+        // the checksum of the user files section covers the paths only, changed content is detected per chunk while importing
+        boolean hasUserFiles = realmImport.getUserFiles() != null && !realmImport.getUserFiles().isEmpty();
+
+        Map<String, String> sectionChecksums = realmImport.getSectionChecksums();
+        return section -> !(hasUserFiles && USER_FILES_SECTION.equals(section))
+                && Objects.equals(storedSectionChecksums.get(section), sectionChecksums.get(section));
+    }
+
+    private String getSectionAttributeKeyPrefix(RealmImport realmImport) {
+        return MessageFormat.format(
+                ImportConfigProperties.REALM_SECTION_CHECKSUM_ATTRIBUTE_PREFIX_KEY,
+                getCustomAttributeSuffix(realmImport)
+        );
+    }
+
+    private String getCustomAttributeKey(RealmImport realmImport) {
         return MessageFormat.format(
                 ImportConfigProperties.REALM_CHECKSUM_ATTRIBUTE_PREFIX_KEY,
-                attributeSuffix
+                getCustomAttributeSuffix(realmImport)
         );
     }
 
+    @SuppressWarnings("java:S4790")
+    private String getCustomAttributeSuffix(RealmImport realmImport) {
+        if (importConfigProperties.getBehaviors().isChecksumWithCacheKey()) {
+            return importConfigProperties.getCache().getKey();
+        }
+
+        return FilenameUtils.getName(realmImport.getSource()) + "_" + DigestUtils.md5Hex(realmImport.getSource());
+    }
+
 }
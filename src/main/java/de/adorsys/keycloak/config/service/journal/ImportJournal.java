@@ -0,0 +1,67 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.service.journal;
+
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The import stages of a realm import which are completed, one stage name per line of the journal file.
+ */
+public class ImportJournal {
+    public static final ImportJournal NONE = new ImportJournal(null, Set.of());
+
+    private final Path path;
+    private final Set<String> completedStages = ConcurrentHashMap.newKeySet();
+
+    ImportJournal(Path path, Collection<String> completedStages) {
+        this.path = path;
+        this.completedStages.addAll(completedStages);
+    }
+
+    public boolean isCompleted(String stage) {
+        return completedStages.contains(stage);
+    }
+
+    public synchronized void complete(String stage) {
+        if (path == null || !completedStages.add(stage)) return;
+
+        try {
+            Files.writeString(path, stage + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new ImportProcessingException("Unable to write import journal '" + path + "'", e);
+        }
+    }
+
+    Path getPath() {
+        return path;
+    }
+}
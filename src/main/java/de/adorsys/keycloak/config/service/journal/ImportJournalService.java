@@ -0,0 +1,112 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.service.journal;
+
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
+import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportJournalProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Records the completed import stages of each realm in a journal file, if {@code import.journal.path} is set.
+ * The journal is keyed by realm, cache key and import checksum and deleted once the realm import succeeded.
+ * With {@code import.journal.resume}, a failed import of the same input skips the stages completed before.
+ */
+@Service
+@ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
+public class ImportJournalService {
+    private static final Logger logger = LoggerFactory.getLogger(ImportJournalService.class);
+
+    private final ImportConfigProperties importConfigProperties;
+
+    @Autowired
+    public ImportJournalService(ImportConfigProperties importConfigProperties) {
+        this.importConfigProperties = importConfigProperties;
+    }
+
+    /**
+     * Opens the journal of a realm import. Unless resuming, a previous journal of the same input is discarded.
+     *
+     * @param resumable false if the realm is created, a journal would then be left from a realm which was deleted since
+     */
+    public ImportJournal open(RealmImport realmImport, boolean resumable) {
+        ImportJournalProperties journalProperties = importConfigProperties.getJournal();
+        if (!journalProperties.isEnabled()) return ImportJournal.NONE;
+
+        Path path = getJournalPath(realmImport);
+
+        try {
+            Files.createDirectories(path.getParent());
+
+            if (resumable && journalProperties.isResume() && Files.exists(path)) {
+                List<String> completedStages = Files.readAllLines(path, StandardCharsets.UTF_8).stream()
+                        .map(String::trim)
+                        .filter(stage -> !stage.isEmpty())
+                        .toList();
+
+                logger.info("Resume import of realm '{}', skipping completed stages {}", realmImport.getRealm(), completedStages);
+                return new ImportJournal(path, completedStages);
+            }
+
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new ImportProcessingException("Unable to open import journal '" + path + "'", e);
+        }
+
+        return new ImportJournal(path, List.of());
+    }
+
+    public void close(ImportJournal journal) {
+        if (journal.getPath() == null) return;
+
+        try {
+            Files.deleteIfExists(journal.getPath());
+        } catch (IOException e) {
+            throw new ImportProcessingException("Unable to delete import journal '" + journal.getPath() + "'", e);
+        }
+    }
+
+    private Path getJournalPath(RealmImport realmImport) {
+        String fileName = String.join("-",
+                sanitize(realmImport.getRealm()),
+                sanitize(importConfigProperties.getCache().getKey()),
+                realmImport.getChecksum()
+        );
+
+        return Path.of(importConfigProperties.getJournal().getPath()).toAbsolutePath().resolve(fileName + ".journal");
+    }
+
+    private static String sanitize(String value) {
+        return value.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
@@ -0,0 +1,186 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.service.parallel;
+
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports the entities of a realm on virtual threads if {@code import.parallel} is enabled. The HTTP calls to Keycloak are
+ * blocking, so a virtual thread per entity gives real I/O concurrency, limited by {@code import.parallel-max-inflight}.
+ */
+@Service
+@ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
+public class ParallelImportExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(ParallelImportExecutor.class);
+
+    // nested calls from an import thread run inline, otherwise parents could hold all permits while waiting for children
+    private static final ThreadLocal<Boolean> IMPORT_THREAD = ThreadLocal.withInitial(() -> false);
+
+    private final ImportConfigProperties importConfigProperties;
+
+    @Autowired
+    public ParallelImportExecutor(ImportConfigProperties importConfigProperties) {
+        this.importConfigProperties = importConfigProperties;
+    }
+
+    /**
+     * Runs the action for each entity. In parallel mode, all entities are imported even if some of them fail, the failures
+     * are thrown afterward. In sequential mode, the first failure is thrown immediately.
+     *
+     * @param nameFunction describes an entity in error messages
+     */
+    public <T> void forEach(Collection<T> entities, Function<T, String> nameFunction, Consumer<T> action) {
+        if (isSequential() || entities.size() < 2) {
+            entities.forEach(action);
+            return;
+        }
+
+        Queue<EntityFailure> failures = new ConcurrentLinkedQueue<>();
+        runConcurrently(entities, nameFunction, action, failures);
+
+        throwFailures(List.copyOf(failures), entities.size());
+    }
+
+    /**
+     * Runs the action breadth-first in waves: the action of an entity returns the entities of the next wave, which starts
+     * after the current wave is done. In parallel mode, the entities of a wave run concurrently, a failed entity adds nothing
+     * to the next wave and the failures of all waves are thrown afterward. In sequential mode, the first failure is thrown
+     * immediately.
+     *
+     * @param nameFunction describes an entity in error messages
+     */
+    public <T> void forEachWave(Collection<T> entities, Function<T, String> nameFunction, Function<T, Collection<T>> action) {
+        boolean sequential = isSequential();
+        Queue<EntityFailure> failures = new ConcurrentLinkedQueue<>();
+        int total = 0;
+
+        Collection<T> wave = entities;
+        while (!wave.isEmpty()) {
+            Queue<T> nextWave = new ConcurrentLinkedQueue<>();
+            Consumer<T> waveAction = entity -> nextWave.addAll(action.apply(entity));
+
+            if (sequential) {
+                wave.forEach(waveAction);
+            } else {
+                runConcurrently(wave, nameFunction, waveAction, failures);
+            }
+
+            total += wave.size();
+            wave = nextWave;
+        }
+
+        throwFailures(List.copyOf(failures), total);
+    }
+
+    private boolean isSequential() {
+        return !importConfigProperties.isParallel() || IMPORT_THREAD.get();
+    }
+
+    @SuppressWarnings("java:S1181")
+    private <T> void runConcurrently(
+            Collection<T> entities,
+            Function<T, String> nameFunction,
+            Consumer<T> action,
+            Queue<EntityFailure> failures
+    ) {
+        Semaphore inflight = new Semaphore(importConfigProperties.getParallelMaxInflight());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (T entity : entities) {
+                inflight.acquireUninterruptibly();
+                executor.execute(() -> {
+                    IMPORT_THREAD.set(true);
+                    try {
+                        action.accept(entity);
+                    } catch (Throwable e) {
+                        // errors, too, as nothing else reports what is thrown on a virtual thread of the executor
+                        failures.add(new EntityFailure(nameFunction.apply(entity), e));
+                    } finally {
+                        inflight.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private static void throwFailures(List<EntityFailure> failures, int total) {
+        if (failures.isEmpty()) return;
+
+        if (failures.size() == 1) {
+            Throwable exception = failures.get(0).getException();
+            if (exception instanceof RuntimeException runtimeException) throw runtimeException;
+            if (exception instanceof Error error) throw error;
+            throw new ImportProcessingException(exception);
+        }
+
+        for (EntityFailure failure : failures) {
+            logger.error("Failed to import '{}': {}", failure.getName(), failure.getException().getMessage());
+        }
+
+        String names = failures.stream()
+                .map(failure -> "'" + failure.getName() + "'")
+                .collect(Collectors.joining(", "));
+
+        ImportProcessingException exception = new ImportProcessingException(
+                String.format("Failed to import %d of %d entities: %s", failures.size(), total, names),
+                failures.get(0).getException()
+        );
+        failures.stream().skip(1).forEach(failure -> exception.addSuppressed(failure.getException()));
+
+        throw exception;
+    }
+
+    private static final class EntityFailure {
+        private final String name;
+        private final Throwable exception;
+
+        private EntityFailure(String name, Throwable exception) {
+            this.name = name;
+            this.exception = exception;
+        }
+
+        private String getName() {
+            return name;
+        }
+
+        private Throwable getException() {
+            return exception;
+        }
+    }
+}
@@ -0,0 +1,383 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.service.report;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.util.resteasy.HttpMetricsFilter;
+import de.adorsys.keycloak.config.util.resteasy.HttpMetricsFilter.CallMetrics;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the duration and outcome of the import stages, the number of created, updated, unchanged and deleted entities,
+ * the duration of the repository calls and the HTTP calls to Keycloak. The report is written as JSON to {@code import.report.path} and in the
+ * Prometheus textfile format to {@code import.report.prometheus-path}. Nothing is collected if neither path is set.
+ */
+@Service
+@ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
+public class ImportReportService {
+    private static final Logger logger = LoggerFactory.getLogger(ImportReportService.class);
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final ImportConfigProperties importConfigProperties;
+    private final HttpMetricsFilter httpMetricsFilter;
+
+    private final List<StageReport> stages = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, Map<String, Map<EntityOutcome, LongAdder>>> entities = new ConcurrentHashMap<>();
+    private final Map<String, CallReport> repositoryCalls = new ConcurrentHashMap<>();
+
+    private volatile Instant startedAt = Instant.now();
+
+    @Autowired
+    public ImportReportService(ImportConfigProperties importConfigProperties, HttpMetricsFilter httpMetricsFilter) {
+        this.importConfigProperties = importConfigProperties;
+        this.httpMetricsFilter = httpMetricsFilter;
+    }
+
+    public boolean isEnabled() {
+        return importConfigProperties.getReport().isEnabled();
+    }
+
+    public void reset() {
+        startedAt = Instant.now();
+        stages.clear();
+        entities.clear();
+        repositoryCalls.clear();
+        httpMetricsFilter.reset();
+    }
+
+    public void recordStage(String realmName, String stageName, StageOutcome outcome, long durationMillis) {
+        if (!isEnabled()) return;
+
+        stages.add(new StageReport(realmName, stageName, outcome, durationMillis));
+    }
+
+    public void countEntity(String realmName, String entityType, EntityOutcome outcome) {
+        countEntity(realmName, entityType, outcome, 1);
+    }
+
+    public void countEntity(String realmName, String entityType, EntityOutcome outcome, long count) {
+        if (!isEnabled()) return;
+
+        entities.computeIfAbsent(realmName, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(entityType, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(outcome, key -> new LongAdder())
+                .add(count);
+    }
+
+    public void recordRepositoryCall(String operation, long durationNanos) {
+        if (!isEnabled()) return;
+
+        repositoryCalls.computeIfAbsent(operation, key -> new CallReport()).record(durationNanos);
+    }
+
+    public void write() {
+        logHttpCalls();
+
+        if (!isEnabled()) return;
+
+        String path = importConfigProperties.getReport().getPath();
+        if (path != null && !path.isBlank()) {
+            writeAtomically(Path.of(path), toJson());
+        }
+
+        String prometheusPath = importConfigProperties.getReport().getPrometheusPath();
+        if (prometheusPath != null && !prometheusPath.isBlank()) {
+            writeAtomically(Path.of(prometheusPath), toPrometheus());
+        }
+    }
+
+    private String toJson() {
+        Map<String, Object> report = new TreeMap<>();
+        report.put("startedAt", startedAt.toString());
+        report.put("durationMillis", Instant.now().toEpochMilli() - startedAt.toEpochMilli());
+
+        List<Map<String, Object>> stageReports = new ArrayList<>();
+        synchronized (stages) {
+            for (StageReport stage : stages) {
+                Map<String, Object> stageReport = new TreeMap<>();
+                stageReport.put("realm", stage.realmName);
+                stageReport.put("stage", stage.stageName);
+                stageReport.put("outcome", stage.outcome.getValue());
+                stageReport.put("durationMillis", stage.durationMillis);
+                stageReports.add(stageReport);
+            }
+        }
+        report.put("stages", stageReports);
+
+        Map<String, Map<String, Map<String, Long>>> entityReports = new TreeMap<>();
+        entities.forEach((realmName, entityTypes) -> entityTypes.forEach((entityType, outcomes) -> {
+            Map<String, Long> outcomeReports = new TreeMap<>();
+            for (EntityOutcome outcome : EntityOutcome.values()) {
+                LongAdder count = outcomes.get(outcome);
+                outcomeReports.put(outcome.getValue(), count == null ? 0 : count.sum());
+            }
+            entityReports.computeIfAbsent(realmName, key -> new TreeMap<>()).put(entityType, outcomeReports);
+        }));
+        report.put("entities", entityReports);
+
+        Map<String, Map<String, Object>> callReports = new TreeMap<>();
+        repositoryCalls.forEach((operation, call) -> callReports.put(operation, call.toMap()));
+        report.put("repositoryCalls", callReports);
+
+        Map<String, Map<String, Object>> httpCallReports = new TreeMap<>();
+        httpMetricsFilter.getMetrics().forEach((call, metrics) -> httpCallReports.put(call, toMap(metrics)));
+        report.put("httpCalls", httpCallReports);
+
+        try {
+            return OBJECT_MAPPER.writeValueAsString(report);
+        } catch (IOException e) {
+            throw new ImportProcessingException(e);
+        }
+    }
+
+    private String toPrometheus() {
+        StringBuilder metrics = new StringBuilder();
+
+        Map<String, Long> stageDurations = new TreeMap<>();
+        synchronized (stages) {
+            for (StageReport stage : stages) {
+                String labels = labels("realm", stage.realmName, "stage", stage.stageName, "outcome", stage.outcome.getValue());
+                stageDurations.merge(labels, stage.durationMillis, Long::sum);
+            }
+        }
+        appendHeader(metrics, "keycloak_config_cli_stage_duration_seconds", "Duration of the import stages.");
+        stageDurations.forEach((labels, durationMillis) -> appendSample(metrics,
+                "keycloak_config_cli_stage_duration_seconds", labels, durationMillis / 1000.0));
+
+        appendHeader(metrics, "keycloak_config_cli_entities", "Number of imported entities by outcome.");
+        new TreeMap<>(entities).forEach((realmName, entityTypes) -> new TreeMap<>(entityTypes).forEach((entityType, outcomes) -> {
+            for (EntityOutcome outcome : EntityOutcome.values()) {
+                LongAdder count = outcomes.get(outcome);
+                appendSample(metrics, "keycloak_config_cli_entities",
+                        labels("realm", realmName, "type", entityType, "outcome", outcome.getValue()), count == null ? 0 : count.sum());
+            }
+        }));
+
+        Map<String, CallReport> sortedCalls = new TreeMap<>(repositoryCalls);
+        appendHeader(metrics, "keycloak_config_cli_repository_calls", "Number of repository calls.");
+        sortedCalls.forEach((operation, call) -> appendSample(metrics,
+                "keycloak_config_cli_repository_calls", labels("operation", operation), call.count.sum()));
+
+        appendHeader(metrics, "keycloak_config_cli_repository_call_duration_seconds", "Total duration of repository calls.");
+        sortedCalls.forEach((operation, call) -> appendSample(metrics,
+                "keycloak_config_cli_repository_call_duration_seconds", labels("operation", operation), call.totalNanos.sum() / 1e9));
+
+        appendHttpMetrics(metrics);
+
+        return metrics.toString();
+    }
+
+    private void appendHttpMetrics(StringBuilder metrics) {
+        Map<String, CallMetrics> httpCalls = httpMetricsFilter.getMetrics();
+
+        metrics.append("# HELP keycloak_config_cli_http_request_duration_seconds Duration of the HTTP calls to Keycloak.\n");
+        metrics.append("# TYPE keycloak_config_cli_http_request_duration_seconds histogram\n");
+        httpCalls.forEach((call, callMetrics) -> {
+            String method = StringUtils.substringBefore(call, " ");
+            String template = StringUtils.substringAfter(call, " ");
+            long[] buckets = callMetrics.getCumulativeLatencyBuckets();
+
+            for (int index = 0; index < buckets.length; index++) {
+                String le = String.valueOf(HttpMetricsFilter.LATENCY_BUCKETS_MILLIS.get(index) / 1000.0);
+                appendSample(metrics, "keycloak_config_cli_http_request_duration_seconds_bucket",
+                        labels("method", method, "template", template, "le", le), buckets[index]);
+            }
+            appendSample(metrics, "keycloak_config_cli_http_request_duration_seconds_bucket",
+                    labels("method", method, "template", template, "le", "+Inf"), callMetrics.getCount());
+            appendSample(metrics, "keycloak_config_cli_http_request_duration_seconds_sum",
+                    labels("method", method, "template", template), callMetrics.getTotalNanos() / 1e9);
+            appendSample(metrics, "keycloak_config_cli_http_request_duration_seconds_count",
+                    labels("method", method, "template", template), callMetrics.getCount());
+        });
+
+        appendHeader(metrics, "keycloak_config_cli_http_errors", "Number of HTTP calls to Keycloak with an error status.");
+        httpCalls.forEach((call, callMetrics) -> appendSample(metrics, "keycloak_config_cli_http_errors",
+                labels("method", StringUtils.substringBefore(call, " "), "template", StringUtils.substringAfter(call, " ")),
+                callMetrics.getErrorCount()));
+
+        appendHeader(metrics, "keycloak_config_cli_http_response_bytes", "Size of the HTTP responses of Keycloak, if known.");
+        httpCalls.forEach((call, callMetrics) -> appendSample(metrics, "keycloak_config_cli_http_response_bytes",
+                labels("method", StringUtils.substringBefore(call, " "), "template", StringUtils.substringAfter(call, " ")),
+                callMetrics.getResponseBytes()));
+    }
+
+    private void logHttpCalls() {
+        Map<String, CallMetrics> httpCalls = httpMetricsFilter.getMetrics();
+
+        if (logger.isDebugEnabled()) {
+            httpCalls.forEach((call, callMetrics) -> logger.debug("HTTP call '{}': {} calls, {} errors, {} ms",
+                    call, callMetrics.getCount(), callMetrics.getErrorCount(), callMetrics.getTotalNanos() / 1_000_000));
+        }
+
+        logger.info("Made {} HTTP calls to Keycloak", httpMetricsFilter.getTotalCount());
+    }
+
+    private static Map<String, Object> toMap(CallMetrics callMetrics) {
+        Map<String, Long> latencyBuckets = new LinkedHashMap<>();
+        long[] buckets = callMetrics.getCumulativeLatencyBuckets();
+        for (int index = 0; index < buckets.length; index++) {
+            latencyBuckets.put("le" + HttpMetricsFilter.LATENCY_BUCKETS_MILLIS.get(index) + "ms", buckets[index]);
+        }
+
+        Map<String, Object> call = new TreeMap<>();
+        call.put("count", callMetrics.getCount());
+        call.put("errors", callMetrics.getErrorCount());
+        call.put("requestBytes", callMetrics.getRequestBytes());
+        call.put("responseBytes", callMetrics.getResponseBytes());
+        call.put("totalMillis", callMetrics.getTotalNanos() / 1_000_000);
+        call.put("latencyBuckets", latencyBuckets);
+        return call;
+    }
+
+    private static void appendHeader(StringBuilder metrics, String name, String help) {
+        metrics.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        metrics.append("# TYPE ").append(name).append(" gauge\n");
+    }
+
+    private static void appendSample(StringBuilder metrics, String name, String labels, double value) {
+        metrics.append(name).append(labels).append(' ').append(value).append('\n');
+    }
+
+    private static String labels(String... namesAndValues) {
+        StringBuilder labels = new StringBuilder("{");
+
+        for (int index = 0; index < namesAndValues.length; index += 2) {
+            if (index > 0) labels.append(',');
+
+            String value = namesAndValues[index + 1]
+                    .replace("\\", "\\\\")
+                    .replace("\"", "\\\"")
+                    .replace("\n", "\\n");
+            labels.append(namesAndValues[index]).append("=\"").append(value).append('"');
+        }
+
+        return labels.append('}').toString();
+    }
+
+    // write to a temporary file first, so readers like the node exporter never see a partial report
+    private static void writeAtomically(Path path, String content) {
+        try {
+            Path absolutePath = path.toAbsolutePath();
+            Files.createDirectories(absolutePath.getParent());
+
+            Path temporaryPath = absolutePath.resolveSibling(absolutePath.getFileName() + ".tmp");
+            Files.writeString(temporaryPath, content, StandardCharsets.UTF_8);
+            Files.move(temporaryPath, absolutePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ImportProcessingException("Unable to write import report '" + path + "'", e);
+        }
+
+        logger.info("Import report written to '{}'", path);
+    }
+
+    public enum StageOutcome {
+        EXECUTED("executed"),
+        SKIPPED("skipped"),
+        FAILED("failed");
+
+        private final String value;
+
+        StageOutcome(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+
+    public enum EntityOutcome {
+        CREATED("created"),
+        UPDATED("updated"),
+        UNCHANGED("unchanged"),
+        DELETED("deleted");
+
+        private final String value;
+
+        EntityOutcome(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+
+    private static final class StageReport {
+        private final String realmName;
+        private final String stageName;
+        private final StageOutcome outcome;
+        private final long durationMillis;
+
+        private StageReport(String realmName, String stageName, StageOutcome outcome, long durationMillis) {
+            this.realmName = realmName;
+            this.stageName = stageName;
+            this.outcome = outcome;
+            this.durationMillis = durationMillis;
+        }
+    }
+
+    private static final class CallReport {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+        private void record(long durationNanos) {
+            count.increment();
+            totalNanos.add(durationNanos);
+            maxNanos.accumulate(durationNanos);
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> call = new TreeMap<>();
+            call.put("count", count.sum());
+            call.put("totalMillis", totalNanos.sum() / 1_000_000);
+            call.put("maxMillis", maxNanos.get() / 1_000_000);
+            return call;
+        }
+    }
+}
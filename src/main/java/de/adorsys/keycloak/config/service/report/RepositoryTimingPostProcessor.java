@@ -0,0 +1,79 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.service.report;
+
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.repository.RealmRepository;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Measures the duration of every call to a repository bean for the import report. Repositories are only proxied
+ * if the report is enabled. Calls between repositories are measured separately, so their durations overlap.
+ */
+@Component
+@ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
+public class RepositoryTimingPostProcessor implements BeanPostProcessor {
+    private static final String REPOSITORY_PACKAGE = RealmRepository.class.getPackageName();
+
+    // resolved lazily, so the post processor does not initialize these beans before all post processors are registered
+    private final ObjectProvider<ImportConfigProperties> importConfigProperties;
+    private final ObjectProvider<ImportReportService> importReportService;
+
+    @Autowired
+    public RepositoryTimingPostProcessor(
+            ObjectProvider<ImportConfigProperties> importConfigProperties,
+            ObjectProvider<ImportReportService> importReportService
+    ) {
+        this.importConfigProperties = importConfigProperties;
+        this.importReportService = importReportService;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> beanClass = bean.getClass();
+        if (!beanClass.getPackageName().equals(REPOSITORY_PACKAGE) || !importConfigProperties.getObject().getReport().isEnabled()) {
+            return bean;
+        }
+
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+            long start = System.nanoTime();
+            try {
+                return invocation.proceed();
+            } finally {
+                importReportService.getObject().recordRepositoryCall(
+                        beanClass.getSimpleName() + "." + invocation.getMethod().getName(),
+                        System.nanoTime() - start
+                );
+            }
+        });
+
+        return proxyFactory.getProxy(beanClass.getClassLoader());
+    }
+}
@@ -0,0 +1,79 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.service.stage;
+
+import de.adorsys.keycloak.config.model.RealmImport;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A single step of a realm import, e.g. importing clients or roles.
+ * Each stage declares the stages it depends on, so independent stages can run concurrently,
+ * and the top-level sections of the import file it reads, so it can be skipped if they are unchanged.
+ */
+public final class ImportStage {
+    private final String name;
+    private final List<String> dependencies;
+    private final List<String> sections;
+    private final Consumer<RealmImport> action;
+
+    private ImportStage(String name, Consumer<RealmImport> action, List<String> dependencies, List<String> sections) {
+        this.name = Objects.requireNonNull(name);
+        this.action = Objects.requireNonNull(action);
+        this.dependencies = List.copyOf(dependencies);
+        this.sections = List.copyOf(sections);
+    }
+
+    public static ImportStage of(String name, Consumer<RealmImport> action, String... dependencies) {
+        return new ImportStage(name, action, List.of(dependencies), List.of());
+    }
+
+    /**
+     * Returns a copy of this stage reading the given sections. Stages without sections always run.
+     */
+    public ImportStage withSections(String... sections) {
+        return new ImportStage(name, action, dependencies, List.of(sections));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getDependencies() {
+        return dependencies;
+    }
+
+    public List<String> getSections() {
+        return sections;
+    }
+
+    public void run(RealmImport realmImport) {
+        action.accept(realmImport);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
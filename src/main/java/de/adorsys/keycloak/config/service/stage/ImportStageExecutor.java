@@ -0,0 +1,292 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.service.stage;
+
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
+import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.service.journal.ImportJournal;
+import de.adorsys.keycloak.config.service.report.ImportReportService;
+import de.adorsys.keycloak.config.service.report.ImportReportService.StageOutcome;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Runs the stages of a realm import. Stages are started as soon as all of their dependencies are finished,
+ * with at most {@code import.stage-concurrency} stages running at the same time.
+ * <p>
+ * With a concurrency of 1 (the default) all stages run sequentially in their declaration order.
+ * If stages fail, no further stages are started and the failure of the first declared stage is thrown,
+ * with the failures of all other stages attached as suppressed exceptions.
+ * <p>
+ * A stage is skipped if all sections it reads, including the sections of the stages it depends on, are unchanged,
+ * or if the journal records it as completed by a previous import of the same input.
+ */
+@Component
+@ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
+public class ImportStageExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(ImportStageExecutor.class);
+
+    private final ImportConfigProperties importConfigProperties;
+    private final ImportReportService importReportService;
+
+    @Autowired
+    public ImportStageExecutor(ImportConfigProperties importConfigProperties, ImportReportService importReportService) {
+        this.importConfigProperties = importConfigProperties;
+        this.importReportService = importReportService;
+    }
+
+    public void execute(RealmImport realmImport, List<ImportStage> stages) {
+        execute(realmImport, stages, section -> false);
+    }
+
+    public void execute(RealmImport realmImport, List<ImportStage> stages, Predicate<String> isSectionUnchanged) {
+        execute(realmImport, stages, isSectionUnchanged, ImportJournal.NONE);
+    }
+
+    public void execute(RealmImport realmImport, List<ImportStage> stages, Predicate<String> isSectionUnchanged, ImportJournal journal) {
+        validate(stages);
+        StageRun run = new StageRun(realmImport, getUnchangedStages(stages, isSectionUnchanged), journal);
+
+        int concurrency = Math.min(importConfigProperties.getStageConcurrency(), stages.size());
+
+        if (concurrency <= 1) {
+            for (ImportStage stage : stages) {
+                runStage(run, stage);
+            }
+        } else {
+            executeConcurrently(run, stages, concurrency);
+        }
+    }
+
+    /**
+     * Dependencies have to be declared before the stages using them.
+     * This rules out cycles and makes the declaration order a valid sequential order.
+     */
+    private void validate(List<ImportStage> stages) {
+        Set<String> declaredStages = new HashSet<>();
+
+        for (ImportStage stage : stages) {
+            for (String dependency : stage.getDependencies()) {
+                if (!declaredStages.contains(dependency)) {
+                    throw new ImportProcessingException(
+                            "Import stage '%s' depends on '%s', which is not declared before it.", stage.getName(), dependency
+                    );
+                }
+            }
+
+            if (!declaredStages.add(stage.getName())) {
+                throw new ImportProcessingException("Import stage '%s' is declared twice.", stage.getName());
+            }
+        }
+    }
+
+    /**
+     * Returns the stages which can be skipped, together with the unchanged sections they read.
+     */
+    private Map<String, Set<String>> getUnchangedStages(List<ImportStage> stages, Predicate<String> isSectionUnchanged) {
+        Map<String, Set<String>> stageSections = new HashMap<>();
+        Map<String, Set<String>> unchangedStages = new HashMap<>();
+
+        for (ImportStage stage : stages) {
+            Set<String> sections = new TreeSet<>(stage.getSections());
+            stage.getDependencies().forEach(dependency -> sections.addAll(stageSections.get(dependency)));
+            stageSections.put(stage.getName(), sections);
+
+            if (!stage.getSections().isEmpty() && sections.stream().allMatch(isSectionUnchanged)) {
+                unchangedStages.put(stage.getName(), sections);
+            }
+        }
+
+        return unchangedStages;
+    }
+
+    private void executeConcurrently(StageRun run, List<ImportStage> stages, int concurrency) {
+        RealmImport realmImport = run.realmImport;
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, new StageThreadFactory(realmImport.getRealm()));
+        CompletionService<StageResult> completionService = new ExecutorCompletionService<>(executor);
+
+        List<ImportStage> pendingStages = new ArrayList<>(stages);
+        Set<String> finishedStages = new HashSet<>();
+        Map<ImportStage, Throwable> failures = new HashMap<>();
+        int runningStages = 0;
+
+        try {
+            while (true) {
+                if (failures.isEmpty()) {
+                    runningStages += submitReadyStages(run, completionService, pendingStages, finishedStages);
+                }
+
+                if (runningStages == 0) {
+                    break;
+                }
+
+                StageResult result = completionService.take().get();
+                runningStages--;
+
+                if (result.error == null) {
+                    finishedStages.add(result.stage.getName());
+                } else {
+                    failures.put(result.stage, result.error);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImportProcessingException("Interrupted while importing realm '" + realmImport.getRealm() + "'", e);
+        } catch (ExecutionException e) {
+            throw new ImportProcessingException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (!failures.isEmpty()) {
+            throwFirstFailure(stages, failures);
+        }
+    }
+
+    private int submitReadyStages(
+            StageRun run,
+            CompletionService<StageResult> completionService,
+            List<ImportStage> pendingStages,
+            Set<String> finishedStages
+    ) {
+        int submittedStages = 0;
+
+        Iterator<ImportStage> iterator = pendingStages.iterator();
+        while (iterator.hasNext()) {
+            ImportStage stage = iterator.next();
+            if (!finishedStages.containsAll(stage.getDependencies())) continue;
+
+            iterator.remove();
+            completionService.submit(() -> {
+                try {
+                    runStage(run, stage);
+                    return new StageResult(stage, null);
+                } catch (RuntimeException | Error e) {
+                    return new StageResult(stage, e);
+                }
+            });
+            submittedStages++;
+        }
+
+        return submittedStages;
+    }
+
+    private void throwFirstFailure(List<ImportStage> stages, Map<ImportStage, Throwable> failures) {
+        List<Throwable> orderedFailures = stages.stream()
+                .filter(failures::containsKey)
+                .map(failures::get)
+                .toList();
+
+        Throwable firstFailure = orderedFailures.get(0);
+        orderedFailures.stream().skip(1).forEach(firstFailure::addSuppressed);
+
+        if (firstFailure instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+
+        throw (Error) firstFailure;
+    }
+
+    private void runStage(StageRun run, ImportStage stage) {
+        RealmImport realmImport = run.realmImport;
+
+        if (run.unchangedStages.containsKey(stage.getName())) {
+            logger.debug("Skip import stage '{}' of realm '{}', sections {} are unchanged",
+                    stage.getName(), realmImport.getRealm(), run.unchangedStages.get(stage.getName()));
+            importReportService.recordStage(realmImport.getRealm(), stage.getName(), StageOutcome.SKIPPED, 0);
+            return;
+        }
+
+        if (run.journal.isCompleted(stage.getName())) {
+            logger.debug("Skip import stage '{}' of realm '{}', completed by a previous import", stage.getName(), realmImport.getRealm());
+            importReportService.recordStage(realmImport.getRealm(), stage.getName(), StageOutcome.SKIPPED, 0);
+            return;
+        }
+
+        logger.debug("Start import stage '{}' of realm '{}'", stage.getName(), realmImport.getRealm());
+        long start = System.currentTimeMillis();
+
+        try {
+            stage.run(realmImport);
+        } catch (RuntimeException | Error e) {
+            importReportService.recordStage(realmImport.getRealm(), stage.getName(), StageOutcome.FAILED, System.currentTimeMillis() - start);
+            throw e;
+        }
+
+        long duration = System.currentTimeMillis() - start;
+        run.journal.complete(stage.getName());
+        importReportService.recordStage(realmImport.getRealm(), stage.getName(), StageOutcome.EXECUTED, duration);
+        logger.debug("Finished import stage '{}' of realm '{}' in {} ms", stage.getName(), realmImport.getRealm(), duration);
+    }
+
+    private static final class StageRun {
+        private final RealmImport realmImport;
+        private final Map<String, Set<String>> unchangedStages;
+        private final ImportJournal journal;
+
+        private StageRun(RealmImport realmImport, Map<String, Set<String>> unchangedStages, ImportJournal journal) {
+            this.realmImport = realmImport;
+            this.unchangedStages = unchangedStages;
+            this.journal = journal;
+        }
+    }
+
+    private static final class StageResult {
+        private final ImportStage stage;
+        private final Throwable error;
+
+        private StageResult(ImportStage stage, Throwable error) {
+            this.stage = stage;
+            this.error = error;
+        }
+    }
+
+    private static final class StageThreadFactory implements ThreadFactory {
+        private final String realmName;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        private StageThreadFactory(String realmName) {
+            this.realmName = realmName;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "import-stage-" + realmName + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -23,6 +23,9 @@ package de.adorsys.keycloak.config.service.state;
 import de.adorsys.keycloak.config.model.RealmImport;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.repository.StateRepository;
+import de.adorsys.keycloak.config.util.FingerprintUtil;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FilenameUtils;
 import org.keycloak.common.util.MultivaluedHashMap;
 import org.keycloak.representations.idm.*;
 import org.keycloak.representations.idm.authorization.ResourceRepresentation;
@@ -32,9 +35,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 @Service
 @ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
@@ -44,6 +53,11 @@ public class StateService {
     private final StateRepository stateRepository;
     private final ImportConfigProperties importConfigProperties;
 
+    private final Map<String, Map<String, Set<String>>> previousFingerprints = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> fullReconciles = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Set<String>>> recordedFingerprints = new ConcurrentHashMap<>();
+    private final Map<String, String> sourceKeys = new ConcurrentHashMap<>();
+
     @Autowired
     public StateService(StateRepository stateRepository, ImportConfigProperties importConfigProperties) {
         this.stateRepository = stateRepository;
@@ -52,16 +66,142 @@ public class StateService {
 
     public void loadState(RealmImport realmImport) {
         stateRepository.loadCustomAttributes(realmImport.getRealm());
+        loadFingerprintState(realmImport);
     }
 
     /**
      * Loads the realm states and preserves it into the realm representation object
      * to prevent state erasure during realm update
      *
-     * @param realmImport the {@link RealmRepresentation} instance which will be synchronized with the Keycloak
+     * @param realmImport      the {@link RealmImport} which is imported
+     * @param realmForUpdating the {@link RealmRepresentation} instance which will be synchronized with the Keycloak
+     */
+    public void loadState(RealmImport realmImport, RealmRepresentation realmForUpdating) {
+        stateRepository.loadCustomAttributes(realmForUpdating);
+        loadFingerprintState(realmImport);
+    }
+
+    private void loadFingerprintState(RealmImport realmImport) {
+        String realmName = realmImport.getRealm();
+        previousFingerprints.remove(realmName);
+        recordedFingerprints.remove(realmName);
+        if (realmImport.getSource() != null) {
+            sourceKeys.put(realmName, getSourceKey(realmImport.getSource()));
+        } else {
+            sourceKeys.remove(realmName);
+        }
+
+        if (!isSkipUnchangedEntities() && !isSkipUnchangedClientSecrets()) {
+            return;
+        }
+
+        List<String> lastFullReconcile = stateRepository.getState(realmName, getSourceStateKey(realmName, "full-reconcile"));
+        boolean fullReconcile = lastFullReconcile.isEmpty() || Instant.ofEpochMilli(Long.parseLong(lastFullReconcile.get(0)))
+                .plus(importConfigProperties.getRemoteState().getFullReconcileInterval())
+                .isBefore(Instant.now());
+
+        fullReconciles.put(realmName, fullReconcile);
+
+        if (fullReconcile) {
+            logger.debug("Reconciling all entities of realm '{}'", realmName);
+        }
+    }
+
+    /**
+     * Returns true if the entity was imported with exactly the same representation by the last successful import,
+     * so it can be skipped. Always returns false during a full reconcile. The fingerprint is recorded for the next state
+     * update, so later changes of the representation by the import do not change it.
+     *
+     * @param realmName      the realm of the entity
+     * @param entity         the kind of entity, e.g. clients
+     * @param key            the natural key of the entity, e.g. the clientId
+     * @param representation the representation of the entity in the import
+     */
+    public boolean isUnchanged(String realmName, String entity, String key, Object representation) {
+        if (!isSkipUnchangedEntities()) {
+            return false;
+        }
+
+        return record(realmName, entity, key, representation);
+    }
+
+    /**
+     * Records the fingerprint of an entity which is not part of the realm import, e.g. a chunk of a user file,
+     * so it is stored with the next state update. Returns true if the last successful import recorded the same fingerprint.
+     */
+    public boolean recordFingerprint(String realmName, String entity, String key, Object representation) {
+        if (!isSkipUnchangedEntities()) {
+            return false;
+        }
+
+        return record(realmName, entity, key, representation);
+    }
+
+    /**
+     * Records the fingerprint of a client secret applied by this import. Returns true if the last successful import applied
+     * the same secret, so the secret of the client does not need to be read from Keycloak. Always returns false during a full
+     * reconcile.
+     */
+    public boolean recordClientSecret(String realmName, String clientKey, String secret) {
+        if (!isSkipUnchangedClientSecrets()) {
+            return false;
+        }
+
+        return record(realmName, "client-secrets", clientKey, secret);
+    }
+
+    private boolean record(String realmName, String entity, String key, Object representation) {
+        String fingerprint = fingerprint(key, representation);
+        if (fingerprint == null) {
+            return false;
+        }
+
+        recordedFingerprints
+                .computeIfAbsent(realmName, realm -> new ConcurrentHashMap<>())
+                .computeIfAbsent(entity, e -> ConcurrentHashMap.newKeySet())
+                .add(fingerprint);
+
+        if (fullReconciles.getOrDefault(realmName, true)) {
+            return false;
+        }
+
+        return previousFingerprints
+                .computeIfAbsent(realmName, realm -> new ConcurrentHashMap<>())
+                .computeIfAbsent(entity, e -> Set.copyOf(
+                        stateRepository.getState(realmName, getSourceStateKey(realmName, "fingerprints-" + e))
+                ))
+                .contains(fingerprint);
+    }
+
+    /**
+     * Returns the fingerprint of the representation, keyed with the encryption key of the remote state if configured.
+     * Representations which contain secrets, like client secrets or user credentials, are not fingerprinted without encryption
+     * key, because the fingerprints are stored in the realm attributes and could be used to guess the secrets.
      */
-    public void loadState(RealmRepresentation realmImport) {
-        stateRepository.loadCustomAttributes(realmImport);
+    private String fingerprint(String key, Object representation) {
+        String encryptionKey = importConfigProperties.getRemoteState().getEncryptionKey();
+        if (encryptionKey == null && containsSecret(representation)) {
+            return null;
+        }
+
+        return FingerprintUtil.fingerprint(encryptionKey, key, representation);
+    }
+
+    private static boolean containsSecret(Object representation) {
+        if (representation instanceof Collection<?> representations) {
+            return representations.stream().anyMatch(StateService::containsSecret);
+        }
+
+        return representation instanceof ClientRepresentation client && client.getSecret() != null
+                || representation instanceof UserRepresentation user && user.getCredentials() != null && !user.getCredentials().isEmpty();
+    }
+
+    private boolean isSkipUnchangedEntities() {
+        return importConfigProperties.getRemoteState().isEnabled() && importConfigProperties.getRemoteState().isSkipUnchangedEntities();
+    }
+
+    private boolean isSkipUnchangedClientSecrets() {
+        return importConfigProperties.getRemoteState().isEnabled() && importConfigProperties.getRemoteState().isSkipUnchangedClientSecrets();
     }
 
     public void doImport(RealmImport realmImport) {
@@ -76,13 +216,14 @@ public class StateService {
         setComponents(realmImport);
         setClientAuthorizationResources(realmImport);
         setMessageBundles(realmImport);
+        setFingerprints(realmImport);
 
         stateRepository.update(realmImport);
         logger.debug("Updated states of realm '{}'", realmImport.getRealm());
     }
 
-    public List<String> getRealmRoles() {
-        return stateRepository.getState("roles-realm");
+    public List<String> getRealmRoles(String realmName) {
+        return stateRepository.getState(realmName, "roles-realm");
     }
 
     private void setRealmRoles(RealmImport realmImport) {
@@ -97,7 +238,7 @@ public class StateService {
                 .map(RoleRepresentation::getName)
                 .toList();
 
-        stateRepository.setState("roles-realm", state);
+        stateRepository.setState(realmImport.getRealm(), "roles-realm", state);
     }
 
     private void setClientRoles(RealmImport realmImport) {
@@ -113,7 +254,7 @@ public class StateService {
                     .map(RoleRepresentation::getName)
                     .toList();
 
-            stateRepository.setState("roles-client-" + client.getKey(), state);
+            stateRepository.setState(realmImport.getRealm(), "roles-client-" + client.getKey(), state);
         }
     }
 
@@ -124,23 +265,23 @@ public class StateService {
         for (ClientRepresentation client : clients) {
             if (client.getAuthorizationSettings() == null || client.getAuthorizationSettings().getResources() == null) continue;
 
-            String clientKey = client.getClientId() != null ? client.getClientId() : "name:" + client.getName();
+            String clientKey = getClientKey(client);
 
             List<String> resourceNames = client.getAuthorizationSettings().getResources()
                     .stream()
                     .map(ResourceRepresentation::getName)
                     .toList();
 
-            stateRepository.setState("resources-client-" + clientKey, resourceNames);
+            stateRepository.setState(realmImport.getRealm(), "resources-client-" + clientKey, resourceNames);
         }
     }
 
-    public List<String> getClientRoles(String client) {
-        return stateRepository.getState("roles-client-" + client);
+    public List<String> getClientRoles(String realmName, String client) {
+        return stateRepository.getState(realmName, "roles-client-" + client);
     }
 
-    public List<String> getClientAuthorizationResources(String client) {
-        return stateRepository.getState("resources-client-" + client);
+    public List<String> getClientAuthorizationResources(String realmName, String client) {
+        return stateRepository.getState(realmName, "resources-client-" + client);
     }
 
     private void setClients(RealmImport realmImport) {
@@ -149,22 +290,18 @@ public class StateService {
 
         List<String> state = new ArrayList<>();
         for (ClientRepresentation client : clients) {
-            if (client.getClientId() != null) {
-                state.add(client.getClientId());
-            } else {
-                state.add("name:" + client.getName());
-            }
+            state.add(getClientKey(client));
         }
 
-        stateRepository.setState("clients", state);
+        stateRepository.setState(realmImport.getRealm(), "clients", state);
     }
 
-    public List<String> getRequiredActions() {
-        return stateRepository.getState("required-actions");
+    public List<String> getRequiredActions(String realmName) {
+        return stateRepository.getState(realmName, "required-actions");
     }
 
-    public List<String> getClients() {
-        return stateRepository.getState("clients");
+    public List<String> getClients(String realmName) {
+        return stateRepository.getState(realmName, "clients");
     }
 
     private void setRequiredActions(RealmImport realmImport) {
@@ -175,13 +312,13 @@ public class StateService {
                 .map(RequiredActionProviderRepresentation::getAlias)
                 .toList();
 
-        stateRepository.setState("required-actions", state);
+        stateRepository.setState(realmImport.getRealm(), "required-actions", state);
     }
 
-    public List<ComponentRepresentation> getComponents(List<ComponentRepresentation> components, String parentComponentName) {
+    public List<ComponentRepresentation> getComponents(String realmName, List<ComponentRepresentation> components, String parentComponentName) {
         List<String> componentsFromState = (parentComponentName != null)
-                ? stateRepository.getState("sub-components-" + parentComponentName)
-                : stateRepository.getState("components");
+                ? stateRepository.getState(realmName, "sub-components-" + parentComponentName)
+                : stateRepository.getState(realmName, "components");
 
         return components.stream()
                 .filter(component -> componentsFromState.contains(component.getName()))
@@ -199,14 +336,14 @@ public class StateService {
                 String componentName = component.getName();
                 state.add(componentName);
 
-                setSubComponents(component);
+                setSubComponents(realmImport.getRealm(), component);
             }
         }
 
-        stateRepository.setState("components", state);
+        stateRepository.setState(realmImport.getRealm(), "components", state);
     }
 
-    private void setSubComponents(ComponentExportRepresentation component) {
+    private void setSubComponents(String realmName, ComponentExportRepresentation component) {
         MultivaluedHashMap<String, ComponentExportRepresentation> subComponents = component.getSubComponents();
         if (subComponents.isEmpty()) {
             return;
@@ -221,7 +358,7 @@ public class StateService {
             state.addAll(nameOfSubComponents);
         }
 
-        stateRepository.setState("sub-components-" + component.getName(), state);
+        stateRepository.setState(realmName, "sub-components-" + component.getName(), state);
     }
 
 
@@ -231,10 +368,65 @@ public class StateService {
 
         List<String> state = new ArrayList<>(messageBundles.keySet());
 
-        stateRepository.setState("message-bundles", state);
+        stateRepository.setState(realmImport.getRealm(), "message-bundles", state);
+    }
+
+    public List<String> getMessageBundles(String realmName) {
+        return stateRepository.getState(realmName, "message-bundles");
+    }
+
+    private void setFingerprints(RealmImport realmImport) {
+        if (!isSkipUnchangedEntities() && !isSkipUnchangedClientSecrets()) return;
+
+        String realmName = realmImport.getRealm();
+        Map<String, Set<String>> recorded = Objects.requireNonNullElse(recordedFingerprints.remove(realmName), Map.of());
+        recorded.forEach((entity, fingerprints) ->
+                stateRepository.setState(realmName, getSourceStateKey(realmName, "fingerprints-" + entity), new ArrayList<>(fingerprints)));
+
+        // entities which were not checked by isUnchanged, e.g. because their import stage was skipped, are unchanged as well
+        if (isSkipUnchangedEntities()) {
+            setFingerprints(realmName, "clients", realmImport.getClients(), StateService::getClientKey, recorded);
+            setFingerprints(realmName, "groups", realmImport.getGroups(), GroupRepresentation::getName, recorded);
+            setFingerprints(realmName, "users", realmImport.getUsers(), StateService::getUserKey, recorded);
+        }
+
+        if (Boolean.TRUE.equals(fullReconciles.remove(realmName))) {
+            stateRepository.setState(realmName, getSourceStateKey(realmName, "full-reconcile"),
+                    List.of(String.valueOf(System.currentTimeMillis())));
+        }
+    }
+
+    private <T> void setFingerprints(String realmName, String entity, List<T> representations, Function<T, String> keyFunction,
+                                     Map<String, Set<String>> recorded) {
+        if (representations == null || recorded.containsKey(entity)) return;
+
+        List<String> state = representations.stream()
+                .map(representation -> fingerprint(keyFunction.apply(representation), representation))
+                .filter(Objects::nonNull)
+                .toList();
+
+        stateRepository.setState(realmName, getSourceStateKey(realmName, "fingerprints-" + entity), state);
+    }
+
+    /**
+     * Returns the state key of the current import source of the realm, so the fingerprints of several files which import
+     * the same realm do not overwrite each other.
+     */
+    private String getSourceStateKey(String realmName, String key) {
+        String sourceKey = sourceKeys.get(realmName);
+        return sourceKey != null ? key + "-" + sourceKey : key;
+    }
+
+    @SuppressWarnings("java:S4790")
+    private static String getSourceKey(String source) {
+        return FilenameUtils.getName(source) + "_" + DigestUtils.md5Hex(source);
+    }
+
+    public static String getClientKey(ClientRepresentation client) {
+        return client.getClientId() != null ? client.getClientId() : "name:" + client.getName();
     }
 
-    public List<String> getMessageBundles() {
-        return stateRepository.getState("message-bundles");
+    public static String getUserKey(UserRepresentation user) {
+        return user.getUsername() != null ? user.getUsername() : user.getEmail();
     }
 }
@@ -0,0 +1,115 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.service.watch;
+
+import de.adorsys.keycloak.config.model.KeycloakImport;
+import de.adorsys.keycloak.config.model.RealmImport;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public final class ChangedRealmImports {
+    private ChangedRealmImports() {
+    }
+
+    /**
+     * Returns all files of the realms which are defined in the changed files or reference a changed user file, in file order.
+     * A changed symbolic link or directory, or an entry starting with "..", changes all realm and user files below its directory,
+     * e.g. Kubernetes replaces the "..data" link of a mounted ConfigMap or Secret instead of the files. The whole import is
+     * returned if the changed files are unknown.
+     */
+    public static KeycloakImport select(KeycloakImport keycloakImport, Set<Path> changedFiles) {
+        if (changedFiles.isEmpty()) return keycloakImport;
+
+        Set<Path> importedFiles = keycloakImport.getRealmImports().values().stream()
+                .flatMap(realmImportLocations -> realmImportLocations.values().stream())
+                .flatMap(List::stream)
+                .flatMap(ChangedRealmImports::getLocalFiles)
+                .collect(Collectors.toSet());
+
+        Set<Path> changedDirectories = changedFiles.stream()
+                .filter(changedFile -> !importedFiles.contains(changedFile) && isIndirectChange(changedFile))
+                .map(Path::getParent)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        Set<String> changedRealms = keycloakImport.getRealmImports().values().stream()
+                .flatMap(realmImportLocations -> realmImportLocations.values().stream())
+                .flatMap(List::stream)
+                .filter(realmImport -> isChanged(realmImport, changedFiles, changedDirectories))
+                .map(RealmImport::getRealm)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        Map<String, Map<String, List<RealmImport>>> changedRealmImports = new LinkedHashMap<>();
+        keycloakImport.getRealmImports().forEach((location, realmImportLocations) ->
+                realmImportLocations.forEach((file, realmImportParts) -> {
+                    List<RealmImport> changedRealmImportParts = realmImportParts.stream()
+                            .filter(realmImport -> changedRealms.contains(realmImport.getRealm()))
+                            .toList();
+
+                    if (!changedRealmImportParts.isEmpty()) {
+                        changedRealmImports.computeIfAbsent(location, key -> new LinkedHashMap<>()).put(file, changedRealmImportParts);
+                    }
+                })
+        );
+
+        return new KeycloakImport(changedRealmImports);
+    }
+
+    private static boolean isChanged(RealmImport realmImport, Set<Path> changedFiles, Set<Path> changedDirectories) {
+        return getLocalFiles(realmImport)
+                .anyMatch(file -> changedFiles.contains(file) || changedDirectories.stream().anyMatch(file::startsWith));
+    }
+
+    /**
+     * Returns the local realm file and user files of the realm import.
+     */
+    private static Stream<Path> getLocalFiles(RealmImport realmImport) {
+        return Stream.concat(Stream.of(realmImport.getSource()), realmImport.getUserFileSources().stream())
+                .map(ChangedRealmImports::getLocalPath)
+                .filter(Objects::nonNull);
+    }
+
+    private static boolean isIndirectChange(Path changedFile) {
+        Path fileName = changedFile.getFileName();
+
+        return fileName != null && fileName.toString().startsWith("..")
+                || Files.isSymbolicLink(changedFile)
+                || Files.isDirectory(changedFile, LinkOption.NOFOLLOW_LINKS);
+    }
+
+    private static Path getLocalPath(String source) {
+        if (source == null || !source.startsWith("file:")) return null;
+
+        return Path.of(URI.create(source)).toAbsolutePath().normalize();
+    }
+}
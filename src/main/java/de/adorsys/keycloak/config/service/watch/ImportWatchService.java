@@ -0,0 +1,170 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.service.watch;
+
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.provider.KeycloakImportProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+@ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
+public class ImportWatchService {
+    private static final Logger logger = LoggerFactory.getLogger(ImportWatchService.class);
+
+    private final KeycloakImportProvider keycloakImportProvider;
+    private final ImportConfigProperties importConfigProperties;
+
+    @Autowired
+    public ImportWatchService(KeycloakImportProvider keycloakImportProvider, ImportConfigProperties importConfigProperties) {
+        this.keycloakImportProvider = keycloakImportProvider;
+        this.importConfigProperties = importConfigProperties;
+    }
+
+    /**
+     * Blocks until the current thread is interrupted and passes the changed files of each burst of changes to the given consumer.
+     * An empty set is passed if the file system dropped events, so the consumer can not know which files changed.
+     * A failing consumer is logged and does not stop watching.
+     */
+    public void watch(Collection<String> locations, Consumer<Set<Path>> onChange) {
+        Set<Path> directories = keycloakImportProvider.getLocalDirectories(locations);
+        if (directories.isEmpty()) {
+            throw new ImportProcessingException("Unable to watch locations %s, no local directories found", locations);
+        }
+
+        // directories created later match recursive locations as well
+        boolean recursive = locations.stream().anyMatch(location -> location.contains("**"));
+
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            for (Path directory : directories) {
+                register(watchService, directory);
+            }
+
+            logger.info("Watching directories {} for changes", directories);
+
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<Path> changedFiles = awaitChanges(watchService, recursive);
+
+                try {
+                    onChange.accept(changedFiles);
+                } catch (RuntimeException e) {
+                    logger.error("Error during import of changed files {}: {}", changedFiles, e.getMessage(), e);
+                }
+            }
+        } catch (IOException e) {
+            throw new ImportProcessingException("Unable to watch locations " + locations, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void register(WatchService watchService, Path directory) throws IOException {
+        directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    /**
+     * Registers the created directory and all directories below it, and returns the files within, which were created before the
+     * directories were registered.
+     */
+    private static Set<Path> registerCreatedDirectory(WatchService watchService, Path createdDirectory) throws IOException {
+        Set<Path> createdFiles = new LinkedHashSet<>();
+
+        try (Stream<Path> paths = Files.walk(createdDirectory)) {
+            for (Path path : paths.toList()) {
+                if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    register(watchService, path);
+                } else {
+                    createdFiles.add(path);
+                }
+            }
+        }
+
+        logger.debug("Watching created directory '{}' for changes", createdDirectory);
+        return createdFiles;
+    }
+
+    Set<Path> awaitChanges(WatchService watchService, boolean registerCreatedDirectories) throws InterruptedException {
+        Set<Path> changedFiles = new LinkedHashSet<>();
+        boolean eventsDropped = false;
+        long debounceMillis = importConfigProperties.getWatch().getDebounce().toMillis();
+
+        // collect events until no further change happens within the debounce time, e.g. while an editor or git writes files
+        WatchKey watchKey = watchService.take();
+        while (watchKey != null) {
+            Path directory = (Path) watchKey.watchable();
+
+            for (WatchEvent<?> event : watchKey.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    logger.warn("File system dropped change events of directory '{}'", directory);
+                    eventsDropped = true;
+                } else {
+                    Path changedFile = directory.resolve((Path) event.context());
+                    changedFiles.add(changedFile);
+
+                    if (registerCreatedDirectories && event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                            && Files.isDirectory(changedFile, LinkOption.NOFOLLOW_LINKS)) {
+                        try {
+                            changedFiles.addAll(registerCreatedDirectory(watchService, changedFile));
+                        } catch (IOException e) {
+                            // the content of the directory is unknown, e.g. it was removed again in the meantime
+                            logger.warn("Unable to watch created directory '{}': {}", changedFile, e.getMessage());
+                            eventsDropped = true;
+                        }
+                    }
+                }
+            }
+
+            watchKey.reset();
+            watchKey = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+        }
+
+        if (eventsDropped) {
+            return Set.of();
+        }
+
+        logger.debug("Detected changes of files {}", changedFiles);
+        return changedFiles;
+    }
+}
@@ -0,0 +1,71 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.util;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.codec.digest.HmacAlgorithms;
+import org.apache.commons.codec.digest.HmacUtils;
+
+public class FingerprintUtil {
+    private static final int FINGERPRINT_LENGTH = 16;
+
+    private static final ObjectMapper canonicalMapper = JsonMapper.builder()
+            .serializationInclusion(JsonInclude.Include.NON_NULL)
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .build();
+
+    private FingerprintUtil() {
+    }
+
+    /**
+     * Returns a short hash of the key and the canonical JSON of the representation.
+     * Property and map key order do not change the fingerprint, list order does.
+     */
+    public static String fingerprint(String key, Object representation) {
+        return fingerprint(null, key, representation);
+    }
+
+    /**
+     * Like {@link #fingerprint(String, Object)}, but returns a HMAC with the given secret if it is not null. Fingerprints of
+     * representations which contain secrets must be keyed, otherwise the secrets can be guessed by comparing fingerprints.
+     */
+    public static String fingerprint(String secret, String key, Object representation) {
+        try {
+            String value = key + "\n" + canonicalMapper.writeValueAsString(representation);
+            String hash = secret == null
+                    ? DigestUtils.sha256Hex(value)
+                    : new HmacUtils(HmacAlgorithms.HMAC_SHA_256, secret).hmacHex(value);
+
+            return hash.substring(0, FINGERPRINT_LENGTH);
+        } catch (JsonProcessingException e) {
+            throw new ImportProcessingException(e);
+        }
+    }
+}
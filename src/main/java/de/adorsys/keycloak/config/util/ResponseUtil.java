@@ -20,7 +20,9 @@
 
 package de.adorsys.keycloak.config.util;
 
+import jakarta.ws.rs.ProcessingException;
 import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
 
 public class ResponseUtil {
     private ResponseUtil() {
@@ -35,4 +37,17 @@ public class ResponseUtil {
         }
         return error.getMessage() + errorBody;
     }
+
+    /**
+     * Returns true if the request may succeed when sent again, i.e. it failed with a connection error, a server error or
+     * because of too many requests. Validation and conflict errors are not transient.
+     */
+    public static boolean isTransientError(Throwable error) {
+        if (error instanceof ProcessingException) return true;
+        if (!(error instanceof WebApplicationException webApplicationException)) return false;
+
+        int status = webApplicationException.getResponse().getStatus();
+        return status == Response.Status.TOO_MANY_REQUESTS.getStatusCode()
+                || Response.Status.Family.familyOf(status) == Response.Status.Family.SERVER_ERROR;
+    }
 }
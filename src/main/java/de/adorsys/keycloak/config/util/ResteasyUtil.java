@@ -20,27 +20,87 @@
 
 package de.adorsys.keycloak.config.util;
 
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
+import de.adorsys.keycloak.config.properties.KeycloakConfigProperties.KeycloakHttpClientProperties;
+import de.adorsys.keycloak.config.util.resteasy.AdaptiveConcurrencyLimiter;
 import de.adorsys.keycloak.config.util.resteasy.CookieClientFilter;
+import de.adorsys.keycloak.config.util.resteasy.JdkHttpClientEngine;
+import de.adorsys.keycloak.config.util.resteasy.LimitingClientHttpEngine;
+import org.jboss.resteasy.client.jaxrs.ClientHttpEngine;
 import org.jboss.resteasy.client.jaxrs.ResteasyClient;
 import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.client.jaxrs.internal.ClientConfiguration;
 import org.jboss.resteasy.client.jaxrs.internal.ResteasyClientBuilderImpl;
 
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.Socket;
 import java.net.URL;
+import java.net.http.HttpClient;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509ExtendedTrustManager;
 
 public class ResteasyUtil {
     private ResteasyUtil() {
     }
 
-    public static ResteasyClient getClient(boolean sslVerification, URL httpProxy, Duration connectTimeout, Duration readTimeout) {
-        ResteasyClientBuilder clientBuilder = new ResteasyClientBuilderImpl();
+    public static ResteasyClient getClient(
+            boolean sslVerification,
+            URL httpProxy,
+            Duration connectTimeout,
+            Duration readTimeout,
+            KeycloakHttpClientProperties httpClient,
+            AdaptiveConcurrencyLimiter concurrencyLimiter,
+            Object... additionalProviders
+    ) {
+        ResteasyClientBuilder clientBuilder = concurrencyLimiter != null
+                ? new LimitingClientBuilder(concurrencyLimiter)
+                : new ResteasyClientBuilderImpl();
         clientBuilder
-                .connectionPoolSize(10)
                 .connectTimeout(connectTimeout.get(ChronoUnit.NANOS), TimeUnit.NANOSECONDS)
                 .readTimeout(readTimeout.get(ChronoUnit.NANOS), TimeUnit.NANOSECONDS);
 
+        if (httpClient.getEngine() == KeycloakHttpClientProperties.HttpEngine.JDK) {
+            clientBuilder.httpEngine(createJdkEngine(sslVerification, httpProxy, connectTimeout, readTimeout));
+        } else {
+            configureApacheEngine(clientBuilder, sslVerification, httpProxy, httpClient);
+        }
+
+        clientBuilder.register(CookieClientFilter.class);
+
+        for (Object provider : additionalProviders) {
+            clientBuilder.register(provider);
+        }
+
+        return clientBuilder.build();
+    }
+
+    private static void configureApacheEngine(
+            ResteasyClientBuilder clientBuilder,
+            boolean sslVerification,
+            URL httpProxy,
+            KeycloakHttpClientProperties httpClient
+    ) {
+        clientBuilder.connectionPoolSize(httpClient.getConnectionPoolSize());
+
+        if (httpClient.getMaxConnectionsPerRoute() > 0) {
+            clientBuilder.maxPooledPerRoute(httpClient.getMaxConnectionsPerRoute());
+        }
+
+        if (httpClient.getConnectionTtl() != null) {
+            clientBuilder.connectionTTL(httpClient.getConnectionTtl().toMillis(), TimeUnit.MILLISECONDS);
+        }
+
         if (sslVerification) {
             clientBuilder
                     .disableTrustManager()
@@ -59,9 +119,105 @@ public class ResteasyUtil {
                     Integer.parseInt(System.getProperty("http.proxyPort", "0"))
             );
         }
+    }
 
-        clientBuilder.register(CookieClientFilter.class);
+    /**
+     * Creates the engine based on {@link HttpClient}. It multiplexes requests over HTTP/2 connections, so the connection pool
+     * settings of {@link KeycloakHttpClientProperties} apply to the Apache engine only.
+     */
+    private static JdkHttpClientEngine createJdkEngine(
+            boolean sslVerification,
+            URL httpProxy,
+            Duration connectTimeout,
+            Duration readTimeout
+    ) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout);
 
-        return clientBuilder.build();
+        if (sslVerification) {
+            builder.sslContext(createTrustAllSslContext());
+        }
+
+        if (httpProxy != null) {
+            builder.proxy(ProxySelector.of(new InetSocketAddress(httpProxy.getHost(), httpProxy.getPort())));
+        } else {
+            // honors the http.proxyHost and https.proxyHost system properties
+            builder.proxy(ProxySelector.getDefault());
+        }
+
+        return new JdkHttpClientEngine(builder.build(), readTimeout);
+    }
+
+    /**
+     * Creates an SSL context which trusts all certificates and hosts, like the Apache engine without trust manager and
+     * with {@link ResteasyClientBuilder.HostnameVerificationPolicy#ANY}. {@link HttpClient} has no hostname verifier, but
+     * leaves the hostname verification to an {@link X509ExtendedTrustManager}.
+     */
+    @SuppressWarnings("java:S4830")
+    private static SSLContext createTrustAllSslContext() {
+        TrustManager trustAll = new X509ExtendedTrustManager() {
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) {
+            }
+
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) {
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {
+            }
+
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+        };
+
+        try {
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, new TrustManager[]{trustAll}, new SecureRandom());
+            return sslContext;
+        } catch (GeneralSecurityException e) {
+            throw new ImportProcessingException("Unable to disable SSL verification", e);
+        }
+    }
+
+    /**
+     * Wraps the engine of the client, either the configured one or the Apache engine the builder creates itself, with a
+     * {@link LimitingClientHttpEngine}.
+     */
+    private static final class LimitingClientBuilder extends ResteasyClientBuilderImpl {
+        private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+        private LimitingClientBuilder(AdaptiveConcurrencyLimiter concurrencyLimiter) {
+            this.concurrencyLimiter = concurrencyLimiter;
+        }
+
+        @Override
+        protected ResteasyClient createResteasyClient(
+                ClientHttpEngine engine,
+                ExecutorService executor,
+                boolean cleanupExecutor,
+                ScheduledExecutorService scheduledExecutorService,
+                ClientConfiguration config
+        ) {
+            return super.createResteasyClient(
+                    new LimitingClientHttpEngine(engine, concurrencyLimiter), executor, cleanupExecutor, scheduledExecutorService, config
+            );
+        }
     }
 }
@@ -0,0 +1,130 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.util.resteasy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the concurrent calls to Keycloak with additive increase and multiplicative decrease (AIMD). The limit grows by
+ * one while Keycloak answers fast and the limit is used, and shrinks by 10% on a response that signals overload. Calls
+ * which were already in flight when the limit shrank do not shrink it again, so a burst of overloaded responses counts
+ * as one congestion signal.
+ */
+public class AdaptiveConcurrencyLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+
+    // a lock instead of synchronized, which pins virtual threads while waiting
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+
+    private int limit;
+    private int inflight;
+    private long acquired;
+    // calls acquired before were in flight when the limit shrank the last time
+    private long lastDecrease;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold) {
+        this.minLimit = minLimit;
+        this.maxLimit = Math.max(minLimit, maxLimit);
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.limit = Math.clamp(initialLimit, this.minLimit, this.maxLimit);
+    }
+
+    /**
+     * Waits until fewer calls than the current limit are in flight.
+     *
+     * @return the permit to pass to {@link #release(Permit, long, boolean)}
+     */
+    public Permit acquire() {
+        lock.lock();
+        try {
+            while (inflight >= limit) {
+                permitReleased.awaitUninterruptibly();
+            }
+
+            return new Permit(inflight++, acquired++);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(Permit permit, long latencyNanos, boolean overloaded) {
+        lock.lock();
+        try {
+            inflight--;
+
+            if (overloaded || latencyNanos > latencyThresholdNanos) {
+                decrease(permit);
+            } else if ((permit.inflight() + 1) * 2 >= limit && limit < maxLimit) {
+                // only grow if the limit is actually used, otherwise it grows without bounds while idle
+                limit++;
+            }
+
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void decrease(Permit permit) {
+        if (permit.sequence() < lastDecrease) {
+            return;
+        }
+
+        lastDecrease = acquired;
+
+        int newLimit = Math.max(minLimit, (int) (limit * BACKOFF_RATIO));
+        if (newLimit != limit) {
+            logger.debug("Keycloak is overloaded, decrease concurrency limit to {}", newLimit);
+            limit = newLimit;
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A call to Keycloak.
+     *
+     * @param inflight the calls in flight before this one
+     * @param sequence the number of calls acquired before this one
+     */
+    public record Permit(int inflight, long sequence) {
+    }
+}
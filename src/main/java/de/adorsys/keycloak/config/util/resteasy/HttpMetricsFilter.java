@@ -0,0 +1,204 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.util.resteasy;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.client.ClientResponseContext;
+import jakarta.ws.rs.client.ClientResponseFilter;
+import jakarta.ws.rs.core.HttpHeaders;
+
+/**
+ * Counts the calls to the Keycloak API, grouped by HTTP method and URI template like {@code /admin/realms/{realm}/clients/{id}},
+ * and records their response sizes and a latency histogram.
+ */
+@Component
+@ConditionalOnProperty(prefix = "run", name = "operation", havingValue = "IMPORT", matchIfMissing = true)
+public class HttpMetricsFilter implements ClientRequestFilter, ClientResponseFilter {
+    public static final List<Long> LATENCY_BUCKETS_MILLIS = List.of(5L, 10L, 25L, 50L, 100L, 250L, 500L, 1000L, 2500L, 5000L, 10000L);
+
+    private static final String START_TIME_PROPERTY = HttpMetricsFilter.class.getName() + ".startTime";
+
+    private static final Pattern ID_PATTERN = Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+    // path segments which are followed by a name instead of an id
+    private static final Map<String, String> NAMED_SEGMENTS = Map.of(
+            "realms", "{realm}",
+            "roles", "{role}",
+            "flows", "{flow}",
+            "instances", "{alias}",
+            "required-actions", "{alias}",
+            "localization", "{locale}"
+    );
+
+    private static final Set<String> NAME_PLACEHOLDERS = Set.copyOf(NAMED_SEGMENTS.values());
+
+    private final Map<String, CallMetrics> metrics = new ConcurrentHashMap<>();
+
+    @Override
+    public void filter(ClientRequestContext requestContext) {
+        requestContext.setProperty(START_TIME_PROPERTY, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) {
+        Object startTime = requestContext.getProperty(START_TIME_PROPERTY);
+        if (!(startTime instanceof Long start)) return;
+
+        long durationNanos = System.nanoTime() - start;
+        String key = requestContext.getMethod() + " " + toTemplate(requestContext.getUri().getRawPath());
+
+        metrics.computeIfAbsent(key, ignored -> new CallMetrics()).record(
+                durationNanos,
+                getRequestLength(requestContext),
+                Math.max(responseContext.getLength(), 0),
+                responseContext.getStatus() >= 400
+        );
+    }
+
+    /**
+     * Returns the collected metrics by "METHOD /uri/template", sorted by key.
+     */
+    public Map<String, CallMetrics> getMetrics() {
+        return new TreeMap<>(metrics);
+    }
+
+    public long getTotalCount() {
+        return metrics.values().stream().mapToLong(call -> call.count.sum()).sum();
+    }
+
+    public void reset() {
+        metrics.clear();
+    }
+
+    static String toTemplate(String path) {
+        String[] segments = path.split("/");
+        StringBuilder template = new StringBuilder();
+        String previousSegment = null;
+
+        for (String segment : segments) {
+            if (segment.isEmpty()) continue;
+
+            String templateSegment = segment;
+            if (ID_PATTERN.matcher(segment).matches()) {
+                templateSegment = "{id}";
+            } else if (previousSegment != null && NAMED_SEGMENTS.containsKey(previousSegment)) {
+                templateSegment = NAMED_SEGMENTS.get(previousSegment);
+            } else if ("{locale}".equals(previousSegment)) {
+                templateSegment = "{key}";
+            }
+
+            template.append('/').append(templateSegment);
+            previousSegment = NAME_PLACEHOLDERS.contains(templateSegment) ? templateSegment : segment;
+        }
+
+        return template.isEmpty() ? "/" : template.toString();
+    }
+
+    private static long getRequestLength(ClientRequestContext requestContext) {
+        String contentLength = requestContext.getHeaderString(HttpHeaders.CONTENT_LENGTH);
+
+        try {
+            return contentLength == null ? 0 : Long.parseLong(contentLength);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    public static final class CallMetrics {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errorCount = new LongAdder();
+        private final LongAdder requestBytes = new LongAdder();
+        private final LongAdder responseBytes = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder[] latencyBuckets = new LongAdder[LATENCY_BUCKETS_MILLIS.size()];
+
+        private CallMetrics() {
+            for (int index = 0; index < latencyBuckets.length; index++) {
+                latencyBuckets[index] = new LongAdder();
+            }
+        }
+
+        private void record(long durationNanos, long requestLength, long responseLength, boolean error) {
+            count.increment();
+            if (error) errorCount.increment();
+            requestBytes.add(requestLength);
+            responseBytes.add(responseLength);
+            totalNanos.add(durationNanos);
+
+            long durationMillis = durationNanos / 1_000_000;
+            for (int index = 0; index < latencyBuckets.length; index++) {
+                if (durationMillis <= LATENCY_BUCKETS_MILLIS.get(index)) {
+                    latencyBuckets[index].increment();
+                    break;
+                }
+            }
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getErrorCount() {
+            return errorCount.sum();
+        }
+
+        public long getRequestBytes() {
+            return requestBytes.sum();
+        }
+
+        public long getResponseBytes() {
+            return responseBytes.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        /**
+         * Returns the cumulative number of calls for each bucket of {@link #LATENCY_BUCKETS_MILLIS}.
+         * Calls slower than the last bucket are only part of {@link #getCount()}.
+         */
+        public long[] getCumulativeLatencyBuckets() {
+            long[] cumulativeBuckets = new long[latencyBuckets.length];
+            long sum = 0;
+
+            for (int index = 0; index < latencyBuckets.length; index++) {
+                sum += latencyBuckets[index].sum();
+                cumulativeBuckets[index] = sum;
+            }
+
+            return cumulativeBuckets;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.util.resteasy;
+
+import org.jboss.resteasy.client.jaxrs.ClientHttpEngine;
+import org.jboss.resteasy.client.jaxrs.internal.ClientInvocation;
+import org.jboss.resteasy.client.jaxrs.internal.ClientResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.client.Invocation;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * RESTEasy client engine based on {@link HttpClient}. Unlike the Apache engine, it negotiates HTTP/2 and multiplexes
+ * parallel requests over a single connection, if Keycloak or its ingress supports it.
+ */
+public class JdkHttpClientEngine implements ClientHttpEngine {
+    // set by HttpClient itself, see jdk.internal.net.http.common.Utils#DISALLOWED_HEADERS_SET
+    private static final Set<String> RESTRICTED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        RESTRICTED_HEADERS.addAll(List.of("connection", "content-length", "expect", "host", "upgrade"));
+    }
+
+    private final HttpClient httpClient;
+    private final Duration readTimeout;
+
+    public JdkHttpClientEngine(HttpClient httpClient, Duration readTimeout) {
+        this.httpClient = httpClient;
+        this.readTimeout = readTimeout;
+    }
+
+    @Override
+    public SSLContext getSslContext() {
+        return httpClient.sslContext();
+    }
+
+    @Override
+    public HostnameVerifier getHostnameVerifier() {
+        return null;
+    }
+
+    @Override
+    public Response invoke(Invocation invocation) {
+        ClientInvocation request = (ClientInvocation) invocation;
+
+        HttpResponse<InputStream> httpResponse;
+        try {
+            httpResponse = httpClient.send(createRequest(request), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException e) {
+            throw new ProcessingException("Unable to invoke request " + request.getMethod() + " " + request.getUri(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessingException("Interrupted while invoking request " + request.getMethod() + " " + request.getUri(), e);
+        }
+
+        ClientResponse response = new JdkClientResponse(request, httpResponse.body());
+        response.setProperties(request.getMutableProperties());
+        response.setStatus(httpResponse.statusCode());
+        response.setHeaders(getHeaders(httpResponse));
+        return response;
+    }
+
+    @Override
+    public void close() {
+        httpClient.close();
+    }
+
+    private HttpRequest createRequest(ClientInvocation request) throws IOException {
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.noBody();
+
+        // the body is written first, because message body writers may still add headers like the content type
+        if (request.getEntity() != null) {
+            ByteArrayOutputStream entity = new ByteArrayOutputStream();
+            request.writeRequestBody(entity);
+            body = HttpRequest.BodyPublishers.ofByteArray(entity.toByteArray());
+        }
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request.getUri())
+                .timeout(readTimeout)
+                .method(request.getMethod(), body);
+
+        for (Map.Entry<String, List<String>> header : request.getHeaders().asMap().entrySet()) {
+            if (RESTRICTED_HEADERS.contains(header.getKey())) continue;
+
+            for (String value : header.getValue()) {
+                builder.header(header.getKey(), value);
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static MultivaluedMap<String, String> getHeaders(HttpResponse<?> httpResponse) {
+        MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+        httpResponse.headers().map().forEach(headers::addAll);
+        return headers;
+    }
+
+    private static final class JdkClientResponse extends ClientResponse {
+        private InputStream stream;
+
+        private JdkClientResponse(ClientInvocation request, InputStream stream) {
+            super(request.getClientConfiguration(), request.getTracingLogger());
+            this.stream = stream;
+        }
+
+        @Override
+        protected InputStream getInputStream() {
+            return stream;
+        }
+
+        @Override
+        protected void setInputStream(InputStream stream) {
+            this.stream = stream;
+        }
+
+        @Override
+        public void releaseConnection() throws IOException {
+            releaseConnection(false);
+        }
+
+        @Override
+        public void releaseConnection(boolean consumeInputStream) throws IOException {
+            if (stream == null) return;
+
+            try (InputStream closingStream = stream) {
+                if (consumeInputStream) {
+                    closingStream.transferTo(OutputStream.nullOutputStream());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.util.resteasy;
+
+import org.jboss.resteasy.client.jaxrs.ClientHttpEngine;
+
+import java.util.Set;
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+
+import jakarta.ws.rs.client.Invocation;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Passes each call to Keycloak through an {@link AdaptiveConcurrencyLimiter}. Failed calls and 429, 503 and 504 responses
+ * lower the limit.
+ */
+public class LimitingClientHttpEngine implements ClientHttpEngine {
+    private static final Set<Integer> OVERLOADED_STATUS = Set.of(429, 503, 504);
+
+    private final ClientHttpEngine delegate;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public LimitingClientHttpEngine(ClientHttpEngine delegate, AdaptiveConcurrencyLimiter limiter) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public SSLContext getSslContext() {
+        return delegate.getSslContext();
+    }
+
+    @Override
+    public HostnameVerifier getHostnameVerifier() {
+        return delegate.getHostnameVerifier();
+    }
+
+    @Override
+    public Response invoke(Invocation request) {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+        long start = System.nanoTime();
+        boolean overloaded = true;
+
+        try {
+            Response response = delegate.invoke(request);
+            overloaded = OVERLOADED_STATUS.contains(response.getStatus());
+            return response;
+        } finally {
+            limiter.release(permit, System.nanoTime() - start, overloaded);
+        }
+    }
+
+    @Override
+    public boolean isFollowRedirects() {
+        return delegate.isFollowRedirects();
+    }
+
+    @Override
+    public void setFollowRedirects(boolean followRedirects) {
+        delegate.setFollowRedirects(followRedirects);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,145 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config;
+
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
+import de.adorsys.keycloak.config.extensions.GithubActionsExtension;
+import de.adorsys.keycloak.config.model.KeycloakImport;
+import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportFilesProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportWatchProperties;
+import de.adorsys.keycloak.config.provider.KeycloakImportProvider;
+import de.adorsys.keycloak.config.service.RealmImportService;
+import de.adorsys.keycloak.config.service.report.ImportReportService;
+import de.adorsys.keycloak.config.service.watch.ImportWatchService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@ExtendWith(GithubActionsExtension.class)
+class KeycloakConfigRunnerTest {
+    private static final List<String> LOCATIONS = List.of("file:realms/*");
+
+    private final KeycloakImportProvider keycloakImportProvider = mock(KeycloakImportProvider.class);
+    private final RealmImportService realmImportService = mock(RealmImportService.class);
+    private final ImportConfigProperties importConfigProperties = mock(ImportConfigProperties.class);
+    private final ImportReportService importReportService = mock(ImportReportService.class);
+
+    private final KeycloakConfigRunner runner = new KeycloakConfigRunner(
+            keycloakImportProvider, realmImportService, importConfigProperties, mock(ImportWatchService.class), importReportService);
+
+    @Test
+    void run_shouldImportOtherRealmsIfRealmFailsConcurrently() {
+        RealmImport realmA = realmImport("a", "1-a.json");
+        RealmImport realmB = realmImport("b", "2-b.json");
+        RealmImport realmAClients = realmImport("a", "3-a-clients.json");
+        RealmImport realmC = realmImport("c", "4-c.json");
+        setUp(4, realmA, realmB, realmAClients, realmC);
+        doThrow(new ImportProcessingException("invalid realm")).when(realmImportService).doImport(realmB);
+
+        assertThatThrownBy(() -> runner.run())
+                .isInstanceOf(ImportProcessingException.class)
+                .hasMessage("Import of realms [b] failed");
+
+        InOrder realmAOrder = inOrder(realmImportService);
+        realmAOrder.verify(realmImportService).doImport(realmA);
+        realmAOrder.verify(realmImportService).doImport(realmAClients);
+        verify(realmImportService).doImport(realmC);
+        verify(importReportService).write();
+        assertThat(runner.getExitCode()).isEqualTo(1);
+    }
+
+    @Test
+    void run_shouldStopAtFirstFailingFileSequentially() {
+        RealmImport realmA = realmImport("a", "1-a.json");
+        RealmImport realmB = realmImport("b", "2-b.json");
+        RealmImport realmC = realmImport("c", "3-c.json");
+        setUp(1, realmA, realmB, realmC);
+        doThrow(new ImportProcessingException("invalid realm")).when(realmImportService).doImport(realmB);
+
+        assertThatThrownBy(() -> runner.run()).hasMessage("invalid realm");
+
+        verify(realmImportService).doImport(realmA);
+        verify(realmImportService, never()).doImport(realmC);
+        assertThat(runner.getExitCode()).isEqualTo(1);
+    }
+
+    @Test
+    void run_shouldNotHideImportFailureIfReportCannotBeWritten() {
+        RealmImport realmA = realmImport("a", "1-a.json");
+        setUp(1, realmA);
+        ImportProcessingException writeFailure = new ImportProcessingException("Unable to write import report");
+        doThrow(new ImportProcessingException("invalid realm")).when(realmImportService).doImport(realmA);
+        doThrow(writeFailure).when(importReportService).write();
+
+        assertThatThrownBy(() -> runner.run())
+                .hasMessage("invalid realm")
+                .hasSuppressedException(writeFailure);
+
+        assertThat(runner.getExitCode()).isEqualTo(1);
+    }
+
+    @Test
+    void run_shouldFailIfReportCannotBeWrittenAfterImport() {
+        RealmImport realmA = realmImport("a", "1-a.json");
+        setUp(1, realmA);
+        doThrow(new ImportProcessingException("Unable to write import report")).when(importReportService).write();
+
+        assertThatThrownBy(() -> runner.run()).hasMessage("Unable to write import report");
+
+        verify(realmImportService).doImport(realmA);
+    }
+
+    private void setUp(int realmConcurrency, RealmImport... realmImports) {
+        when(importConfigProperties.getFiles()).thenReturn(new ImportFilesProperties(LOCATIONS, List.of(), false));
+        when(importConfigProperties.getWatch()).thenReturn(new ImportWatchProperties(false, Duration.ofMillis(500)));
+        when(importConfigProperties.getRealmConcurrency()).thenReturn(realmConcurrency);
+
+        Map<String, List<RealmImport>> files = new LinkedHashMap<>();
+        for (RealmImport realmImport : realmImports) {
+            files.put(realmImport.getSource(), List.of(realmImport));
+        }
+        when(keycloakImportProvider.readFromLocations(LOCATIONS)).thenReturn(new KeycloakImport(Map.of(LOCATIONS.get(0), files)));
+    }
+
+    private static RealmImport realmImport(String realm, String file) {
+        RealmImport realmImport = new RealmImport();
+        realmImport.setRealm(realm);
+        realmImport.setSource("file:realms/" + file);
+        return realmImport;
+    }
+}
@@ -23,6 +23,8 @@ package de.adorsys.keycloak.config.properties;
 import de.adorsys.keycloak.config.extensions.GithubActionsExtension;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportManagedProperties.ImportManagedPropertiesValues;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportBehaviorsProperties.ChecksumChangedOption;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportRemoteStateProperties;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,8 +33,16 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.time.Duration;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 
 // From: https://tuhrig.de/testing-configurationproperties-in-spring-boot/
@@ -43,6 +53,10 @@ import static org.hamcrest.Matchers.is;
         "spring.main.log-startup-info=false",
 
         "import.parallel=true",
+        "import.parallel-max-inflight=32",
+        "import.user-index-threshold=1000",
+        "import.stage-concurrency=4",
+        "import.realm-concurrency=8",
         "import.validate=false",
         "import.files.locations=other",
         "import.files.include-hidden-files=true",
@@ -54,9 +68,23 @@ import static org.hamcrest.Matchers.is;
         "import.var-substitution.suffix=}",
         "import.cache.enabled=false",
         "import.cache.key=custom",
+        "import.cache.skip-unchanged-sections=true",
         "import.remote-state.enabled=false",
         "import.remote-state.encryption-key=password",
         "import.remote-state.encryption-salt=0123456789ABCDEFabcdef",
+        "import.remote-state.skip-unchanged-entities=true",
+        "import.remote-state.full-reconcile-interval=1h",
+        "import.remote-state.skip-unchanged-client-secrets=true",
+        "import.watch.enabled=true",
+        "import.watch.debounce=2s",
+        "import.report.path=report.json",
+        "import.report.prometheus-path=report.prom",
+        "import.journal.path=journal",
+        "import.journal.resume=true",
+        "import.bulk-users.enabled=true",
+        "import.bulk-users.batch-size=100",
+        "import.bulk-users.max-retries=5",
+        "import.user-files.chunk-size=250",
         "import.managed.authentication-flow=no-delete",
         "import.managed.group=no-delete",
         "import.managed.required-action=no-delete",
@@ -86,6 +114,10 @@ class ImportConfigPropertiesTest {
     void shouldPopulateConfigurationProperties() {
         assertThat(properties.isValidate(), is(false));
         assertThat(properties.isParallel(), is(true));
+        assertThat(properties.getParallelMaxInflight(), is(32));
+        assertThat(properties.getUserIndexThreshold(), is(1000));
+        assertThat(properties.getStageConcurrency(), is(4));
+        assertThat(properties.getRealmConcurrency(), is(8));
         assertThat(properties.getFiles().getLocations(), contains("other"));
         assertThat(properties.getFiles().getExcludes(), contains("exclude1", "exclude2"));
         assertThat(properties.getFiles().isIncludeHiddenFiles(), is(true));
@@ -96,9 +128,23 @@ class ImportConfigPropertiesTest {
         assertThat(properties.getVarSubstitution().getSuffix(), is("}"));
         assertThat(properties.getCache().isEnabled(), is(false));
         assertThat(properties.getCache().getKey(), is("custom"));
+        assertThat(properties.getCache().isSkipUnchangedSections(), is(true));
         assertThat(properties.getRemoteState().isEnabled(), is(false));
         assertThat(properties.getRemoteState().getEncryptionKey(), is("password"));
         assertThat(properties.getRemoteState().getEncryptionSalt(), is("0123456789ABCDEFabcdef"));
+        assertThat(properties.getRemoteState().isSkipUnchangedEntities(), is(true));
+        assertThat(properties.getRemoteState().getFullReconcileInterval(), is(Duration.ofHours(1)));
+        assertThat(properties.getRemoteState().isSkipUnchangedClientSecrets(), is(true));
+        assertThat(properties.getWatch().isEnabled(), is(true));
+        assertThat(properties.getWatch().getDebounce(), is(Duration.ofSeconds(2)));
+        assertThat(properties.getReport().getPath(), is("report.json"));
+        assertThat(properties.getReport().getPrometheusPath(), is("report.prom"));
+        assertThat(properties.getJournal().getPath(), is("journal"));
+        assertThat(properties.getJournal().isResume(), is(true));
+        assertThat(properties.getBulkUsers().isEnabled(), is(true));
+        assertThat(properties.getBulkUsers().getBatchSize(), is(100));
+        assertThat(properties.getBulkUsers().getMaxRetries(), is(5));
+        assertThat(properties.getUserFiles().getChunkSize(), is(250));
         assertThat(properties.getManaged().getAuthenticationFlow(), is(ImportManagedPropertiesValues.NO_DELETE));
         assertThat(properties.getManaged().getGroup(), is(ImportManagedPropertiesValues.NO_DELETE));
         assertThat(properties.getManaged().getRequiredAction(), is(ImportManagedPropertiesValues.NO_DELETE));
@@ -119,6 +165,24 @@ class ImportConfigPropertiesTest {
         assertThat(properties.getBehaviors().getChecksumChanged(), is(ChecksumChangedOption.FAIL));
     }
 
+    @Test
+    void remoteState_shouldRequireEncryptionKeyToSkipUnchangedClientSecrets() {
+        try (ValidatorFactory validatorFactory = Validation.byDefaultProvider().configure()
+                .messageInterpolator(new ParameterMessageInterpolator())
+                .buildValidatorFactory()) {
+            Validator validator = validatorFactory.getValidator();
+
+            assertThat(validator.validate(remoteState(null, true)), hasSize(1));
+            assertThat(validator.validate(remoteState("password", true)), is(empty()));
+            assertThat(validator.validate(remoteState(null, false)), is(empty()));
+        }
+    }
+
+    private static ImportRemoteStateProperties remoteState(String encryptionKey, boolean skipUnchangedClientSecrets) {
+        return new ImportRemoteStateProperties(
+                true, encryptionKey, "2B521C795FBE2F2425DB150CD3700BA9", false, Duration.ofHours(24), skipUnchangedClientSecrets);
+    }
+
     @EnableConfigurationProperties(ImportConfigProperties.class)
     public static class TestConfiguration {
         // nothing
@@ -21,6 +21,7 @@
 package de.adorsys.keycloak.config.properties;
 
 import de.adorsys.keycloak.config.extensions.GithubActionsExtension;
+import de.adorsys.keycloak.config.properties.KeycloakConfigProperties.KeycloakHttpClientProperties.HttpEngine;
 import java.net.URI;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -54,7 +55,16 @@ import static org.hamcrest.core.Is.is;
         "keycloak.read-timeout=20s",
         "keycloak.availability-check.enabled=true",
         "keycloak.availability-check.timeout=60s",
-        "keycloak.availability-check.retry-delay=10s"
+        "keycloak.availability-check.retry-delay=10s",
+        "keycloak.http-client.engine=jdk",
+        "keycloak.http-client.connection-pool-size=50",
+        "keycloak.http-client.max-connections-per-route=40",
+        "keycloak.http-client.connection-ttl=5m",
+        "keycloak.adaptive-concurrency.enabled=true",
+        "keycloak.adaptive-concurrency.initial-limit=4",
+        "keycloak.adaptive-concurrency.min-limit=2",
+        "keycloak.adaptive-concurrency.max-limit=32",
+        "keycloak.adaptive-concurrency.latency-threshold=3s"
 })
 class KeycloakConfigPropertiesTest {
 
@@ -75,6 +85,15 @@ class KeycloakConfigPropertiesTest {
         assertThat(properties.getAvailabilityCheck().isEnabled(), is(true));
         assertThat(properties.getAvailabilityCheck().getTimeout(), is(Duration.ofSeconds(60L)));
         assertThat(properties.getAvailabilityCheck().getRetryDelay(), is(Duration.ofSeconds(10L)));
+        assertThat(properties.getHttpClient().getEngine(), is(HttpEngine.JDK));
+        assertThat(properties.getHttpClient().getConnectionPoolSize(), is(50));
+        assertThat(properties.getHttpClient().getMaxConnectionsPerRoute(), is(40));
+        assertThat(properties.getHttpClient().getConnectionTtl(), is(Duration.ofMinutes(5)));
+        assertThat(properties.getAdaptiveConcurrency().isEnabled(), is(true));
+        assertThat(properties.getAdaptiveConcurrency().getInitialLimit(), is(4));
+        assertThat(properties.getAdaptiveConcurrency().getMinLimit(), is(2));
+        assertThat(properties.getAdaptiveConcurrency().getMaxLimit(), is(32));
+        assertThat(properties.getAdaptiveConcurrency().getLatencyThreshold(), is(Duration.ofSeconds(3)));
     }
 
     @EnableConfigurationProperties(KeycloakConfigProperties.class)
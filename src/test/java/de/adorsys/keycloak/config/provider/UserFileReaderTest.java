@@ -0,0 +1,113 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.provider;
+
+import de.adorsys.keycloak.config.exception.InvalidImportException;
+import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.model.UserFileImport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserFileReaderTest {
+    @TempDir
+    Path tempDir;
+
+    private final UserFileReader userFileReader = new UserFileReader(new PathMatchingResourcePatternResolver());
+
+    private final RealmImport realmImport = new RealmImport();
+
+    private final List<List<UserRepresentation>> chunks = new ArrayList<>();
+
+    @BeforeEach
+    void init() {
+        realmImport.setRealm("realm");
+        realmImport.setSource(tempDir.resolve("realm.yaml").toUri().toString());
+    }
+
+    @Test
+    void shouldReadNdjsonInChunks() throws IOException {
+        Files.writeString(tempDir.resolve("users.ndjson"), """
+                {"username": "user1", "enabled": true}
+                {"username": "user2", "credentials": [{"type": "password", "value": "secret"}]}
+
+                {"username": "user3"}
+                """);
+
+        userFileReader.readChunks(realmImport, userFile("users.ndjson"), 2, (users, index) -> chunks.add(users));
+
+        assertThat(chunks).hasSize(2);
+        assertThat(chunks.get(0)).extracting(UserRepresentation::getUsername).containsExactly("user1", "user2");
+        assertThat(chunks.get(0).get(1).getCredentials()).hasSize(1);
+        assertThat(chunks.get(1)).extracting(UserRepresentation::getUsername).containsExactly("user3");
+    }
+
+    @Test
+    void shouldReadCsvWithListAndMapColumns() throws IOException {
+        Files.writeString(tempDir.resolve("users.csv"), """
+                username,email,enabled,groups,attributes.phone,clientRoles.app
+                user1,user1@mail.de,true,group1;group2,+49 123,admin
+                user2,,false,,,
+                """);
+
+        userFileReader.readChunks(realmImport, userFile("users.csv"), 10, (users, index) -> chunks.add(users));
+
+        assertThat(chunks).hasSize(1);
+        UserRepresentation user1 = chunks.get(0).get(0);
+        assertThat(user1.getEmail()).isEqualTo("user1@mail.de");
+        assertThat(user1.isEnabled()).isTrue();
+        assertThat(user1.getGroups()).containsExactly("group1", "group2");
+        assertThat(user1.getAttributes()).containsEntry("phone", List.of("+49 123"));
+        assertThat(user1.getClientRoles()).containsEntry("app", List.of("admin"));
+
+        UserRepresentation user2 = chunks.get(0).get(1);
+        assertThat(user2.isEnabled()).isFalse();
+        assertThat(user2.getEmail()).isNull();
+        assertThat(user2.getGroups()).isNull();
+    }
+
+    @Test
+    void shouldFailOnUnknownProperty() throws IOException {
+        Files.writeString(tempDir.resolve("users.ndjson"), "{\"username\": \"user1\", \"unknown\": true}\n");
+
+        UserFileImport userFile = userFile("users.ndjson");
+        assertThatThrownBy(() -> userFileReader.readChunks(realmImport, userFile, 10, (users, index) -> chunks.add(users)))
+                .isInstanceOf(InvalidImportException.class)
+                .hasMessageContaining("users.ndjson");
+    }
+
+    private UserFileImport userFile(String path) {
+        UserFileImport userFile = new UserFileImport();
+        userFile.setPath(path);
+        return userFile;
+    }
+}
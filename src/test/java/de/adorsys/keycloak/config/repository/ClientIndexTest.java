@@ -0,0 +1,112 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.repository;
+
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.ClientRepresentation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientIndexTest {
+    private final AtomicInteger loads = new AtomicInteger();
+    private final List<String> reads = new ArrayList<>();
+    private final Map<String, ClientRepresentation> remoteClients = new HashMap<>();
+
+    private final ClientIndex clientIndex = new ClientIndex(
+            () -> {
+                loads.incrementAndGet();
+                return Stream.of(client("1", "client-a", "shared"), client("2", "client-b", "shared"));
+            },
+            id -> {
+                reads.add(id);
+                return Optional.ofNullable(remoteClients.get(id));
+            }
+    );
+
+    @Test
+    void shouldLookUpByClientIdAndNameFromOneListing() {
+        assertThat(clientIndex.findByClientId("client-b")).map(ClientRepresentation::getId).contains("2");
+        assertThat(clientIndex.findByName("shared")).map(ClientRepresentation::getId).contains("1");
+        assertThat(clientIndex.findById("1")).map(ClientRepresentation::getClientId).contains("client-a");
+        assertThat(clientIndex.findByClientId("missing")).isEmpty();
+        assertThat(clientIndex.findAll()).hasSize(2);
+
+        assertThat(loads).hasValue(1);
+        assertThat(reads).isEmpty();
+    }
+
+    @Test
+    void shouldReadCreatedClientByIdOnce() {
+        clientIndex.findAll();
+        clientIndex.add("3", client(null, "client-c", "new"));
+        remoteClients.put("3", client("3", "client-c", "new"));
+
+        assertThat(clientIndex.findByClientId("client-c")).map(ClientRepresentation::getId).contains("3");
+        assertThat(clientIndex.findByName("new")).map(ClientRepresentation::getId).contains("3");
+        assertThat(reads).containsExactly("3");
+    }
+
+    @Test
+    void shouldReindexUpdatedClient() {
+        ClientRepresentation client = clientIndex.findByClientId("client-a").orElseThrow();
+        client.setClientId("renamed");
+        clientIndex.update(client);
+        remoteClients.put("1", client("1", "renamed", "shared"));
+
+        assertThat(clientIndex.findByClientId("client-a")).isEmpty();
+        assertThat(clientIndex.findByClientId("renamed")).map(ClientRepresentation::getId).contains("1");
+        assertThat(reads).containsExactly("1");
+    }
+
+    @Test
+    void shouldRemoveClientAndKeepOtherClientsWithSameName() {
+        clientIndex.findAll();
+        clientIndex.remove("1");
+
+        assertThat(clientIndex.findByClientId("client-a")).isEmpty();
+        assertThat(clientIndex.findByName("shared")).map(ClientRepresentation::getId).contains("2");
+    }
+
+    @Test
+    void shouldDropClientMissingWhenReadAgain() {
+        clientIndex.findAll();
+        clientIndex.invalidateClientId("client-a");
+
+        assertThat(clientIndex.findByClientId("client-a")).isEmpty();
+        assertThat(clientIndex.findAll()).extracting(ClientRepresentation::getId).containsExactly("2");
+    }
+
+    private static ClientRepresentation client(String id, String clientId, String name) {
+        ClientRepresentation client = new ClientRepresentation();
+        client.setId(id);
+        client.setClientId(clientId);
+        client.setName(name);
+        return client;
+    }
+}
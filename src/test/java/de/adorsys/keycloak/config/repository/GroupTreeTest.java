@@ -0,0 +1,114 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.repository;
+
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.GroupRepresentation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GroupTreeTest {
+    private final List<String> subGroupLoads = new ArrayList<>();
+
+    private final GroupTree groupTree = new GroupTree(
+            () -> Stream.of(group("1", "/parent", 1L), group("2", "/other", 0L)),
+            parentId -> {
+                subGroupLoads.add(parentId);
+                return "1".equals(parentId) ? Stream.of(group("11", "/parent/child", 0L)) : Stream.empty();
+            }
+    );
+
+    @Test
+    void shouldLoadSubGroupsOfGroupsWithSubGroupsOnly() {
+        assertThat(groupTree.getTopLevelGroups()).extracting(GroupRepresentation::getName).containsExactly("parent", "other");
+        assertThat(groupTree.findByPath("/parent/child")).map(GroupRepresentation::getId).contains("11");
+        assertThat(groupTree.findById("11")).map(GroupRepresentation::getPath).contains("/parent/child");
+
+        assertThat(subGroupLoads).containsExactly("1");
+    }
+
+    @Test
+    void shouldReturnTopLevelGroupWithDirectSubGroups() {
+        GroupRepresentation parent = groupTree.findTopLevelByName("parent").orElseThrow();
+
+        assertThat(parent.getSubGroups()).extracting(GroupRepresentation::getId).containsExactly("11");
+        assertThat(groupTree.findSubGroups("1").orElseThrow()).extracting(GroupRepresentation::getName).containsExactly("child");
+        assertThat(groupTree.findTopLevelByName("missing")).isEmpty();
+    }
+
+    @Test
+    void shouldApplyCreatedAndDeletedGroups() {
+        groupTree.getTopLevelGroups();
+        groupTree.add("11", group("111", "/grandchild", 0L));
+        groupTree.add(null, group("3", "/new", 0L));
+
+        assertThat(groupTree.findByPath("/parent/child/grandchild")).map(GroupRepresentation::getId).contains("111");
+        assertThat(groupTree.getTopLevelGroups()).extracting(GroupRepresentation::getName).contains("new");
+
+        groupTree.remove("1");
+
+        assertThat(groupTree.findByPath("/parent/child/grandchild")).isEmpty();
+        assertThat(groupTree.findById("11")).isEmpty();
+        assertThat(groupTree.getTopLevelGroups()).extracting(GroupRepresentation::getName).containsExactly("other", "new");
+    }
+
+    @Test
+    void shouldUpdatePathsOfRenamedGroup() {
+        GroupRepresentation parent = groupTree.findById("1").orElseThrow();
+        parent.setName("renamed");
+        parent.setAttributes(Map.of("key", List.of("value")));
+        groupTree.update(parent);
+
+        assertThat(groupTree.findByPath("/renamed/child")).map(GroupRepresentation::getId).contains("11");
+        assertThat(groupTree.findByPath("/parent/child")).isEmpty();
+        assertThat(groupTree.findById("1")).map(GroupRepresentation::getAttributes).contains(Map.of("key", List.of("value")));
+    }
+
+    @Test
+    void shouldApplyRoleMappings() {
+        groupTree.getTopLevelGroups();
+        groupTree.addRealmRoles("11", List.of("role1", "role2"));
+        groupTree.removeRealmRoles("11", List.of("role1"));
+        groupTree.addClientRoles("11", "client", List.of("client-role"));
+
+        GroupRepresentation child = groupTree.findById("11").orElseThrow();
+        assertThat(child.getRealmRoles()).containsExactly("role2");
+        assertThat(child.getClientRoles()).containsEntry("client", List.of("client-role"));
+
+        groupTree.removeClientRoles("11", "client", List.of("client-role"));
+
+        assertThat(groupTree.findById("11").orElseThrow().getClientRoles()).isEmpty();
+    }
+
+    private static GroupRepresentation group(String id, String path, Long subGroupCount) {
+        GroupRepresentation group = new GroupRepresentation();
+        group.setId(id);
+        group.setPath(path);
+        group.setName(path.substring(path.lastIndexOf('/') + 1));
+        group.setSubGroupCount(subGroupCount);
+        return group;
+    }
+}
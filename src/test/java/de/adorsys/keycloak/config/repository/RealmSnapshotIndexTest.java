@@ -0,0 +1,108 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.repository;
+
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.RoleRepresentation;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RealmSnapshotIndexTest {
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicInteger fallbacks = new AtomicInteger();
+
+    private final RealmSnapshot.Index<String, RoleRepresentation> index = new RealmSnapshot.Index<>(
+            () -> {
+                loads.incrementAndGet();
+                return List.of(role("1", "admin"), role("2", "user")).stream();
+            },
+            RoleRepresentation::getName,
+            RoleRepresentation::getId
+    );
+
+    @Test
+    void shouldLoadOnceAndAnswerLookupsFromIndex() {
+        assertThat(index.find("admin", this::fallback)).map(RoleRepresentation::getId).contains("1");
+        assertThat(index.find("missing", this::fallback)).isEmpty();
+        assertThat(index.findAll()).hasValueSatisfying(roles -> assertThat(roles).hasSize(2));
+
+        assertThat(loads).hasValue(1);
+        assertThat(fallbacks).hasValue(0);
+    }
+
+    @Test
+    void shouldReturnCopies() {
+        index.find("admin", this::fallback).orElseThrow().setDescription("changed");
+
+        assertThat(index.find("admin", this::fallback)).map(RoleRepresentation::getDescription).isEmpty();
+    }
+
+    @Test
+    void shouldUseFallbackAfterInvalidation() {
+        index.find("admin", this::fallback);
+        index.invalidateKey("created");
+        index.invalidateId("2");
+
+        assertThat(index.find("created", this::fallback)).map(RoleRepresentation::getId).contains("fallback");
+        assertThat(index.find("user", this::fallback)).map(RoleRepresentation::getId).contains("fallback");
+        assertThat(index.find("admin", this::fallback)).map(RoleRepresentation::getId).contains("1");
+        assertThat(index.findAll()).isEmpty();
+
+        assertThat(fallbacks).hasValue(2);
+    }
+
+    @Test
+    void shouldReloadAfterInvalidateAll() {
+        index.find("admin", this::fallback);
+        index.invalidateKey("admin");
+        index.invalidateAll();
+
+        assertThat(index.find("admin", this::fallback)).map(RoleRepresentation::getId).contains("1");
+        assertThat(loads).hasValue(2);
+        assertThat(fallbacks).hasValue(0);
+    }
+
+    @Test
+    void shouldServePutEntriesAfterInvalidation() {
+        index.invalidateKey("created");
+        index.put(role("3", "created"));
+
+        assertThat(index.find("created", this::fallback)).map(RoleRepresentation::getId).contains("3");
+        assertThat(fallbacks).hasValue(0);
+    }
+
+    private Optional<RoleRepresentation> fallback() {
+        fallbacks.incrementAndGet();
+        return Optional.of(role("fallback", "fallback"));
+    }
+
+    private static RoleRepresentation role(String id, String name) {
+        RoleRepresentation role = new RoleRepresentation();
+        role.setId(id);
+        role.setName(name);
+        return role;
+    }
+}
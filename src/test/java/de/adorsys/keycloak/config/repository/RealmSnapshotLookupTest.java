@@ -0,0 +1,92 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.repository;
+
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.GroupRepresentation;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RealmSnapshotLookupTest {
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    private final RealmSnapshot.Lookup<String, GroupRepresentation> lookup = new RealmSnapshot.Lookup<>();
+
+    @Test
+    void shouldLookUpOnceAndReturnCopies() {
+        lookup.find("/group", () -> lookUp("1")).orElseThrow().setName("changed");
+
+        assertThat(lookup.find("/group", () -> lookUp("2"))).map(GroupRepresentation::getId).contains("1");
+        assertThat(lookup.find("/group", () -> lookUp("3"))).map(GroupRepresentation::getName).contains("group");
+        assertThat(lookups).hasValue(1);
+    }
+
+    @Test
+    void shouldNotMemoizeMissingEntries() {
+        assertThat(lookup.find("/missing", Optional::empty)).isEmpty();
+        assertThat(lookup.find("/missing", () -> lookUp("1"))).map(GroupRepresentation::getId).contains("1");
+    }
+
+    @Test
+    void shouldLookUpAgainAfterInvalidation() {
+        lookup.find("/group", () -> lookUp("1"));
+        lookup.invalidateKey("/group");
+
+        assertThat(lookup.find("/group", () -> lookUp("2"))).map(GroupRepresentation::getId).contains("2");
+
+        lookup.invalidateAll();
+
+        assertThat(lookup.find("/group", () -> lookUp("3"))).map(GroupRepresentation::getId).contains("3");
+        assertThat(lookups).hasValue(3);
+    }
+
+    @Test
+    void shouldNotMemoizeEntryInvalidatedDuringLookup() {
+        lookup.find("/group", () -> {
+            lookup.invalidateKey("/group");
+            return lookUp("stale");
+        });
+
+        assertThat(lookup.find("/group", () -> lookUp("1"))).map(GroupRepresentation::getId).contains("1");
+    }
+
+    @Test
+    void shouldServePutEntriesWithoutLookup() {
+        GroupRepresentation group = lookUp("created").orElseThrow();
+        lookup.put("/group", group);
+        group.setId("changed");
+
+        assertThat(lookup.find("/group", () -> lookUp("1"))).map(GroupRepresentation::getId).contains("created");
+        assertThat(lookups).hasValue(1);
+    }
+
+    private Optional<GroupRepresentation> lookUp(String id) {
+        lookups.incrementAndGet();
+
+        GroupRepresentation group = new GroupRepresentation();
+        group.setId(id);
+        group.setName("group");
+        return Optional.of(group);
+    }
+}
@@ -0,0 +1,138 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.repository;
+
+import de.adorsys.keycloak.config.provider.KeycloakProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.RealmsResource;
+import org.keycloak.representations.idm.RealmRepresentation;
+import org.mockito.ArgumentCaptor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RealmWriteBufferTest {
+    private static final String REALM = "realm";
+
+    private final RealmResource realmResource = mock(RealmResource.class);
+
+    private RealmRepository realmRepository;
+    private RealmWriteBuffer realmWriteBuffer;
+
+    @BeforeEach
+    void setUp() {
+        Keycloak keycloak = mock(Keycloak.class);
+        RealmsResource realmsResource = mock(RealmsResource.class);
+        KeycloakProvider keycloakProvider = mock(KeycloakProvider.class);
+        when(keycloakProvider.getInstance()).thenReturn(keycloak);
+        when(keycloak.realms()).thenReturn(realmsResource);
+        when(realmsResource.realm(REALM)).thenReturn(realmResource);
+
+        realmRepository = new RealmRepository(keycloakProvider);
+        realmWriteBuffer = new RealmWriteBuffer(realmRepository);
+    }
+
+    @Test
+    void flush_shouldCoalesceChangesIntoSingleUpdate() {
+        when(realmResource.toRepresentation()).thenReturn(realm(Map.of()));
+
+        realmWriteBuffer.open(REALM);
+        realmWriteBuffer.update(REALM, realm -> realm.getAttributes().put("state", "1"));
+        realmWriteBuffer.update(REALM, realm -> realm.getAttributes().put("checksum", "2"));
+        realmWriteBuffer.update(REALM, realm -> realm.setOtpPolicyAlgorithm("HmacSHA256"));
+
+        verify(realmResource, never()).toRepresentation();
+        verify(realmResource, never()).update(any());
+
+        realmWriteBuffer.flush(REALM);
+        realmWriteBuffer.flush(REALM);
+
+        ArgumentCaptor<RealmRepresentation> updatedRealm = ArgumentCaptor.forClass(RealmRepresentation.class);
+        verify(realmResource).toRepresentation();
+        verify(realmResource).update(updatedRealm.capture());
+        assertThat(updatedRealm.getValue().getAttributes())
+                .containsEntry("state", "1")
+                .containsEntry("checksum", "2");
+        assertThat(updatedRealm.getValue().getOtpPolicyAlgorithm()).isEqualTo("HmacSHA256");
+    }
+
+    @Test
+    void update_shouldWriteImmediatelyWithoutOpenBuffer() {
+        when(realmResource.toRepresentation()).thenReturn(realm(Map.of()), realm(Map.of()));
+
+        realmWriteBuffer.update(REALM, realm -> realm.getAttributes().put("state", "1"));
+        realmWriteBuffer.update(REALM, realm -> realm.getAttributes().put("checksum", "2"));
+
+        verify(realmResource, times(2)).toRepresentation();
+        verify(realmResource, times(2)).update(any());
+    }
+
+    @Test
+    void close_shouldDiscardChangesWhichWereNotFlushed() {
+        realmWriteBuffer.open(REALM);
+        realmWriteBuffer.update(REALM, realm -> realm.getAttributes().put("state", "1"));
+        realmWriteBuffer.close(REALM);
+        realmWriteBuffer.flush(REALM);
+
+        verify(realmResource, never()).toRepresentation();
+        verify(realmResource, never()).update(any());
+    }
+
+    @Test
+    void flush_shouldWriteChangesToFreshlyReadRealm() {
+        when(realmResource.toRepresentation())
+                .thenReturn(realm(Map.of("memoized", "true")))
+                .thenReturn(realm(Map.of("memoized", "true", "changedBySubResource", "true")));
+
+        realmRepository.startMemoizing(REALM);
+        realmRepository.get(REALM);
+
+        realmWriteBuffer.open(REALM);
+        realmWriteBuffer.update(REALM, realm -> realm.getAttributes().put("state", "1"));
+        realmWriteBuffer.flush(REALM);
+
+        ArgumentCaptor<RealmRepresentation> updatedRealm = ArgumentCaptor.forClass(RealmRepresentation.class);
+        verify(realmResource, times(2)).toRepresentation();
+        verify(realmResource).update(updatedRealm.capture());
+        assertThat(updatedRealm.getValue().getAttributes())
+                .containsEntry("changedBySubResource", "true")
+                .containsEntry("state", "1");
+    }
+
+    private static RealmRepresentation realm(Map<String, String> attributes) {
+        RealmRepresentation realm = new RealmRepresentation();
+        realm.setRealm(REALM);
+        realm.setAttributes(new HashMap<>(attributes));
+        return realm;
+    }
+}
@@ -20,27 +20,25 @@
 
 package de.adorsys.keycloak.config.service;
 
-import static org.assertj.core.api.Assertions.assertThat;
-import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import de.adorsys.keycloak.config.ThreadHelper;
-import de.adorsys.keycloak.config.exception.ImportProcessingException;
 import de.adorsys.keycloak.config.properties.ImportConfigProperties;
 import de.adorsys.keycloak.config.repository.GroupRepository;
+import de.adorsys.keycloak.config.service.parallel.ParallelImportExecutor;
+import de.adorsys.keycloak.config.service.report.ImportReportService;
+import de.adorsys.keycloak.config.service.state.StateService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.params.ParameterizedTest;
-import org.junit.jupiter.params.provider.ValueSource;
 import org.keycloak.representations.idm.GroupRepresentation;
-import org.mockito.stubbing.OngoingStubbing;
 
 import java.util.List;
 import java.util.Map;
@@ -51,10 +49,15 @@ class GroupImportServiceTest {
 
     private final ImportConfigProperties importConfigProperties = mock(ImportConfigProperties.class);
 
-    private final ThreadHelper threadHelper = mock(ThreadHelper.class);
+    private final StateService stateService = mock(StateService.class);
 
-    private final GroupImportService groupImportService =
-        new GroupImportService(groupRepository, importConfigProperties, threadHelper);
+    private final ImportReportService importReportService = mock(ImportReportService.class);
+
+    private final ParallelImportExecutor parallelImportExecutor = new ParallelImportExecutor(importConfigProperties);
+
+    private final GroupImportService groupImportService = new GroupImportService(
+            groupRepository, importConfigProperties, stateService, importReportService, parallelImportExecutor
+    );
 
     @Nested
     class CreatingGroupIT {
@@ -67,7 +70,6 @@ class GroupImportServiceTest {
 
         @BeforeEach
         void init() {
-            group.setId(groupId);
             group.setName(groupName);
             group.setRealmRoles(List.of("someRealmRole"));
             group.setClientRoles(Map.of("someClientId", List.of("someClientRoleName")));
@@ -76,8 +78,9 @@ class GroupImportServiceTest {
             group.setSubGroups(List.of(subGroup));
             subGroup.setName("someSubGroupName");
 
-            when(groupRepository.getGroupByName(realmName, groupName)).thenReturn(null).thenReturn(group);
-            when(groupRepository.getSubGroupByName(realmName, groupId, "someSubGroupName")).thenReturn(subGroup);
+            when(groupRepository.getGroupByName(realmName, groupName)).thenReturn(null);
+            when(groupRepository.createGroup(realmName, group)).thenReturn(groupId);
+            when(groupRepository.addSubGroup(eq(realmName), eq(groupId), any())).thenReturn("someSubGroupId");
         }
 
         @Test
@@ -120,45 +123,37 @@ class GroupImportServiceTest {
             );
         }
 
-        @ParameterizedTest
-        @ValueSource(ints = {1, 2, 3, 4, 5})
-        void createOrUpdateGroups_shouldRetryGettingCreatedGroup(int retries) {
-            OngoingStubbing<GroupRepresentation> getGroupNameStubbing =
-                    when(groupRepository.getGroupByName(realmName, groupName));
+        @Test
+        void createOrUpdateGroups_shouldUseCreatedIdsWithoutLookingUpCreatedGroups() {
+            groupImportService.createOrUpdateGroups(List.of(group), realmName);
 
-            for (int i = 0; i < retries; i++) {
-                getGroupNameStubbing = getGroupNameStubbing.thenReturn(null);
-            }
+            verify(groupRepository, times(1)).getGroupByName(realmName, groupName);
+            verify(groupRepository, never()).getSubGroupByName(anyString(), anyString(), anyString());
+            verify(groupRepository, never()).getGroupById(anyString(), anyString());
+        }
 
-            getGroupNameStubbing.thenReturn(group);
+        @Test
+        void createOrUpdateGroups_shouldCreateUnchangedGroupDeletedInKeycloak() {
+            when(stateService.isUnchanged(realmName, "groups", groupName, group)).thenReturn(true);
 
             groupImportService.createOrUpdateGroups(List.of(group), realmName);
 
-            verify(groupRepository, times(retries + 1)).getGroupByName(realmName, groupName);
-            verify(threadHelper, times(retries - 1)).sleep(anyLong());
+            verify(groupRepository).createGroup(realmName, group);
         }
 
         @Test
-        void createOrUpdateGroups_shouldStopImportWithNullAfterEveryRetry() {
-            List<GroupRepresentation> groups = List.of(group);
-
-            when(groupRepository.getGroupByName(realmName, groupName))
-                    .thenReturn(null)
-                    .thenReturn(null)
-                    .thenReturn(null)
-                    .thenReturn(null)
-                    .thenReturn(null)
-                    .thenReturn(null)
-                    .thenReturn(group);
-
-            ImportProcessingException exception = assertThrows(
-                    ImportProcessingException.class,
-                    () -> groupImportService.createOrUpdateGroups(groups, realmName)
-            );
+        void createOrUpdateGroups_shouldSkipUnchangedExistingGroup() {
+            GroupRepresentation existingGroup = new GroupRepresentation();
+            existingGroup.setId(groupId);
+            existingGroup.setName(groupName);
+            when(groupRepository.getGroupByName(realmName, groupName)).thenReturn(existingGroup);
+            when(stateService.isUnchanged(realmName, "groups", groupName, group)).thenReturn(true);
+
+            groupImportService.createOrUpdateGroups(List.of(group), realmName);
 
-            assertThat(exception)
-                    .message()
-                    .isEqualTo(String.format("Cannot find created group '%s' in realm '%s'", groupName, realmName));
+            verify(groupRepository, never()).createGroup(anyString(), any());
+            verify(groupRepository, never()).update(anyString(), any());
+            verify(groupRepository, never()).addSubGroup(anyString(), anyString(), any());
         }
     }
 }
@@ -0,0 +1,92 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.service;
+
+import de.adorsys.keycloak.config.AbstractImportIT;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.resource.UserResource;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.hasSize;
+
+@TestPropertySource(properties = {
+        "import.cache.enabled=false",
+        "import.bulk-users.enabled=true",
+        "import.bulk-users.batch-size=2",
+})
+class ImportBulkUsersIT extends AbstractImportIT {
+    private static final String REALM_NAME = "realmWithBulkUsers";
+
+    ImportBulkUsersIT() {
+        this.resourcePath = "import-files/bulk-users";
+    }
+
+    @Test
+    @Order(0)
+    void shouldCreateUsersInBatches() throws IOException {
+        doImport("0_create_realm.json");
+
+        assertThat(getRealmRoles("user1"), hasItems("realm_role", "default-roles-realmwithbulkusers"));
+        assertThat(getClientRoles("user1"), contains("client_role"));
+        assertThat(getGroups("user1"), contains("/group1"));
+        assertThat(getGroups("user2"), contains("/group1"));
+        assertThat(getRealmRoles("user3"), contains("default-roles-realmwithbulkusers"));
+    }
+
+    @Test
+    @Order(1)
+    void shouldUpdateExistingUsersAndCreateNewUsers() throws IOException {
+        doImport("1_update_realm.json");
+
+        assertThat(getRealmRoles("user3"), hasItem("realm_role"));
+        assertThat(getRealmRoles("user4"), hasItems("realm_role", "default-roles-realmwithbulkusers"));
+        assertThat(keycloakProvider.getInstance().realm(REALM_NAME).users().list(), hasSize(4));
+    }
+
+    private List<String> getRealmRoles(String username) {
+        return getUser(username).roles().realmLevel().listAll().stream().map(RoleRepresentation::getName).toList();
+    }
+
+    private List<String> getClientRoles(String username) {
+        String clientId = keycloakProvider.getInstance().realm(REALM_NAME).clients().findByClientId("bulk-client").get(0).getId();
+        return getUser(username).roles().clientLevel(clientId).listAll().stream().map(RoleRepresentation::getName).toList();
+    }
+
+    private List<String> getGroups(String username) {
+        return getUser(username).groups().stream().map(GroupRepresentation::getPath).toList();
+    }
+
+    private UserResource getUser(String username) {
+        String id = keycloakProvider.getInstance().realm(REALM_NAME).users().search(username, true).get(0).getId();
+        return keycloakProvider.getInstance().realm(REALM_NAME).users().get(id);
+    }
+}
@@ -0,0 +1,87 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.service;
+
+import de.adorsys.keycloak.config.AbstractImportIT;
+import de.adorsys.keycloak.config.model.RealmImport;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+@TestPropertySource(properties = {
+        "import.cache.enabled=true",
+})
+class ImportUserFilesChecksumIT extends AbstractImportIT {
+    private static final String REALM_NAME = "realmWithChangedUserFile";
+
+    @TempDir
+    static Path tempDir;
+
+    @Test
+    @Order(0)
+    void shouldCreateUsersFromUserFile() throws IOException {
+        Files.writeString(tempDir.resolve("realm.json"), """
+                {
+                  "enabled": true,
+                  "realm": "realmWithChangedUserFile",
+                  "userFiles": [{"path": "users.ndjson"}]
+                }
+                """);
+        Files.writeString(tempDir.resolve("users.ndjson"), "{\"username\": \"user1\", \"firstName\": \"First\", \"enabled\": true}\n");
+
+        importRealm();
+
+        assertThat(getFirstName("user1"), is("First"));
+    }
+
+    @Test
+    @Order(1)
+    void shouldImportRealmAgainIfOnlyUserFileChanged() throws IOException {
+        Files.writeString(tempDir.resolve("users.ndjson"), "{\"username\": \"user1\", \"firstName\": \"Changed\", \"enabled\": true}\n");
+
+        importRealm();
+
+        assertThat(getFirstName("user1"), is("Changed"));
+    }
+
+    private void importRealm() {
+        List<RealmImport> realmImports = keycloakImportProvider.readFromLocations("file:" + tempDir.resolve("realm.json"))
+                .getRealmImports().values().iterator().next().values().iterator().next();
+
+        for (RealmImport realmImport : realmImports) {
+            realmImportService.doImport(realmImport);
+        }
+    }
+
+    private String getFirstName(String username) {
+        return keycloakProvider.getInstance().realm(REALM_NAME).users().search(username, true).get(0).getFirstName();
+    }
+}
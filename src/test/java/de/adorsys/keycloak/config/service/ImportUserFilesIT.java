@@ -0,0 +1,83 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service;
+
+import de.adorsys.keycloak.config.AbstractImportIT;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.resource.UserResource;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+@TestPropertySource(properties = {
+        "import.cache.enabled=false",
+        "import.user-files.chunk-size=2",
+})
+class ImportUserFilesIT extends AbstractImportIT {
+    private static final String REALM_NAME = "realmWithUserFiles";
+
+    ImportUserFilesIT() {
+        this.resourcePath = "import-files/user-files";
+    }
+
+    @Test
+    @Order(0)
+    void shouldCreateUsersFromNdjsonAndCsvFiles() throws IOException {
+        doImport("0_create_realm.json");
+
+        assertThat(keycloakProvider.getInstance().realm(REALM_NAME).users().list(), hasSize(5));
+        assertThat(getGroups("user1"), contains("/group1"));
+        assertThat(getGroups("user3"), is(empty()));
+        assertThat(getGroups("user4"), contains("/group1"));
+        assertThat(getUser("user4").toRepresentation().getAttributes().get("department"), contains("sales"));
+        assertThat(getUser("user5").toRepresentation().isEnabled(), is(false));
+    }
+
+    @Test
+    @Order(1)
+    void shouldUpdateUsersFromUserFile() throws IOException {
+        doImport("1_update_realm.json");
+
+        UserRepresentation user3 = getUser("user3").toRepresentation();
+        assertThat(user3.getFirstName(), is("Third"));
+        assertThat(getGroups("user6"), contains("/group1"));
+        assertThat(keycloakProvider.getInstance().realm(REALM_NAME).users().list(), hasSize(6));
+    }
+
+    private List<String> getGroups(String username) {
+        return getUser(username).groups().stream().map(GroupRepresentation::getPath).toList();
+    }
+
+    private UserResource getUser(String username) {
+        String id = keycloakProvider.getInstance().realm(REALM_NAME).users().search(username, true).get(0).getId();
+        return keycloakProvider.getInstance().realm(REALM_NAME).users().get(id);
+    }
+}
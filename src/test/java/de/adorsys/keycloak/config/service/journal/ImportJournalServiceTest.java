@@ -0,0 +1,128 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.service.journal;
+
+import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportCacheProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportJournalProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImportJournalServiceTest {
+    @TempDir
+    Path tempDir;
+
+    private final ImportConfigProperties importConfigProperties = mock(ImportConfigProperties.class);
+
+    private final ImportCacheProperties cacheProperties = mock(ImportCacheProperties.class);
+
+    private final ImportJournalService importJournalService = new ImportJournalService(importConfigProperties);
+
+    private final RealmImport realmImport = new RealmImport();
+
+    @BeforeEach
+    void init() {
+        realmImport.setRealm("some/realm");
+        realmImport.setChecksum("abc123");
+        when(importConfigProperties.getCache()).thenReturn(cacheProperties);
+        when(cacheProperties.getKey()).thenReturn("default");
+    }
+
+    @Test
+    void open_shouldResumeCompletedStagesOfSameInput() {
+        enableJournal(true);
+
+        ImportJournal journal = importJournalService.open(realmImport, true);
+        journal.complete("clientScopes");
+        journal.complete("clients");
+
+        ImportJournal resumedJournal = importJournalService.open(realmImport, true);
+
+        assertThat(resumedJournal.isCompleted("clientScopes")).isTrue();
+        assertThat(resumedJournal.isCompleted("clients")).isTrue();
+        assertThat(resumedJournal.isCompleted("users")).isFalse();
+        assertThat(tempDir.resolve("some_realm-default-abc123.journal")).exists();
+    }
+
+    @Test
+    void open_shouldDiscardJournalIfNotResuming() {
+        enableJournal(false);
+        importJournalService.open(realmImport, true).complete("clients");
+
+        assertThat(importJournalService.open(realmImport, true).isCompleted("clients")).isFalse();
+    }
+
+    @Test
+    void open_shouldDiscardJournalIfRealmIsCreated() {
+        enableJournal(true);
+        importJournalService.open(realmImport, true).complete("clients");
+
+        assertThat(importJournalService.open(realmImport, false).isCompleted("clients")).isFalse();
+    }
+
+    @Test
+    void open_shouldNotResumeOtherInput() {
+        enableJournal(true);
+        importJournalService.open(realmImport, true).complete("clients");
+
+        realmImport.setChecksum("def456");
+
+        assertThat(importJournalService.open(realmImport, true).isCompleted("clients")).isFalse();
+    }
+
+    @Test
+    void close_shouldDeleteJournal() throws Exception {
+        enableJournal(true);
+        ImportJournal journal = importJournalService.open(realmImport, true);
+        journal.complete("clients");
+
+        importJournalService.close(journal);
+
+        try (var files = Files.list(tempDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void open_shouldReturnNoneIfDisabled() {
+        when(importConfigProperties.getJournal()).thenReturn(new ImportJournalProperties(null, true));
+
+        ImportJournal journal = importJournalService.open(realmImport, true);
+        journal.complete("clients");
+
+        assertThat(journal).isSameAs(ImportJournal.NONE);
+        assertThat(journal.isCompleted("clients")).isFalse();
+    }
+
+    private void enableJournal(boolean resume) {
+        when(importConfigProperties.getJournal()).thenReturn(new ImportJournalProperties(tempDir.toString(), resume));
+    }
+}
@@ -0,0 +1,210 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.service.parallel;
+
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
+import de.adorsys.keycloak.config.extensions.GithubActionsExtension;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+@ExtendWith(GithubActionsExtension.class)
+class ParallelImportExecutorTest {
+    private static final List<Integer> ENTITIES = IntStream.range(0, 20).boxed().toList();
+
+    @Test
+    void forEach_shouldLimitInflightEntities() {
+        ParallelImportExecutor executor = createExecutor(true, 3);
+        AtomicInteger inflight = new AtomicInteger();
+        AtomicInteger maxInflight = new AtomicInteger();
+        Set<Integer> imported = ConcurrentHashMap.newKeySet();
+
+        executor.forEach(ENTITIES, String::valueOf, entity -> {
+            maxInflight.accumulateAndGet(inflight.incrementAndGet(), Math::max);
+            sleep();
+            imported.add(entity);
+            inflight.decrementAndGet();
+        });
+
+        assertThat(imported.size(), is(ENTITIES.size()));
+        assertThat(maxInflight.get(), lessThanOrEqualTo(3));
+    }
+
+    @Test
+    void forEach_shouldImportAllEntitiesAndCollectFailures() {
+        ParallelImportExecutor executor = createExecutor(true, 4);
+        Set<Integer> imported = ConcurrentHashMap.newKeySet();
+
+        ImportProcessingException thrown = assertThrows(ImportProcessingException.class, () -> executor.forEach(
+                ENTITIES, entity -> "entity-" + entity, entity -> {
+                    if (entity % 10 == 0) throw new IllegalStateException("failure " + entity);
+                    imported.add(entity);
+                })
+        );
+
+        assertThat(imported.size(), is(ENTITIES.size() - 2));
+        assertThat(thrown.getMessage(), containsString("Failed to import 2 of 20 entities"));
+        assertThat(thrown.getMessage(), containsString("'entity-10'"));
+        assertThat(thrown.getSuppressed().length, is(1));
+    }
+
+    @Test
+    void forEach_shouldRethrowSingleFailure() {
+        ParallelImportExecutor executor = createExecutor(true, 4);
+        IllegalStateException failure = new IllegalStateException("failure");
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> executor.forEach(
+                ENTITIES, String::valueOf, entity -> {
+                    if (entity == 5) throw failure;
+                })
+        );
+
+        assertThat(thrown, is(sameInstance(failure)));
+    }
+
+    @Test
+    void forEach_shouldRethrowErrors() {
+        ParallelImportExecutor executor = createExecutor(true, 4);
+        Set<Integer> imported = ConcurrentHashMap.newKeySet();
+        AssertionError failure = new AssertionError("failure");
+
+        AssertionError thrown = assertThrows(AssertionError.class, () -> executor.forEach(
+                ENTITIES, String::valueOf, entity -> {
+                    if (entity == 5) throw failure;
+                    imported.add(entity);
+                })
+        );
+
+        assertThat(thrown, is(sameInstance(failure)));
+        assertThat(imported.size(), is(ENTITIES.size() - 1));
+    }
+
+    @Test
+    void forEach_shouldCollectErrorsWithOtherFailures() {
+        ParallelImportExecutor executor = createExecutor(true, 4);
+
+        ImportProcessingException thrown = assertThrows(ImportProcessingException.class, () -> executor.forEach(
+                ENTITIES, entity -> "entity-" + entity, entity -> {
+                    if (entity == 5) throw new StackOverflowError();
+                    if (entity == 15) throw new IllegalStateException("failure");
+                })
+        );
+
+        assertThat(thrown.getMessage(), containsString("Failed to import 2 of 20 entities"));
+        assertThat(thrown.getMessage(), containsString("'entity-5'"));
+    }
+
+    @Test
+    void forEach_shouldRunNestedCallsInline() {
+        ParallelImportExecutor executor = createExecutor(true, 1);
+        AtomicInteger imported = new AtomicInteger();
+
+        executor.forEach(List.of(1, 2), String::valueOf, parent ->
+                executor.forEach(List.of(1, 2, 3), String::valueOf, child -> imported.incrementAndGet())
+        );
+
+        assertThat(imported.get(), is(6));
+    }
+
+    @Test
+    void forEach_shouldStopOnFirstFailureIfSequential() {
+        ParallelImportExecutor executor = createExecutor(false, 4);
+        AtomicInteger imported = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> executor.forEach(ENTITIES, String::valueOf, entity -> {
+            if (entity == 5) throw new IllegalStateException("failure");
+            imported.incrementAndGet();
+        }));
+
+        assertThat(imported.get(), is(5));
+    }
+
+    @Test
+    void forEachWave_shouldImportParentsBeforeChildren() {
+        ParallelImportExecutor executor = createExecutor(true, 4);
+        List<String> imported = new CopyOnWriteArrayList<>();
+
+        executor.forEachWave(List.of("a", "b"), Function.identity(), entity -> {
+            sleep();
+            imported.add(entity);
+            return entity.length() < 3 ? List.of(entity + "1", entity + "2") : List.of();
+        });
+
+        assertThat(imported.size(), is(14));
+        for (String entity : imported) {
+            if (entity.length() > 1) {
+                String parent = entity.substring(0, entity.length() - 1);
+                assertThat(imported.indexOf(parent), lessThan(imported.indexOf(entity)));
+            }
+        }
+    }
+
+    @Test
+    void forEachWave_shouldSkipChildrenOfFailedEntitiesAndCollectFailures() {
+        ParallelImportExecutor executor = createExecutor(true, 4);
+        Set<String> imported = ConcurrentHashMap.newKeySet();
+
+        ImportProcessingException thrown = assertThrows(ImportProcessingException.class, () -> executor.forEachWave(
+                List.of("a", "b"), Function.identity(), entity -> {
+                    if (entity.equals("b") || entity.equals("a2")) throw new IllegalStateException("failure " + entity);
+                    imported.add(entity);
+                    return entity.length() < 2 ? List.of(entity + "1", entity + "2") : List.of();
+                })
+        );
+
+        assertThat(imported, is(Set.of("a", "a1")));
+        assertThat(thrown.getMessage(), containsString("Failed to import 2 of 4 entities: 'b', 'a2'"));
+    }
+
+    private static ParallelImportExecutor createExecutor(boolean parallel, int maxInflight) {
+        ImportConfigProperties importConfigProperties = mock(ImportConfigProperties.class);
+        when(importConfigProperties.isParallel()).thenReturn(parallel);
+        when(importConfigProperties.getParallelMaxInflight()).thenReturn(maxInflight);
+        return new ParallelImportExecutor(importConfigProperties);
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
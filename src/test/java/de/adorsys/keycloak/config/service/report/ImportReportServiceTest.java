@@ -0,0 +1,90 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.service.report;
+
+import de.adorsys.keycloak.config.extensions.GithubActionsExtension;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportReportProperties;
+import de.adorsys.keycloak.config.service.report.ImportReportService.EntityOutcome;
+import de.adorsys.keycloak.config.service.report.ImportReportService.StageOutcome;
+import de.adorsys.keycloak.config.util.resteasy.HttpMetricsFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@ExtendWith(GithubActionsExtension.class)
+class ImportReportServiceTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void write_shouldWriteJsonAndPrometheusReport() throws IOException {
+        Path jsonPath = tempDir.resolve("report.json");
+        Path prometheusPath = tempDir.resolve("metrics/report.prom");
+        ImportReportService importReportService = createImportReportService(jsonPath.toString(), prometheusPath.toString());
+
+        importReportService.recordStage("realm", "clients", StageOutcome.EXECUTED, 42);
+        importReportService.countEntity("realm", "client", EntityOutcome.CREATED);
+        importReportService.countEntity("realm", "client", EntityOutcome.CREATED);
+        importReportService.countEntity("realm", "client", EntityOutcome.UNCHANGED);
+        importReportService.recordRepositoryCall("ClientRepository.create", 2_000_000);
+        importReportService.write();
+
+        String json = Files.readString(jsonPath);
+        assertThat(json, containsString("\"stage\" : \"clients\""));
+        assertThat(json, containsString("\"created\" : 2"));
+        assertThat(json, containsString("\"ClientRepository.create\""));
+
+        String prometheus = Files.readString(prometheusPath);
+        assertThat(prometheus, containsString(
+                "keycloak_config_cli_stage_duration_seconds{realm=\"realm\",stage=\"clients\",outcome=\"executed\"} 0.042"));
+        assertThat(prometheus, containsString("keycloak_config_cli_entities{realm=\"realm\",type=\"client\",outcome=\"unchanged\"} 1.0"));
+    }
+
+    @Test
+    void write_shouldDoNothingWithoutPath() {
+        ImportReportService importReportService = createImportReportService(null, null);
+
+        importReportService.countEntity("realm", "client", EntityOutcome.CREATED);
+        importReportService.write();
+
+        assertThat(importReportService.isEnabled(), is(false));
+        assertThat(tempDir.toFile().list().length, is(0));
+    }
+
+    private static ImportReportService createImportReportService(String path, String prometheusPath) {
+        ImportConfigProperties importConfigProperties = mock(ImportConfigProperties.class);
+        when(importConfigProperties.getReport()).thenReturn(new ImportReportProperties(path, prometheusPath));
+
+        return new ImportReportService(importConfigProperties, new HttpMetricsFilter());
+    }
+}
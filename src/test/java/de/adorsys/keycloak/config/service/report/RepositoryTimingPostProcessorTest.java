@@ -0,0 +1,106 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.service.report;
+
+import de.adorsys.keycloak.config.extensions.GithubActionsExtension;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportReportProperties;
+import de.adorsys.keycloak.config.repository.ClientRepository;
+import de.adorsys.keycloak.config.repository.RealmRepository;
+import de.adorsys.keycloak.config.repository.RealmSnapshotRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.keycloak.admin.client.resource.ClientsResource;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.stereotype.Component;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+@ExtendWith(GithubActionsExtension.class)
+class RepositoryTimingPostProcessorTest {
+    @Test
+    void postProcessAfterInitialization_shouldMeasureCallsToPreviouslyFinalMethods() {
+        RealmRepository realmRepository = mock(RealmRepository.class);
+        RealmResource realmResource = mock(RealmResource.class);
+        ClientsResource clientsResource = mock(ClientsResource.class);
+        when(realmRepository.getResource("realm")).thenReturn(realmResource);
+        when(realmResource.clients()).thenReturn(clientsResource);
+
+        ImportReportService importReportService = mock(ImportReportService.class);
+        RepositoryTimingPostProcessor postProcessor = createPostProcessor(importReportService);
+
+        Object bean = postProcessor.postProcessAfterInitialization(
+                new ClientRepository(realmRepository, mock(RealmSnapshotRepository.class)), "clientRepository");
+
+        assertThat(AopUtils.isAopProxy(bean), is(true));
+        assertThat(((ClientRepository) bean).getAllIds("realm").toList(), is(empty()));
+        verify(importReportService).recordRepositoryCall(eq("ClientRepository.getAllIds"), anyLong());
+    }
+
+    @Test
+    void repositoryBeans_shouldNotDeclareFinalMethodsBypassingTheProxy() throws ClassNotFoundException {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Component.class));
+
+        List<String> finalMethods = new ArrayList<>();
+        for (BeanDefinition beanDefinition : scanner.findCandidateComponents(RealmRepository.class.getPackageName())) {
+            for (Method method : Class.forName(beanDefinition.getBeanClassName()).getDeclaredMethods()) {
+                int modifiers = method.getModifiers();
+                if (Modifier.isFinal(modifiers) && !Modifier.isPrivate(modifiers) && !Modifier.isStatic(modifiers)) {
+                    finalMethods.add(method.toString());
+                }
+            }
+        }
+
+        assertThat(finalMethods, is(empty()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RepositoryTimingPostProcessor createPostProcessor(ImportReportService importReportService) {
+        ImportConfigProperties importConfigProperties = mock(ImportConfigProperties.class);
+        when(importConfigProperties.getReport()).thenReturn(new ImportReportProperties("report.json", null));
+
+        ObjectProvider<ImportConfigProperties> importConfigPropertiesProvider = mock(ObjectProvider.class);
+        when(importConfigPropertiesProvider.getObject()).thenReturn(importConfigProperties);
+        ObjectProvider<ImportReportService> importReportServiceProvider = mock(ObjectProvider.class);
+        when(importReportServiceProvider.getObject()).thenReturn(importReportService);
+
+        return new RepositoryTimingPostProcessor(importConfigPropertiesProvider, importReportServiceProvider);
+    }
+}
@@ -0,0 +1,190 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.service.stage;
+
+import de.adorsys.keycloak.config.exception.ImportProcessingException;
+import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.service.journal.ImportJournal;
+import de.adorsys.keycloak.config.service.report.ImportReportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImportStageExecutorTest {
+    private final ImportConfigProperties importConfigProperties = mock(ImportConfigProperties.class);
+
+    private final ImportStageExecutor importStageExecutor = new ImportStageExecutor(importConfigProperties, mock(ImportReportService.class));
+
+    private final RealmImport realmImport = new RealmImport();
+
+    private final List<String> executedStages = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void init() {
+        realmImport.setRealm("someRealm");
+    }
+
+    @Test
+    void execute_shouldRunStagesInDeclarationOrder() {
+        when(importConfigProperties.getStageConcurrency()).thenReturn(1);
+
+        importStageExecutor.execute(realmImport, List.of(
+                ImportStage.of("a", r -> executedStages.add("a")),
+                ImportStage.of("b", r -> executedStages.add("b")),
+                ImportStage.of("c", r -> executedStages.add("c"), "a", "b")
+        ));
+
+        assertThat(executedStages).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void execute_shouldSkipStagesWithUnchangedSections() {
+        when(importConfigProperties.getStageConcurrency()).thenReturn(1);
+
+        importStageExecutor.execute(realmImport, List.of(
+                ImportStage.of("always", r -> executedStages.add("always")),
+                ImportStage.of("clients", r -> executedStages.add("clients")).withSections("clients"),
+                ImportStage.of("roles", r -> executedStages.add("roles"), "clients").withSections("roles"),
+                ImportStage.of("users", r -> executedStages.add("users"), "always").withSections("users")
+        ), section -> !section.equals("clients"));
+
+        assertThat(executedStages).containsExactly("always", "clients", "roles");
+    }
+
+    @Test
+    void execute_shouldSkipStagesCompletedInJournal() {
+        when(importConfigProperties.getStageConcurrency()).thenReturn(1);
+        ImportJournal journal = mock(ImportJournal.class);
+        when(journal.isCompleted("clients")).thenReturn(true);
+
+        importStageExecutor.execute(realmImport, List.of(
+                ImportStage.of("clients", r -> executedStages.add("clients")).withSections("clients"),
+                ImportStage.of("roles", r -> executedStages.add("roles"), "clients").withSections("roles")
+        ), section -> false, journal);
+
+        assertThat(executedStages).containsExactly("roles");
+        verify(journal).complete("roles");
+        verify(journal, never()).complete("clients");
+    }
+
+    @Test
+    void execute_shouldRunIndependentStagesConcurrently() {
+        when(importConfigProperties.getStageConcurrency()).thenReturn(2);
+
+        CountDownLatch latch = new CountDownLatch(2);
+
+        importStageExecutor.execute(realmImport, List.of(
+                ImportStage.of("a", r -> awaitOther(latch, "a")),
+                ImportStage.of("b", r -> awaitOther(latch, "b")),
+                ImportStage.of("c", r -> executedStages.add("c"), "a", "b")
+        ));
+
+        assertThat(executedStages).hasSize(3).endsWith("c");
+    }
+
+    @Test
+    void execute_shouldNotStartDependentStagesAfterFailure() {
+        when(importConfigProperties.getStageConcurrency()).thenReturn(4);
+
+        List<ImportStage> stages = List.of(
+                ImportStage.of("a", r -> {
+                    throw new ImportProcessingException("a failed");
+                }),
+                ImportStage.of("b", r -> executedStages.add("b"), "a")
+        );
+
+        ImportProcessingException exception = assertThrows(
+                ImportProcessingException.class,
+                () -> importStageExecutor.execute(realmImport, stages)
+        );
+
+        assertThat(exception).hasMessage("a failed");
+        assertThat(executedStages).isEmpty();
+    }
+
+    @Test
+    void execute_shouldReportFirstDeclaredFailure() {
+        when(importConfigProperties.getStageConcurrency()).thenReturn(2);
+
+        CountDownLatch latch = new CountDownLatch(2);
+
+        List<ImportStage> stages = List.of(
+                ImportStage.of("a", r -> {
+                    awaitOther(latch, "a");
+                    throw new ImportProcessingException("a failed");
+                }),
+                ImportStage.of("b", r -> {
+                    awaitOther(latch, "b");
+                    throw new ImportProcessingException("b failed");
+                })
+        );
+
+        ImportProcessingException exception = assertThrows(
+                ImportProcessingException.class,
+                () -> importStageExecutor.execute(realmImport, stages)
+        );
+
+        assertThat(exception).hasMessage("a failed");
+        assertThat(exception.getSuppressed()).hasSize(1);
+        assertThat(exception.getSuppressed()[0]).hasMessage("b failed");
+    }
+
+    @Test
+    void execute_shouldRejectDependencyDeclaredAfterStage() {
+        List<ImportStage> stages = List.of(
+                ImportStage.of("a", r -> executedStages.add("a"), "b"),
+                ImportStage.of("b", r -> executedStages.add("b"))
+        );
+
+        ImportProcessingException exception = assertThrows(
+                ImportProcessingException.class,
+                () -> importStageExecutor.execute(realmImport, stages)
+        );
+
+        assertThat(exception).hasMessage("Import stage 'a' depends on 'b', which is not declared before it.");
+        assertThat(executedStages).isEmpty();
+    }
+
+    private void awaitOther(CountDownLatch latch, String stageName) {
+        latch.countDown();
+
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        executedStages.add(stageName);
+    }
+}
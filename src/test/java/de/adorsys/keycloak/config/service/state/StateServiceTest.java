@@ -0,0 +1,229 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package de.adorsys.keycloak.config.service.state;
+
+import de.adorsys.keycloak.config.model.RealmImport;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportRemoteStateProperties;
+import de.adorsys.keycloak.config.repository.StateRepository;
+import de.adorsys.keycloak.config.util.FingerprintUtil;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.CredentialRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StateServiceTest {
+    private static final String REALM = "realm";
+    private static final String ENCRYPTION_KEY = "password";
+
+    private final StateRepository stateRepository = mock(StateRepository.class);
+    private final ImportConfigProperties importConfigProperties = mock(ImportConfigProperties.class);
+
+    private final StateService stateService = new StateService(stateRepository, importConfigProperties);
+
+    @Test
+    void recordClientSecret_shouldDetectSecretAppliedByLastImport() {
+        loadState(true, System.currentTimeMillis());
+
+        assertThat(stateService.recordClientSecret(REALM, "client", "secret"), is(true));
+        assertThat(stateService.recordClientSecret(REALM, "client", "changed"), is(false));
+        assertThat(stateService.recordClientSecret(REALM, "other-client", "secret"), is(false));
+    }
+
+    @Test
+    void recordClientSecret_shouldNotTrustSecretsDuringFullReconcile() {
+        loadState(true, System.currentTimeMillis() - Duration.ofDays(2).toMillis());
+
+        assertThat(stateService.recordClientSecret(REALM, "client", "secret"), is(false));
+    }
+
+    @Test
+    void recordClientSecret_shouldNotMatchUnkeyedFingerprint() {
+        loadState(true, System.currentTimeMillis());
+        when(stateRepository.getState(REALM, "fingerprints-client-secrets"))
+                .thenReturn(List.of(FingerprintUtil.fingerprint("client", "secret")));
+
+        assertThat(stateService.recordClientSecret(REALM, "client", "secret"), is(false));
+    }
+
+    @Test
+    void recordClientSecret_shouldBeDisabledByDefault() {
+        loadState(false, System.currentTimeMillis());
+
+        assertThat(stateService.recordClientSecret(REALM, "client", "secret"), is(false));
+    }
+
+    @Test
+    void isUnchanged_shouldDetectEntityImportedByLastImport() {
+        UserRepresentation user = user("user@example.com");
+        loadState(ENCRYPTION_KEY, true, false, System.currentTimeMillis());
+        when(stateRepository.getState(REALM, "fingerprints-users")).thenReturn(List.of(fingerprint(ENCRYPTION_KEY, user)));
+
+        assertThat(stateService.isUnchanged(REALM, "users", StateService.getUserKey(user), user), is(true));
+
+        user.setFirstName("changed");
+        assertThat(stateService.isUnchanged(REALM, "users", StateService.getUserKey(user), user), is(false));
+    }
+
+    @Test
+    void isUnchanged_shouldReconcileAllEntitiesAfterInterval() {
+        UserRepresentation user = user("user@example.com");
+        loadState(ENCRYPTION_KEY, true, false, System.currentTimeMillis() - Duration.ofDays(2).toMillis());
+        when(stateRepository.getState(REALM, "fingerprints-users")).thenReturn(List.of(fingerprint(ENCRYPTION_KEY, user)));
+
+        assertThat(stateService.isUnchanged(REALM, "users", StateService.getUserKey(user), user), is(false));
+
+        stateService.doImport(realmImport());
+
+        verify(stateRepository).setState(eq(REALM), eq("full-reconcile"), anyList());
+        verify(stateRepository).setState(REALM, "fingerprints-users", List.of(fingerprint(ENCRYPTION_KEY, user)));
+    }
+
+    @Test
+    void isUnchanged_shouldBeDisabledByDefault() {
+        UserRepresentation user = user("user@example.com");
+        loadState(ENCRYPTION_KEY, false, false, System.currentTimeMillis());
+        when(stateRepository.getState(REALM, "fingerprints-users")).thenReturn(List.of(fingerprint(ENCRYPTION_KEY, user)));
+
+        assertThat(stateService.isUnchanged(REALM, "users", StateService.getUserKey(user), user), is(false));
+    }
+
+    @Test
+    void isUnchanged_shouldNotFingerprintCredentialsWithoutEncryptionKey() {
+        UserRepresentation user = user("user@example.com");
+        CredentialRepresentation credential = new CredentialRepresentation();
+        credential.setType(CredentialRepresentation.PASSWORD);
+        credential.setValue("password");
+        user.setCredentials(List.of(credential));
+        loadState(null, true, false, System.currentTimeMillis());
+        when(stateRepository.getState(REALM, "fingerprints-users")).thenReturn(List.of(fingerprint(null, user)));
+
+        assertThat(stateService.isUnchanged(REALM, "users", StateService.getUserKey(user), user), is(false));
+
+        RealmImport realmImport = realmImport();
+        realmImport.setUsers(List.of(user));
+        stateService.doImport(realmImport);
+
+        verify(stateRepository).setState(REALM, "fingerprints-users", List.of());
+    }
+
+    @Test
+    void doImport_shouldStoreFingerprintCheckedBeforeImport() {
+        UserRepresentation user = user("user@example.com");
+        String fingerprint = fingerprint(ENCRYPTION_KEY, user);
+        loadState(ENCRYPTION_KEY, true, false, System.currentTimeMillis());
+
+        stateService.isUnchanged(REALM, "users", StateService.getUserKey(user), user);
+        // the import sets the username of realms with email as username
+        user.setUsername(user.getEmail());
+
+        RealmImport realmImport = realmImport();
+        realmImport.setUsers(List.of(user));
+        stateService.doImport(realmImport);
+
+        verify(stateRepository).setState(REALM, "fingerprints-users", List.of(fingerprint));
+        verify(stateRepository, never()).setState(eq(REALM), eq("full-reconcile"), anyList());
+    }
+
+    @Test
+    void isUnchanged_shouldKeyFingerprintsBySource() {
+        UserRepresentation user = user("user@example.com");
+        String fingerprint = fingerprint(ENCRYPTION_KEY, user);
+        loadState(ENCRYPTION_KEY, true, false, System.currentTimeMillis());
+        when(stateRepository.getState(eq(REALM), startsWith("full-reconcile-")))
+                .thenReturn(List.of(String.valueOf(System.currentTimeMillis())));
+        when(stateRepository.getState(REALM, "fingerprints-users-" + sourceKey("config/users.json"))).thenReturn(List.of(fingerprint));
+
+        RealmImport users = realmImport("config/users.json");
+        users.setUsers(List.of(user));
+        stateService.loadState(users);
+        assertThat(stateService.isUnchanged(REALM, "users", StateService.getUserKey(user), user), is(true));
+        stateService.doImport(users);
+
+        verify(stateRepository).setState(REALM, "fingerprints-users-" + sourceKey("config/users.json"), List.of(fingerprint));
+
+        // another file of the same realm does not see, nor overwrite the fingerprints of the first file
+        RealmImport otherUsers = realmImport("config/other-users.json");
+        otherUsers.setUsers(List.of());
+        stateService.loadState(otherUsers);
+        assertThat(stateService.isUnchanged(REALM, "users", StateService.getUserKey(user), user), is(false));
+        stateService.doImport(otherUsers);
+
+        verify(stateRepository).setState(REALM, "fingerprints-users-" + sourceKey("config/other-users.json"), List.of(fingerprint));
+        verify(stateRepository, never()).setState(eq(REALM), eq("fingerprints-users"), anyList());
+    }
+
+    private void loadState(boolean skipUnchangedClientSecrets, long lastFullReconcile) {
+        when(stateRepository.getState(REALM, "fingerprints-client-secrets"))
+                .thenReturn(List.of(FingerprintUtil.fingerprint(ENCRYPTION_KEY, "client", "secret")));
+        loadState(ENCRYPTION_KEY, false, skipUnchangedClientSecrets, lastFullReconcile);
+    }
+
+    private void loadState(String encryptionKey, boolean skipUnchangedEntities, boolean skipUnchangedClientSecrets, long lastFullReconcile) {
+        when(importConfigProperties.getRemoteState()).thenReturn(new ImportRemoteStateProperties(
+                true, encryptionKey, "2B521C795FBE2F2425DB150CD3700BA9", skipUnchangedEntities, Duration.ofHours(24),
+                skipUnchangedClientSecrets
+        ));
+        when(stateRepository.getState(REALM, "full-reconcile")).thenReturn(List.of(String.valueOf(lastFullReconcile)));
+
+        stateService.loadState(realmImport());
+    }
+
+    private static RealmImport realmImport() {
+        RealmImport realmImport = new RealmImport();
+        realmImport.setRealm(REALM);
+        return realmImport;
+    }
+
+    private static RealmImport realmImport(String source) {
+        RealmImport realmImport = realmImport();
+        realmImport.setSource(source);
+        return realmImport;
+    }
+
+    private static String sourceKey(String source) {
+        return FilenameUtils.getName(source) + "_" + DigestUtils.md5Hex(source);
+    }
+
+    private static UserRepresentation user(String email) {
+        UserRepresentation user = new UserRepresentation();
+        user.setEmail(email);
+        return user;
+    }
+
+    private static String fingerprint(String encryptionKey, UserRepresentation user) {
+        return FingerprintUtil.fingerprint(encryptionKey, StateService.getUserKey(user), user);
+    }
+}
@@ -0,0 +1,134 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.service.watch;
+
+import de.adorsys.keycloak.config.extensions.GithubActionsExtension;
+import de.adorsys.keycloak.config.model.KeycloakImport;
+import de.adorsys.keycloak.config.model.RealmImport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@ExtendWith(GithubActionsExtension.class)
+class ChangedRealmImportsTest {
+    @TempDir
+    Path tempDir;
+
+    private Path realmA1;
+    private Path realmA2;
+    private Path realmB;
+    private KeycloakImport keycloakImport;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        realmA1 = Files.createFile(tempDir.resolve("1-realm-a.json"));
+        realmB = Files.createFile(tempDir.resolve("2-realm-b.json"));
+        realmA2 = Files.createFile(tempDir.resolve("3-realm-a-clients.json"));
+
+        Map<String, List<RealmImport>> files = new LinkedHashMap<>();
+        files.put(realmA1.toString(), List.of(realmImport("a", realmA1)));
+        files.put(realmB.toString(), List.of(realmImport("b", realmB)));
+        files.put(realmA2.toString(), List.of(realmImport("a", realmA2)));
+        keycloakImport = new KeycloakImport(Map.of("file:" + tempDir + "/*", files));
+    }
+
+    @Test
+    void select_shouldReturnAllFilesOfChangedRealmsInFileOrder() {
+        KeycloakImport changed = ChangedRealmImports.select(keycloakImport, Set.of(realmA2));
+
+        assertThat(sources(changed)).containsExactly(realmA1.toUri().toString(), realmA2.toUri().toString());
+    }
+
+    @Test
+    void select_shouldReturnEverythingIfChangedFilesAreUnknown() {
+        assertThat(ChangedRealmImports.select(keycloakImport, Set.of())).isSameAs(keycloakImport);
+    }
+
+    @Test
+    void select_shouldIgnoreChangesOfOtherFiles() throws IOException {
+        Path notes = Files.createFile(tempDir.resolve("notes.txt"));
+
+        assertThat(ChangedRealmImports.select(keycloakImport, Set.of(notes)).getRealmImports()).isEmpty();
+    }
+
+    @Test
+    void select_shouldReturnRealmsBelowDirectoryOfChangedLink() throws IOException {
+        // Kubernetes replaces the ..data link of a mounted ConfigMap, the realm files link to files below ..data
+        Path dataDirectory = Files.createDirectory(tempDir.resolve("..2026_10_18"));
+        Path dataLink = Files.createSymbolicLink(tempDir.resolve("..data"), dataDirectory.getFileName());
+        Path removedDataDirectory = tempDir.resolve("..2026_10_17");
+
+        KeycloakImport changed = ChangedRealmImports.select(keycloakImport, Set.of(dataDirectory, dataLink, removedDataDirectory));
+
+        assertThat(sources(changed)).containsExactly(
+                realmA1.toUri().toString(), realmB.toUri().toString(), realmA2.toUri().toString());
+    }
+
+    @Test
+    void select_shouldNotTreatChangedRealmFileLinkAsDirectoryChange() throws IOException {
+        Path linkedRealm = tempDir.resolve("4-realm-c.json");
+        Files.createSymbolicLink(linkedRealm, realmB.getFileName());
+        keycloakImport.getRealmImports().values().iterator().next()
+                .put(linkedRealm.toString(), List.of(realmImport("c", linkedRealm)));
+
+        KeycloakImport changed = ChangedRealmImports.select(keycloakImport, Set.of(linkedRealm));
+
+        assertThat(sources(changed)).containsExactly(linkedRealm.toUri().toString());
+    }
+
+    @Test
+    void select_shouldReturnRealmOfChangedUserFile() throws IOException {
+        Path userFile = Files.createFile(Files.createDirectory(tempDir.resolve("users")).resolve("users.ndjson"));
+        keycloakImport.getRealmImports().values().iterator().next().get(realmB.toString()).get(0)
+                .setUserFileSources(List.of(userFile.toUri().toString()));
+
+        KeycloakImport changed = ChangedRealmImports.select(keycloakImport, Set.of(userFile));
+
+        assertThat(sources(changed)).containsExactly(realmB.toUri().toString());
+    }
+
+    private static RealmImport realmImport(String realm, Path file) {
+        RealmImport realmImport = new RealmImport();
+        realmImport.setRealm(realm);
+        realmImport.setSource(file.toUri().toString());
+        return realmImport;
+    }
+
+    private static List<String> sources(KeycloakImport keycloakImport) {
+        return keycloakImport.getRealmImports().values().stream()
+                .flatMap(files -> files.values().stream())
+                .flatMap(List::stream)
+                .map(RealmImport::getSource)
+                .toList();
+    }
+}
@@ -0,0 +1,121 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.service.watch;
+
+import de.adorsys.keycloak.config.extensions.GithubActionsExtension;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties;
+import de.adorsys.keycloak.config.properties.ImportConfigProperties.ImportWatchProperties;
+import de.adorsys.keycloak.config.provider.KeycloakImportProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@ExtendWith(GithubActionsExtension.class)
+class ImportWatchServiceTest {
+    private static final Path DIRECTORY = Path.of("/config");
+
+    @TempDir
+    Path tempDir;
+
+    private final ImportWatchService importWatchService = createImportWatchService(Duration.ofMillis(200));
+
+    @Test
+    void awaitChanges_shouldCollectChangesUntilDebounceTimeElapsed() throws InterruptedException {
+        WatchService watchService = mock(WatchService.class);
+        WatchKey first = watchKey(event(StandardWatchEventKinds.ENTRY_MODIFY, "realm.json"),
+                event(StandardWatchEventKinds.ENTRY_CREATE, "realm.json.tmp"));
+        WatchKey second = watchKey(event(StandardWatchEventKinds.ENTRY_DELETE, "realm.json.tmp"));
+        when(watchService.take()).thenReturn(first);
+        when(watchService.poll(200, TimeUnit.MILLISECONDS)).thenReturn(second, (WatchKey) null);
+
+        assertThat(importWatchService.awaitChanges(watchService, false))
+                .containsExactly(DIRECTORY.resolve("realm.json"), DIRECTORY.resolve("realm.json.tmp"));
+        verify(first).reset();
+        verify(second).reset();
+    }
+
+    @Test
+    void awaitChanges_shouldReturnNoFilesIfEventsWereDropped() throws InterruptedException {
+        WatchService watchService = mock(WatchService.class);
+        WatchKey watchKey = watchKey(event(StandardWatchEventKinds.ENTRY_MODIFY, "realm.json"),
+                event(StandardWatchEventKinds.OVERFLOW, null));
+        when(watchService.take()).thenReturn(watchKey);
+
+        assertThat(importWatchService.awaitChanges(watchService, false)).isEmpty();
+    }
+
+    @Test
+    void awaitChanges_shouldWatchCreatedDirectories() throws IOException, InterruptedException {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            tempDir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+            Path directory = Files.createDirectories(tempDir.resolve("realms/nested"));
+            Path realm = Files.writeString(directory.resolve("realm.json"), "{}");
+
+            assertThat(importWatchService.awaitChanges(watchService, true)).contains(tempDir.resolve("realms"), realm);
+
+            Path otherRealm = Files.writeString(directory.resolve("other-realm.json"), "{}");
+
+            assertThat(importWatchService.awaitChanges(watchService, true)).contains(otherRealm);
+        }
+    }
+
+    private static ImportWatchService createImportWatchService(Duration debounce) {
+        ImportConfigProperties importConfigProperties = mock(ImportConfigProperties.class);
+        when(importConfigProperties.getWatch()).thenReturn(new ImportWatchProperties(true, debounce));
+
+        return new ImportWatchService(mock(KeycloakImportProvider.class), importConfigProperties);
+    }
+
+    private static WatchKey watchKey(WatchEvent<?>... events) {
+        WatchKey watchKey = mock(WatchKey.class);
+        when(watchKey.watchable()).thenReturn(DIRECTORY);
+        doReturn(List.of(events)).when(watchKey).pollEvents();
+        return watchKey;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static WatchEvent<Path> event(WatchEvent.Kind<?> kind, String fileName) {
+        WatchEvent<Path> event = mock(WatchEvent.class);
+        doReturn(kind).when(event).kind();
+        when(event.context()).thenReturn(fileName == null ? null : Path.of(fileName));
+        return event;
+    }
+}
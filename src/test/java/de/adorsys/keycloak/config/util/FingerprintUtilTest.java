@@ -0,0 +1,67 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.util;
+
+import de.adorsys.keycloak.config.extensions.GithubActionsExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@ExtendWith(GithubActionsExtension.class)
+class FingerprintUtilTest {
+    @Test
+    void shouldIgnoreMapKeyOrder() {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("a", 1);
+        first.put("b", List.of("x", "y"));
+
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("b", List.of("x", "y"));
+        second.put("a", 1);
+
+        assertThat(FingerprintUtil.fingerprint("key", first), is(FingerprintUtil.fingerprint("key", second)));
+    }
+
+    @Test
+    void shouldDependOnKeyAndListOrder() {
+        Map<String, Object> value = Map.of("b", List.of("x", "y"));
+
+        assertThat(FingerprintUtil.fingerprint("key", value), not(FingerprintUtil.fingerprint("other", value)));
+        assertThat(FingerprintUtil.fingerprint("key", value), not(FingerprintUtil.fingerprint("key", Map.of("b", List.of("y", "x")))));
+    }
+
+    @Test
+    void shouldDependOnSecret() {
+        Map<String, Object> value = Map.of("secret", "password");
+
+        assertThat(FingerprintUtil.fingerprint(null, "key", value), is(FingerprintUtil.fingerprint("key", value)));
+        assertThat(FingerprintUtil.fingerprint("secret", "key", value), not(FingerprintUtil.fingerprint("key", value)));
+        assertThat(FingerprintUtil.fingerprint("secret", "key", value), not(FingerprintUtil.fingerprint("other", "key", value)));
+    }
+}
@@ -0,0 +1,54 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.util;
+
+import de.adorsys.keycloak.config.extensions.GithubActionsExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.WebApplicationException;
+
+@ExtendWith(GithubActionsExtension.class)
+class ResponseUtilTest {
+    @Test
+    void isTransientError() {
+        assertTrue(ResponseUtil.isTransientError(new ProcessingException("connection reset")));
+        assertTrue(ResponseUtil.isTransientError(new WebApplicationException(429)));
+        assertTrue(ResponseUtil.isTransientError(new WebApplicationException(500)));
+        assertTrue(ResponseUtil.isTransientError(new WebApplicationException(503)));
+
+        assertFalse(ResponseUtil.isTransientError(new WebApplicationException(400)));
+        assertFalse(ResponseUtil.isTransientError(new WebApplicationException(409)));
+        assertFalse(ResponseUtil.isTransientError(new IllegalStateException()));
+    }
+
+    @Test
+    void getErrorMessage_shouldFallBackToExceptionMessage() {
+        WebApplicationException error = new WebApplicationException("HTTP 400 Bad Request {\"errorMessage\":\"invalid\"}", 400);
+
+        assertTrue(ResponseUtil.getErrorMessage(error).contains("invalid"));
+    }
+}
@@ -0,0 +1,66 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.util;
+
+import de.adorsys.keycloak.config.extensions.GithubActionsExtension;
+import de.adorsys.keycloak.config.properties.KeycloakConfigProperties.KeycloakHttpClientProperties;
+import de.adorsys.keycloak.config.properties.KeycloakConfigProperties.KeycloakHttpClientProperties.HttpEngine;
+import de.adorsys.keycloak.config.util.resteasy.AdaptiveConcurrencyLimiter;
+import de.adorsys.keycloak.config.util.resteasy.LimitingClientHttpEngine;
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.time.Duration;
+
+@ExtendWith(GithubActionsExtension.class)
+class ResteasyUtilTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @ParameterizedTest
+    @EnumSource(HttpEngine.class)
+    void getClient_shouldLimitEngineIfLimiterIsGiven(HttpEngine engine) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 64, TIMEOUT);
+
+        try (ResteasyClient client = ResteasyUtil.getClient(false, null, TIMEOUT, TIMEOUT, httpClient(engine), limiter)) {
+            assertThat(client.httpEngine(), is(instanceOf(LimitingClientHttpEngine.class)));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(HttpEngine.class)
+    void getClient_shouldNotLimitEngineWithoutLimiter(HttpEngine engine) {
+        try (ResteasyClient client = ResteasyUtil.getClient(false, null, TIMEOUT, TIMEOUT, httpClient(engine), null)) {
+            assertThat(client.httpEngine(), is(not(instanceOf(LimitingClientHttpEngine.class))));
+        }
+    }
+
+    private static KeycloakHttpClientProperties httpClient(HttpEngine engine) {
+        return new KeycloakHttpClientProperties(engine, 10, 0, null);
+    }
+}
@@ -0,0 +1,102 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.util.resteasy;
+
+import de.adorsys.keycloak.config.extensions.GithubActionsExtension;
+import de.adorsys.keycloak.config.util.resteasy.AdaptiveConcurrencyLimiter.Permit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@ExtendWith(GithubActionsExtension.class)
+class AdaptiveConcurrencyLimiterTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(10);
+
+    @Test
+    void release_shouldIncreaseLimitIfUsedAndFast() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 5, Duration.ofSeconds(1));
+
+        Permit first = limiter.acquire();
+        Permit second = limiter.acquire();
+        limiter.release(second, FAST, false);
+        limiter.release(first, FAST, false);
+
+        assertThat(limiter.getLimit(), is(5));
+
+        limiter.release(limiter.acquire(), FAST, false);
+        limiter.release(limiter.acquire(), FAST, false);
+
+        // neither used enough nor below the max limit
+        assertThat(limiter.getLimit(), is(5));
+    }
+
+    @Test
+    void release_shouldDecreaseLimitIfOverloadedOrSlow() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 17, 64, Duration.ofSeconds(1));
+
+        limiter.release(limiter.acquire(), FAST, true);
+        assertThat(limiter.getLimit(), is(18));
+
+        limiter.release(limiter.acquire(), SLOW, false);
+        assertThat(limiter.getLimit(), is(17));
+
+        limiter.release(limiter.acquire(), SLOW, true);
+        assertThat(limiter.getLimit(), is(17));
+    }
+
+    @Test
+    void release_shouldDecreaseLimitOncePerGenerationOfCalls() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 1, 64, Duration.ofSeconds(1));
+
+        List<Permit> burst = IntStream.range(0, 10).mapToObj(i -> limiter.acquire()).toList();
+        burst.forEach(permit -> limiter.release(permit, FAST, true));
+
+        // the calls were in flight together, their overloaded responses are one signal
+        assertThat(limiter.getLimit(), is(18));
+
+        limiter.release(limiter.acquire(), FAST, true);
+        assertThat(limiter.getLimit(), is(16));
+    }
+
+    @Test
+    void acquire_shouldWaitForRelease() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, Duration.ofSeconds(1));
+
+        Permit permit = limiter.acquire();
+        CompletableFuture<Permit> waiting = CompletableFuture.supplyAsync(limiter::acquire);
+
+        Thread.sleep(50);
+        assertThat(waiting.isDone(), is(false));
+
+        limiter.release(permit, FAST, false);
+        assertThat(waiting.get(5, TimeUnit.SECONDS).inflight(), is(0));
+    }
+}
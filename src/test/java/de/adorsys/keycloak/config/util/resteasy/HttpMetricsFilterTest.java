@@ -0,0 +1,45 @@
+/*-
+ * ---license-start
+ * keycloak-config-cli
+ * ---
+ * Copyright (C) 2017 - 2021 adorsys GmbH & Co. KG @ https://adorsys.com
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package de.adorsys.keycloak.config.util.resteasy;
+
+import de.adorsys.keycloak.config.extensions.GithubActionsExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+@ExtendWith(GithubActionsExtension.class)
+class HttpMetricsFilterTest {
+    @Test
+    void toTemplate_shouldReplaceIdsAndNames() {
+        assertThat(HttpMetricsFilter.toTemplate("/admin/realms/my-realm/clients/5d2ec4e6-d4b3-4ad7-a2e8-21e2f6a3c8e1/roles/my-role"),
+                is("/admin/realms/{realm}/clients/{id}/roles/{role}"));
+        assertThat(HttpMetricsFilter.toTemplate("/admin/realms/my-realm/authentication/flows/browser/executions"),
+                is("/admin/realms/{realm}/authentication/flows/{flow}/executions"));
+        assertThat(HttpMetricsFilter.toTemplate("/admin/realms/my-realm/localization/en/greeting"),
+                is("/admin/realms/{realm}/localization/{locale}/{key}"));
+        assertThat(HttpMetricsFilter.toTemplate("/realms/master/protocol/openid-connect/token"),
+                is("/realms/{realm}/protocol/openid-connect/token"));
+        assertThat(HttpMetricsFilter.toTemplate("/admin/realms"), is("/admin/realms"));
+    }
+}